@@ -0,0 +1,69 @@
+package com.Cloud.CrowdOracle.benchmarks;
+
+import com.Cloud.CrowdOracle.dtos.CrowdDataDTO;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic datasets shared by the benchmarks, so runs on different commits see the same input
+ */
+final class BenchmarkData {
+
+    private static final long SEED = 0x5EED_C0DEL;
+
+    private BenchmarkData() {}
+
+    /**
+     * Serial stream as the Arduino sketch prints it; errorPercent of the lines are sensor failures
+     */
+    static byte[] serialLines(int lines, int errorPercent) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(lines * 56);
+        for (int i = 0; i < lines; i++) {
+            String line = random.nextInt(100) < errorPercent
+                ? "{\"error\":\"sensor_failure\"}\r\n"
+                : String.format(Locale.ROOT, "{\"temperatureCelsius\":%.2f,\"totalPeopleCount\":%d}\r\n",
+                                temperature(random), people(random));
+            out.writeBytes(line.getBytes(StandardCharsets.US_ASCII));
+        }
+        return out.toByteArray();
+    }
+
+    static List<CrowdDataDTO> dtos(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<CrowdDataDTO> dtos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dtos.add(new CrowdDataDTO(temperature(random), people(random)));
+        }
+        return dtos;
+    }
+
+    /**
+     * Saved rows, newest first as the repository returns them.
+     * One timestamp instance is shared to keep 10^7 rows within a few hundred MB of heap.
+     */
+    static List<CrowdData> rows(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        LocalDateTime entryTime = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<CrowdData> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new CrowdData((long) (count - i), temperature(random), people(random), entryTime));
+        }
+        return rows;
+    }
+
+    private static double temperature(SplittableRandom random) {
+        return Math.round(random.nextDouble(15.0, 40.0) * 100.0) / 100.0;
+    }
+
+    private static int people(SplittableRandom random) {
+        return random.nextInt(0, 500);
+    }
+}
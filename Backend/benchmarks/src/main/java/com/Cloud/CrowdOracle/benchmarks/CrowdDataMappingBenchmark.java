@@ -0,0 +1,47 @@
+package com.Cloud.CrowdOracle.benchmarks;
+
+import com.Cloud.CrowdOracle.dtos.CrowdDataDTO;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.services.CrowdDataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO-to-entity mapping done by CrowdDataService before every save, single and batch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CrowdDataMappingBenchmark {
+
+    // Readings per batch, as in POST /api/crowd-data/batch or one write-behind flush
+    @Param({"1", "200", "10000"})
+    public int batchSize;
+
+    private List<CrowdDataDTO> dtos;
+
+    @Setup
+    public void setup() {
+        dtos = BenchmarkData.dtos(batchSize);
+    }
+
+    @Benchmark
+    public List<CrowdData> toEntities() {
+        return dtos.stream().map(CrowdDataService::toEntity).toList();
+    }
+}
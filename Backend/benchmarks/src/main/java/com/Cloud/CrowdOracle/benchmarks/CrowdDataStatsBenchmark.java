@@ -0,0 +1,99 @@
+package com.Cloud.CrowdOracle.benchmarks;
+
+import com.Cloud.CrowdOracle.dtos.CrowdDataAggregate;
+import com.Cloud.CrowdOracle.dtos.RollupBucket;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.events.CrowdDataSavedEvent;
+import com.Cloud.CrowdOracle.repository.CrowdDataChunkRepository;
+import com.Cloud.CrowdOracle.repository.CrowdDataRepository;
+import com.Cloud.CrowdOracle.services.CrowdDataStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /api/crowd-data/stats over 10^4 to 10^7 rows.
+ * legacyStreamScan is what the endpoint used to do after findAll(): four passes over every row.
+ * accumulatorSnapshot is the current read path, and accumulatorUpdate is what it costs per saved reading.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CrowdDataStatsBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    private List<CrowdData> allData;
+    private CrowdDataStatistics statistics;
+    private CrowdDataSavedEvent singleReading;
+
+    @Setup
+    public void setup() {
+        allData = BenchmarkData.rows(rows);
+
+        // The repositories are only asked for the empty-table aggregates at seed time
+        statistics = new CrowdDataStatistics(emptyRepository(), emptyChunkRepository());
+        statistics.seed();
+        statistics.onSaved(new CrowdDataSavedEvent(allData));
+        singleReading = new CrowdDataSavedEvent(List.of(allData.get(0)));
+    }
+
+    @Benchmark
+    public void legacyStreamScan(Blackhole blackhole) {
+        blackhole.consume(allData.stream().mapToInt(CrowdData::getTotalPeopleCount).average().orElse(0));
+        blackhole.consume(allData.stream().mapToInt(CrowdData::getTotalPeopleCount).max().orElse(0));
+        blackhole.consume(allData.stream().mapToInt(CrowdData::getTotalPeopleCount).min().orElse(0));
+        blackhole.consume(allData.stream().mapToDouble(CrowdData::getTemperatureCelsius).average().orElse(0));
+    }
+
+    @Benchmark
+    public CrowdDataStatistics.Snapshot accumulatorSnapshot() {
+        return statistics.snapshot();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void accumulatorUpdate() {
+        statistics.onSaved(singleReading);
+    }
+
+    private static CrowdDataRepository emptyRepository() {
+        CrowdDataAggregate empty = (CrowdDataAggregate) Proxy.newProxyInstance(
+            CrowdDataAggregate.class.getClassLoader(), new Class<?>[] {CrowdDataAggregate.class},
+            (proxy, method, args) -> method.getName().equals("getRecordCount") ? 0L : null);
+        return (CrowdDataRepository) Proxy.newProxyInstance(
+            CrowdDataRepository.class.getClassLoader(), new Class<?>[] {CrowdDataRepository.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("getAggregateStatistics")) {
+                    return empty;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    private static CrowdDataChunkRepository emptyChunkRepository() {
+        return new CrowdDataChunkRepository(null) {
+            @Override
+            public RollupBucket getTotals() {
+                return new RollupBucket(null, 0, 0, 0, 0, 0, 0, 0);
+            }
+        };
+    }
+}
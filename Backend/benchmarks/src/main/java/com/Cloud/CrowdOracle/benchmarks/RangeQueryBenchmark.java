@@ -0,0 +1,152 @@
+package com.Cloud.CrowdOracle.benchmarks;
+
+import com.Cloud.CrowdOracle.dtos.CrowdDataView;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.repository.CrowdDataRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.jpa.HibernateHints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Range read as served by the REST endpoints (query plus JSON serialization), through managed
+ * entities versus the CrowdDataView constructor projection, against a real PostgreSQL.
+ * Rows live in a scratch schema that is created and dropped by the benchmark.
+ * Run with -prof gc to compare allocation per operation.
+ * Connection: -Dbench.jdbc.url, -Dbench.jdbc.user, -Dbench.jdbc.password (defaults match application.properties).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class RangeQueryBenchmark {
+
+    private static final String SCHEMA = "crowd_bench";
+
+    private static final String URL = System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/CrowdOracle");
+    private static final String USER = System.getProperty("bench.jdbc.user", "postgres");
+    private static final String PASSWORD = System.getProperty("bench.jdbc.password", "0000");
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private SessionFactory sessionFactory;
+    private ObjectMapper objectMapper;
+    private LocalDateTime end;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("CREATE TABLE " + SCHEMA + ".crowd_data (id BIGSERIAL PRIMARY KEY, " +
+                              "temperature_celsius DECIMAL(5,2) NOT NULL, total_people_count INTEGER NOT NULL, " +
+                              "entry_time TIMESTAMP NOT NULL, source_id VARCHAR(64))");
+            // One reading every 5 seconds, like the Arduino, with three sources
+            statement.execute("INSERT INTO " + SCHEMA + ".crowd_data " +
+                              "(temperature_celsius, total_people_count, entry_time, source_id) " +
+                              "SELECT 15 + (i * 7919 % 2500) / 100.0, i * 104729 % 500, " +
+                              "TIMESTAMP '2025-01-01' + i * INTERVAL '5 seconds', 'site-' || (i % 3) " +
+                              "FROM generate_series(0::bigint, " + (rows - 1) + ") AS i");
+            statement.execute("CREATE INDEX ON " + SCHEMA + ".crowd_data (entry_time DESC)");
+            statement.execute("ANALYZE " + SCHEMA + ".crowd_data");
+        }
+        end = START.plusSeconds(5L * rows);
+
+        sessionFactory = new Configuration()
+            .addAnnotatedClass(CrowdData.class)
+            .setProperty("hibernate.connection.url", URL)
+            .setProperty("hibernate.connection.username", USER)
+            .setProperty("hibernate.connection.password", PASSWORD)
+            .setProperty("hibernate.default_schema", SCHEMA)
+            .setProperty("hibernate.hbm2ddl.auto", "none")
+            .buildSessionFactory();
+
+        objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        sessionFactory.close();
+        try (Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    /**
+     * Previous path: derived findByEntryTimeBetween in a read-only transaction
+     * (Spring sets the session read-only and flush mode MANUAL for those)
+     */
+    @Benchmark
+    public byte[] entities() throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            session.beginTransaction();
+            List<CrowdData> data = session
+                .createQuery("SELECT c FROM CrowdData c WHERE c.entryTime BETWEEN :startTime AND :endTime",
+                             CrowdData.class)
+                .setParameter("startTime", START)
+                .setParameter("endTime", end)
+                .getResultList();
+            byte[] json = objectMapper.writeValueAsBytes(data);
+            session.getTransaction().commit();
+            return json;
+        }
+    }
+
+    /**
+     * New path: CrowdDataRepository.findViewsByEntryTimeBetween
+     */
+    @Benchmark
+    public byte[] projection() throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            session.beginTransaction();
+            List<CrowdDataView> data = session
+                .createQuery(CrowdDataRepository.VIEW_SELECT + "WHERE c.entryTime BETWEEN :startTime AND :endTime",
+                             CrowdDataView.class)
+                .setParameter("startTime", START)
+                .setParameter("endTime", end)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 1000)
+                .getResultList();
+            byte[] json = objectMapper.writeValueAsBytes(data);
+            session.getTransaction().commit();
+            return json;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.Cloud.CrowdOracle.benchmarks;
+
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the Map envelopes the controllers return (success, message, data, count, timestamp).
+ * The mapper is configured like Spring Boot's: Java time module, ISO dates rather than timestamps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    // Rows in the data list, from a single reading up to a full page
+    @Param({"1", "100", "1000"})
+    public int rows;
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> listResponse;
+    private Map<String, Object> latestResponse;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        List<CrowdData> data = BenchmarkData.rows(rows);
+
+        listResponse = new HashMap<>();
+        listResponse.put("success", true);
+        listResponse.put("message", "Crowd data retrieved successfully");
+        listResponse.put("data", data);
+        listResponse.put("count", data.size());
+        listResponse.put("nextCursor", null);
+        listResponse.put("timestamp", LocalDateTime.now());
+
+        CrowdData latest = data.get(0);
+        latestResponse = new HashMap<>();
+        latestResponse.put("success", true);
+        latestResponse.put("message", "Latest crowd data retrieved");
+        latestResponse.put("data", latest);
+        latestResponse.put("currentPeopleCount", latest.getTotalPeopleCount());
+        latestResponse.put("currentTemperature", latest.getTemperatureCelsius());
+        latestResponse.put("timestamp", LocalDateTime.now());
+    }
+
+    @Benchmark
+    public byte[] listEnvelope() throws Exception {
+        return objectMapper.writeValueAsBytes(listResponse);
+    }
+
+    @Benchmark
+    public byte[] latestEnvelope() throws Exception {
+        return objectMapper.writeValueAsBytes(latestResponse);
+    }
+}
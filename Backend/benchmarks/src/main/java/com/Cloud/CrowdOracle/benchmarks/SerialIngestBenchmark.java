@@ -0,0 +1,101 @@
+package com.Cloud.CrowdOracle.benchmarks;
+
+import com.Cloud.CrowdOracle.serial.SerialLineFramer;
+import com.Cloud.CrowdOracle.serial.SerialReadingParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serial ingest: bytes as delivered by the port in chunks, framed into lines and parsed into readings.
+ * Compares the byte-level framer and parser with the previous String buffer + Jackson tree approach.
+ * Scores are per line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerialIngestBenchmark {
+
+    private static final int LINES = 1000;
+
+    // Bytes per read from the port; jSerialComm typically hands over a few to a few hundred
+    @Param({"16", "256"})
+    public int chunkSize;
+
+    // Share of lines that are {"error":"sensor_failure"}
+    @Param({"0", "10"})
+    public int errorPercent;
+
+    private byte[] stream;
+    private SerialLineFramer framer;
+    private SerialReadingParser parser;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        stream = BenchmarkData.serialLines(LINES, errorPercent);
+        framer = new SerialLineFramer(256);
+        parser = new SerialReadingParser();
+        objectMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void framerAndParser(Blackhole blackhole) {
+        SerialLineFramer.LineHandler handler = (buffer, offset, length) -> {
+            if (parser.parse(buffer, offset, length) == SerialReadingParser.Result.READING) {
+                blackhole.consume(parser.getTemperatureCelsius());
+                blackhole.consume(parser.getTotalPeopleCount());
+            }
+        };
+        for (int offset = 0; offset < stream.length; offset += chunkSize) {
+            framer.accept(stream, offset, Math.min(chunkSize, stream.length - offset), handler);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void legacyStringBufferAndJsonTree(Blackhole blackhole) throws Exception {
+        StringBuilder dataBuffer = new StringBuilder();
+        for (int offset = 0; offset < stream.length; offset += chunkSize) {
+            byte[] chunk = new byte[Math.min(chunkSize, stream.length - offset)];
+            System.arraycopy(stream, offset, chunk, 0, chunk.length);
+            dataBuffer.append(new String(chunk));
+
+            String bufferContent = dataBuffer.toString();
+            int newlineIndex;
+            while ((newlineIndex = bufferContent.indexOf('\n')) != -1) {
+                String completeLine = bufferContent.substring(0, newlineIndex).trim();
+                bufferContent = bufferContent.substring(newlineIndex + 1);
+                if (completeLine.isEmpty()) {
+                    continue;
+                }
+                if (completeLine.contains("\"error\"")) {
+                    blackhole.consume(objectMapper.readTree(completeLine).get("error").asText());
+                    continue;
+                }
+                JsonNode rootNode = objectMapper.readTree(completeLine);
+                blackhole.consume(rootNode.get("temperatureCelsius").asDouble());
+                blackhole.consume(rootNode.get("totalPeopleCount").asInt());
+            }
+            dataBuffer = new StringBuilder(bufferContent);
+        }
+    }
+}
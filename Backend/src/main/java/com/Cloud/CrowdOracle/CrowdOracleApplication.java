@@ -2,10 +2,15 @@ package com.Cloud.CrowdOracle;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// The R2DBC pool for the v2 read API is created by ReactiveCrowdDataRepository; an auto-configured
+// ConnectionFactory bean would stop Spring Boot from creating the JDBC DataSource
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 @EnableJpaRepositories(basePackages = "com.Cloud.CrowdOracle.repository")
+@EnableScheduling
 public class CrowdOracleApplication 
 {
 
@@ -0,0 +1,39 @@
+package com.Cloud.CrowdOracle.chunk;
+
+/**
+ * Reads a stream written by BitOutput.
+ */
+final class BitInput {
+
+    private final byte[] buffer;
+    private long position;
+
+    BitInput(byte[] buffer, int byteOffset) {
+        this.buffer = buffer;
+        this.position = (long) byteOffset << 3;
+    }
+
+    boolean readBit() {
+        return readBits(1) == 1;
+    }
+
+    /**
+     * Read count bits (0..64) as an unsigned value
+     */
+    long readBits(int count) {
+        long value = 0;
+        for (int remaining = count; remaining > 0; ) {
+            int byteIndex = (int) (position >>> 3);
+            if (byteIndex >= buffer.length) {
+                throw new IllegalArgumentException("Chunk data ends early");
+            }
+            int available = 8 - (int) (position & 7);
+            int take = Math.min(available, remaining);
+            int bits = (buffer[byteIndex] >>> (available - take)) & ((1 << take) - 1);
+            value = (value << take) | bits;
+            position += take;
+            remaining -= take;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,42 @@
+package com.Cloud.CrowdOracle.chunk;
+
+import java.util.Arrays;
+
+/**
+ * Append-only bit stream, most significant bit first.
+ */
+final class BitOutput {
+
+    private byte[] buffer;
+    private long bitCount;
+
+    BitOutput(int expectedBytes) {
+        this.buffer = new byte[Math.max(16, expectedBytes)];
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Write the lowest count bits of value (count 0..64)
+     */
+    void writeBits(long value, int count) {
+        for (int remaining = count; remaining > 0; ) {
+            int byteIndex = (int) (bitCount >>> 3);
+            if (byteIndex == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int free = 8 - (int) (bitCount & 7);
+            int take = Math.min(free, remaining);
+            int bits = (int) (value >>> (remaining - take)) & ((1 << take) - 1);
+            buffer[byteIndex] |= (byte) (bits << (free - take));
+            bitCount += take;
+            remaining -= take;
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, (int) ((bitCount + 7) >>> 3));
+    }
+}
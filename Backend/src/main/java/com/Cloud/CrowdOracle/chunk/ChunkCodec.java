@@ -0,0 +1,213 @@
+package com.Cloud.CrowdOracle.chunk;
+
+import com.Cloud.CrowdOracle.dtos.CrowdDataView;
+import com.Cloud.CrowdOracle.util.EpochMicros;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compressed block of readings from one source, stored column by column in a bit stream:
+ *
+ *   byte 0   version (1)
+ *   count    32 bits
+ *   times    epoch microseconds: first value raw, then delta-of-delta
+ *   ids      first value raw, then delta-of-delta (ids mostly step by a constant)
+ *   temps    XOR of each double with the previous one (Gorilla): 1 bit when unchanged,
+ *            otherwise only the bits that differ
+ *   people   run-length: (change from the previous run value, run length - 1) per run
+ *
+ * Delta-of-delta, run values and run lengths use a variable-width signed code:
+ * '0' for zero, then '10' + 7, '110' + 14, '1110' + 24 or '1111' + 64 bits.
+ * A reading every few seconds with millisecond jitter costs about 17 bits of time;
+ * a steady sensor costs a few bits per reading in total.
+ */
+public final class ChunkCodec {
+
+    public static final int VERSION = 1;
+
+    private ChunkCodec() {
+    }
+
+    /**
+     * Encode readings ordered by (entry time, id); the source id is not stored
+     */
+    public static byte[] encode(List<CrowdDataView> rows) {
+        int count = rows.size();
+        BitOutput out = new BitOutput(count * 4 + 16);
+        out.writeBits(VERSION, 8);
+        out.writeBits(count, 32);
+        if (count == 0) {
+            return out.toByteArray();
+        }
+
+        long[] times = new long[count];
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = EpochMicros.of(rows.get(i).entryTime());
+            ids[i] = rows.get(i).id();
+        }
+        writeDeltaOfDelta(out, times);
+        writeDeltaOfDelta(out, ids);
+
+        // Temperatures: Gorilla XOR, reusing the previous leading/trailing zero window when it fits
+        long previous = Double.doubleToLongBits(rows.get(0).temperatureCelsius());
+        out.writeBits(previous, 64);
+        int windowLeading = -1;
+        int windowTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            long bits = Double.doubleToLongBits(rows.get(i).temperatureCelsius());
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                out.writeBit(false);
+                continue;
+            }
+            out.writeBit(true);
+            int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (windowLeading >= 0 && leading >= windowLeading && trailing >= windowTrailing) {
+                out.writeBit(false);
+                out.writeBits(xor >>> windowTrailing, 64 - windowLeading - windowTrailing);
+            } else {
+                int length = 64 - leading - trailing;
+                out.writeBit(true);
+                out.writeBits(leading, 5);
+                out.writeBits(length - 1, 6);
+                out.writeBits(xor >>> trailing, length);
+                windowLeading = leading;
+                windowTrailing = trailing;
+            }
+        }
+
+        // People counts: runs of equal values
+        long runValue = 0;
+        for (int i = 0; i < count; ) {
+            int value = rows.get(i).totalPeopleCount();
+            int end = i + 1;
+            while (end < count && rows.get(end).totalPeopleCount() == value) {
+                end++;
+            }
+            writeSigned(out, value - runValue);
+            writeSigned(out, end - i - 1);
+            runValue = value;
+            i = end;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a chunk back into readings ordered by (entry time, id)
+     */
+    public static List<CrowdDataView> decode(byte[] data, String sourceId) {
+        BitInput in = new BitInput(data, 0);
+        int version = (int) in.readBits(8);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported chunk version " + version);
+        }
+        int count = (int) in.readBits(32);
+        if (count == 0) {
+            return List.of();
+        }
+
+        long[] times = readDeltaOfDelta(in, count);
+        long[] ids = readDeltaOfDelta(in, count);
+
+        double[] temperatures = new double[count];
+        long previous = in.readBits(64);
+        temperatures[0] = Double.longBitsToDouble(previous);
+        int windowLeading = 0;
+        int windowTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (in.readBit()) {
+                long xor;
+                if (!in.readBit()) {
+                    xor = in.readBits(64 - windowLeading - windowTrailing) << windowTrailing;
+                } else {
+                    windowLeading = (int) in.readBits(5);
+                    int length = (int) in.readBits(6) + 1;
+                    windowTrailing = 64 - windowLeading - length;
+                    xor = in.readBits(length) << windowTrailing;
+                }
+                previous ^= xor;
+            }
+            temperatures[i] = Double.longBitsToDouble(previous);
+        }
+
+        List<CrowdDataView> rows = new ArrayList<>(count);
+        long runValue = 0;
+        int runLeft = 0;
+        for (int i = 0; i < count; i++) {
+            if (runLeft == 0) {
+                runValue += readSigned(in);
+                runLeft = (int) readSigned(in) + 1;
+            }
+            runLeft--;
+            rows.add(new CrowdDataView(ids[i], temperatures[i], (int) runValue, EpochMicros.toLocalDateTime(times[i]),
+                                       sourceId));
+        }
+        return rows;
+    }
+
+    private static void writeDeltaOfDelta(BitOutput out, long[] values) {
+        out.writeBits(values[0], 64);
+        long previousDelta = 0;
+        for (int i = 1; i < values.length; i++) {
+            long delta = values[i] - values[i - 1];
+            writeSigned(out, delta - previousDelta);
+            previousDelta = delta;
+        }
+    }
+
+    private static long[] readDeltaOfDelta(BitInput in, int count) {
+        long[] values = new long[count];
+        values[0] = in.readBits(64);
+        long delta = 0;
+        for (int i = 1; i < count; i++) {
+            delta += readSigned(in);
+            values[i] = values[i - 1] + delta;
+        }
+        return values;
+    }
+
+    private static void writeSigned(BitOutput out, long value) {
+        if (value == 0) {
+            out.writeBit(false);
+        } else if (fits(value, 7)) {
+            out.writeBits(0b10, 2);
+            out.writeBits(value, 7);
+        } else if (fits(value, 14)) {
+            out.writeBits(0b110, 3);
+            out.writeBits(value, 14);
+        } else if (fits(value, 24)) {
+            out.writeBits(0b1110, 4);
+            out.writeBits(value, 24);
+        } else {
+            out.writeBits(0b1111, 4);
+            out.writeBits(value, 64);
+        }
+    }
+
+    private static long readSigned(BitInput in) {
+        if (!in.readBit()) {
+            return 0;
+        }
+        int width;
+        if (!in.readBit()) {
+            width = 7;
+        } else if (!in.readBit()) {
+            width = 14;
+        } else if (!in.readBit()) {
+            width = 24;
+        } else {
+            return in.readBits(64);
+        }
+        long value = in.readBits(width);
+        return (value << (64 - width)) >> (64 - width);
+    }
+
+    private static boolean fits(long value, int bits) {
+        long limit = 1L << (bits - 1);
+        return value >= -limit && value < limit;
+    }
+}
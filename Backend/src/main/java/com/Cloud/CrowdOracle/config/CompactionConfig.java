@@ -0,0 +1,44 @@
+package com.Cloud.CrowdOracle.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "compaction")
+public class CompactionConfig {
+
+    // Move aged crowd_data rows into compressed per-source, per-hour chunks (crowd_data_chunk).
+    // Off by default: the moved rows are deleted row by row, leaving dead tuples for autovacuum
+    private boolean enabled = false;
+
+    // Rows older than this are compacted; keep it above the recent buffer's window so recent reads stay hot
+    private int ageDays = 7;
+
+    // Hours compacted per run (one transaction each), so a large backlog is worked off over several runs
+    private int maxHoursPerRun = 168;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getAgeDays() {
+        return ageDays;
+    }
+
+    public void setAgeDays(int ageDays) {
+        this.ageDays = ageDays;
+    }
+
+    public int getMaxHoursPerRun() {
+        return maxHoursPerRun;
+    }
+
+    public void setMaxHoursPerRun(int maxHoursPerRun) {
+        this.maxHoursPerRun = maxHoursPerRun;
+    }
+}
@@ -0,0 +1,54 @@
+package com.Cloud.CrowdOracle.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "ingest.deadband")
+public class DeadbandConfig {
+
+    // Store a reading only when it differs from the last stored one of its source, or the heartbeat is due
+    private boolean enabled = false;
+
+    // Temperature change (°C) that must be exceeded for a reading to be stored
+    private double temperatureDelta = 0.2;
+
+    // People count change that must be exceeded (0 stores every change)
+    private int peopleDelta = 0;
+
+    // Store a reading at least this often per source even when nothing changed
+    private long heartbeatSeconds = 60;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getTemperatureDelta() {
+        return temperatureDelta;
+    }
+
+    public void setTemperatureDelta(double temperatureDelta) {
+        this.temperatureDelta = temperatureDelta;
+    }
+
+    public int getPeopleDelta() {
+        return peopleDelta;
+    }
+
+    public void setPeopleDelta(int peopleDelta) {
+        this.peopleDelta = peopleDelta;
+    }
+
+    public long getHeartbeatSeconds() {
+        return heartbeatSeconds;
+    }
+
+    public void setHeartbeatSeconds(long heartbeatSeconds) {
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+}
@@ -0,0 +1,94 @@
+package com.Cloud.CrowdOracle.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "ingest.rate-limit")
+public class IngestRateLimitConfig {
+
+    // Limit POST /api/crowd-data and /batch; readings from the serial listener are never limited
+    private boolean enabled = true;
+
+    // Sustained readings per second one client (remote address) may post, and the burst it may save up
+    private double perClientRate = 2;
+    private int perClientBurst = 20;
+
+    // Sustained readings per second accepted from all clients together, and the global burst
+    private double globalRate = 200;
+    private int globalBurst = 1000;
+
+    // HTTP writes running at once; keep below the Hikari pool size so reads always find a connection
+    private int maxConcurrentWrites = 4;
+
+    // Requests allowed to wait for a write slot; beyond this they are rejected straight away
+    private int admissionQueueSize = 50;
+
+    // Longest a request waits in the admission queue before it is rejected
+    private long admissionTimeoutMs = 2000;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPerClientRate() {
+        return perClientRate;
+    }
+
+    public void setPerClientRate(double perClientRate) {
+        this.perClientRate = perClientRate;
+    }
+
+    public int getPerClientBurst() {
+        return perClientBurst;
+    }
+
+    public void setPerClientBurst(int perClientBurst) {
+        this.perClientBurst = perClientBurst;
+    }
+
+    public double getGlobalRate() {
+        return globalRate;
+    }
+
+    public void setGlobalRate(double globalRate) {
+        this.globalRate = globalRate;
+    }
+
+    public int getGlobalBurst() {
+        return globalBurst;
+    }
+
+    public void setGlobalBurst(int globalBurst) {
+        this.globalBurst = globalBurst;
+    }
+
+    public int getMaxConcurrentWrites() {
+        return maxConcurrentWrites;
+    }
+
+    public void setMaxConcurrentWrites(int maxConcurrentWrites) {
+        this.maxConcurrentWrites = maxConcurrentWrites;
+    }
+
+    public int getAdmissionQueueSize() {
+        return admissionQueueSize;
+    }
+
+    public void setAdmissionQueueSize(int admissionQueueSize) {
+        this.admissionQueueSize = admissionQueueSize;
+    }
+
+    public long getAdmissionTimeoutMs() {
+        return admissionTimeoutMs;
+    }
+
+    public void setAdmissionTimeoutMs(long admissionTimeoutMs) {
+        this.admissionTimeoutMs = admissionTimeoutMs;
+    }
+}
@@ -0,0 +1,65 @@
+package com.Cloud.CrowdOracle.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "live-feed")
+public class LiveFeedConfig {
+
+    // Readings buffered per subscriber; the oldest are dropped when a client falls behind
+    private int bufferSize = 64;
+
+    // Maximum number of concurrently connected displays
+    private int maxSubscribers = 500;
+
+    // Idle interval after which a keep-alive is sent, also detects dead connections
+    private long heartbeatSeconds = 15;
+
+    // SSE connections are closed after this long; EventSource clients reconnect automatically
+    private long sseTimeoutMinutes = 30;
+
+    // Expose the feed over WebSocket at /ws/crowd-data in addition to SSE
+    private boolean websocketEnabled = false;
+
+    // Getters and Setters
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public long getHeartbeatSeconds() {
+        return heartbeatSeconds;
+    }
+
+    public void setHeartbeatSeconds(long heartbeatSeconds) {
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+
+    public long getSseTimeoutMinutes() {
+        return sseTimeoutMinutes;
+    }
+
+    public void setSseTimeoutMinutes(long sseTimeoutMinutes) {
+        this.sseTimeoutMinutes = sseTimeoutMinutes;
+    }
+
+    public boolean isWebsocketEnabled() {
+        return websocketEnabled;
+    }
+
+    public void setWebsocketEnabled(boolean websocketEnabled) {
+        this.websocketEnabled = websocketEnabled;
+    }
+}
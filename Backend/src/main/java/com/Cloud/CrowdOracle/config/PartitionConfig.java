@@ -0,0 +1,55 @@
+package com.Cloud.CrowdOracle.config;
+
+import com.Cloud.CrowdOracle.repository.PartitionInterval;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "partitioning")
+public class PartitionConfig {
+
+    // Create upcoming partitions and apply retention; the table stays partitioned either way
+    private boolean enabled = true;
+
+    // Range covered by one partition of crowd_data
+    private PartitionInterval interval = PartitionInterval.MONTH;
+
+    // Partitions created ahead of the current one
+    private int premake = 2;
+
+    // Partitions whose whole range is older than this are detached and dropped; 0 keeps everything
+    private int retentionDays = 0;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public PartitionInterval getInterval() {
+        return interval;
+    }
+
+    public void setInterval(PartitionInterval interval) {
+        this.interval = interval;
+    }
+
+    public int getPremake() {
+        return premake;
+    }
+
+    public void setPremake(int premake) {
+        this.premake = premake;
+    }
+
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    public void setRetentionDays(int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+}
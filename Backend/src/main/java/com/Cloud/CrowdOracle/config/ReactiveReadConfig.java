@@ -0,0 +1,52 @@
+package com.Cloud.CrowdOracle.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "reactive-read")
+public class ReactiveReadConfig {
+
+    // r2dbc:postgresql://host:port/db; derived from spring.datasource.url when empty
+    private String url;
+
+    // Connections in the R2DBC pool, separate from the Hikari pool used for writes
+    private int initialSize = 2;
+    private int maxSize = 20;
+
+    // Idle connections above initialSize are closed after this long
+    private long maxIdleMinutes = 30;
+
+    // Getters and Setters
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public int getInitialSize() {
+        return initialSize;
+    }
+
+    public void setInitialSize(int initialSize) {
+        this.initialSize = initialSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxIdleMinutes() {
+        return maxIdleMinutes;
+    }
+
+    public void setMaxIdleMinutes(long maxIdleMinutes) {
+        this.maxIdleMinutes = maxIdleMinutes;
+    }
+}
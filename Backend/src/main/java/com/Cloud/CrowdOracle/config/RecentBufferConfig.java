@@ -0,0 +1,32 @@
+package com.Cloud.CrowdOracle.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "recent-buffer")
+public class RecentBufferConfig {
+
+    // Serve recent reads (latest per source, first pages, short ranges and stats) from memory
+    private boolean enabled = true;
+
+    // Newest readings kept in memory, about 24 bytes each; 100000 is ~5.8 days of one reading every 5 s
+    private int capacity = 100_000;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+}
@@ -0,0 +1,43 @@
+package com.Cloud.CrowdOracle.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "response-cache")
+public class ResponseCacheConfig {
+
+    // Serve repeated dashboard reads from memory with ETag/Last-Modified until the data changes
+    private boolean enabled = true;
+
+    // Upper bound on the serialized bodies held, in bytes
+    private long maxBytes = 32L * 1024 * 1024;
+
+    // Entries not read for this long are dropped; a data change invalidates them regardless
+    private long idleSeconds = 3600;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long getIdleSeconds() {
+        return idleSeconds;
+    }
+
+    public void setIdleSeconds(long idleSeconds) {
+        this.idleSeconds = idleSeconds;
+    }
+}
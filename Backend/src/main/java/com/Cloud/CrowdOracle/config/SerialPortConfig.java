@@ -3,6 +3,9 @@ package com.Cloud.CrowdOracle.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @ConfigurationProperties(prefix = "serial")
 public class SerialPortConfig {
@@ -11,6 +14,20 @@ public class SerialPortConfig {
     private int baudrate = 9600;
     private boolean enabled = true;
 
+    // Wire format sent by the Arduino; JSON text lines unless the sketch enables binary frames
+    private Protocol protocol = Protocol.JSON;
+
+    // Longest accepted serial line; longer lines are dropped to protect the reader
+    private int maxLineLength = 256;
+
+    // Ports to read, one Arduino each; entries may be globs such as /dev/ttyACM* or COM*,
+    // or USB identities such as usb:2341:0043 (VID:PID, optionally :SERIAL).
+    // When empty, only port.name is used.
+    private List<String> ports = new ArrayList<>();
+
+    // How long a port reader sleeps when no bytes are waiting
+    private long pollIntervalMs = 20;
+
     // Getters and Setters
     public String getPortName() {
         return portName;
@@ -36,6 +53,45 @@ public class SerialPortConfig {
         this.enabled = enabled;
     }
 
+    public Protocol getProtocol() {
+        return protocol;
+    }
+
+    public void setProtocol(Protocol protocol) {
+        this.protocol = protocol;
+    }
+
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    public void setMaxLineLength(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+    }
+
+    public List<String> getPorts() {
+        return ports;
+    }
+
+    public void setPorts(List<String> ports) {
+        this.ports = ports;
+    }
+
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+
+    public void setPollIntervalMs(long pollIntervalMs) {
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public enum Protocol {
+        // Newline-terminated JSON objects
+        JSON,
+        // COBS-framed binary readings with sequence number and CRC
+        BINARY
+    }
+
     // Nested class for port configuration
     public static class Port {
         private String name = "COM3";
@@ -67,4 +123,49 @@ public class SerialPortConfig {
     public void setPort(Port port) {
         this.port = port;
     }
+
+    // Nested class for the connection supervisor
+    public static class Reconnect {
+        // How often the supervisor rescans the system ports for new, returned or renamed devices
+        private long scanIntervalMs = 2000;
+
+        // Delay before reopening a port that failed to open, doubled per failure up to the maximum, with jitter
+        private long initialDelayMs = 500;
+
+        private long maxDelayMs = 30000;
+
+        public long getScanIntervalMs() {
+            return scanIntervalMs;
+        }
+
+        public void setScanIntervalMs(long scanIntervalMs) {
+            this.scanIntervalMs = scanIntervalMs;
+        }
+
+        public long getInitialDelayMs() {
+            return initialDelayMs;
+        }
+
+        public void setInitialDelayMs(long initialDelayMs) {
+            this.initialDelayMs = initialDelayMs;
+        }
+
+        public long getMaxDelayMs() {
+            return maxDelayMs;
+        }
+
+        public void setMaxDelayMs(long maxDelayMs) {
+            this.maxDelayMs = maxDelayMs;
+        }
+    }
+
+    private Reconnect reconnect = new Reconnect();
+
+    public Reconnect getReconnect() {
+        return reconnect;
+    }
+
+    public void setReconnect(Reconnect reconnect) {
+        this.reconnect = reconnect;
+    }
 }
@@ -0,0 +1,86 @@
+package com.Cloud.CrowdOracle.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "ingest.spool")
+public class SpoolConfig {
+
+    // When disabled serial readings go straight to the ingest pipeline and are lost while the database is down
+    private boolean enabled = true;
+
+    // Directory holding the segment files and the replay checkpoint
+    private String directory = "spool";
+
+    // Size of one memory-mapped segment file; about 30 bytes per reading
+    private int segmentBytes = 4 * 1024 * 1024;
+
+    // Readings stored per replay transaction
+    private int batchSize = 500;
+
+    // How often the replayer looks for new readings and flushes the segment to disk
+    private long drainIntervalMs = 250;
+
+    // Wait after a failed replay, doubled on every further failure up to the maximum
+    private long retryInitialMs = 500;
+
+    private long retryMaxMs = 30000;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    public void setSegmentBytes(int segmentBytes) {
+        this.segmentBytes = segmentBytes;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getDrainIntervalMs() {
+        return drainIntervalMs;
+    }
+
+    public void setDrainIntervalMs(long drainIntervalMs) {
+        this.drainIntervalMs = drainIntervalMs;
+    }
+
+    public long getRetryInitialMs() {
+        return retryInitialMs;
+    }
+
+    public void setRetryInitialMs(long retryInitialMs) {
+        this.retryInitialMs = retryInitialMs;
+    }
+
+    public long getRetryMaxMs() {
+        return retryMaxMs;
+    }
+
+    public void setRetryMaxMs(long retryMaxMs) {
+        this.retryMaxMs = retryMaxMs;
+    }
+}
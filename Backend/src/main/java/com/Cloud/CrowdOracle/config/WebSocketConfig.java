@@ -0,0 +1,32 @@
+package com.Cloud.CrowdOracle.config;
+
+import com.Cloud.CrowdOracle.services.CrowdDataService;
+import com.Cloud.CrowdOracle.services.LiveFeedService;
+import com.Cloud.CrowdOracle.websocket.LiveFeedWebSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@ConditionalOnProperty(prefix = "live-feed", name = "websocket-enabled", havingValue = "true")
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final LiveFeedService liveFeedService;
+    private final CrowdDataService crowdDataService;
+
+    @Autowired
+    public WebSocketConfig(LiveFeedService liveFeedService, CrowdDataService crowdDataService) {
+        this.liveFeedService = liveFeedService;
+        this.crowdDataService = crowdDataService;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(new LiveFeedWebSocketHandler(liveFeedService, crowdDataService), "/ws/crowd-data")
+                .setAllowedOrigins("*");
+    }
+}
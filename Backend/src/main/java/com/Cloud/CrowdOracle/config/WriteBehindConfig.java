@@ -0,0 +1,85 @@
+package com.Cloud.CrowdOracle.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "ingest.write-behind")
+public class WriteBehindConfig {
+
+    // When disabled every reading is saved synchronously in its own transaction
+    private boolean enabled = false;
+
+    // Maximum number of readings waiting to be flushed before new ones are rejected
+    private int queueCapacity = 10000;
+
+    // Queue slots only the serial listener may use, so REST bursts cannot crowd out sensor readings
+    private int priorityReserve = 1000;
+
+    // Flush as soon as this many readings are waiting
+    private int batchSize = 200;
+
+    // Flush at the latest this long after the first reading of a batch arrived
+    private long flushIntervalMs = 250;
+
+    // Backoff between retries of a batch while the database is unreachable
+    private long retryInitialMs = 200;
+    private long retryMaxMs = 10000;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getPriorityReserve() {
+        return priorityReserve;
+    }
+
+    public void setPriorityReserve(int priorityReserve) {
+        this.priorityReserve = priorityReserve;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public long getRetryInitialMs() {
+        return retryInitialMs;
+    }
+
+    public void setRetryInitialMs(long retryInitialMs) {
+        this.retryInitialMs = retryInitialMs;
+    }
+
+    public long getRetryMaxMs() {
+        return retryMaxMs;
+    }
+
+    public void setRetryMaxMs(long retryMaxMs) {
+        this.retryMaxMs = retryMaxMs;
+    }
+}
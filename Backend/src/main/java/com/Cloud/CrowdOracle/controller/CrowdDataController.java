@@ -1,49 +1,139 @@
 package com.Cloud.CrowdOracle.controller;
 
+import com.Cloud.CrowdOracle.customExceptions.IngestQueueFullException;
+import com.Cloud.CrowdOracle.customExceptions.IngestRateLimitedException;
+import com.Cloud.CrowdOracle.customExceptions.InvalidCrowdDataException;
+import com.Cloud.CrowdOracle.dtos.ColumnarReadings;
 import com.Cloud.CrowdOracle.dtos.CrowdDataDTO;
+import com.Cloud.CrowdOracle.dtos.CrowdDataImportResult;
+import com.Cloud.CrowdOracle.dtos.CrowdDataPage;
+import com.Cloud.CrowdOracle.dtos.CrowdDataRangeStats;
+import com.Cloud.CrowdOracle.dtos.CrowdDataView;
+import com.Cloud.CrowdOracle.dtos.TimeWeightedAverages;
 import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.services.CrowdDataImportService;
+import com.Cloud.CrowdOracle.services.CrowdDataIngestService;
 import com.Cloud.CrowdOracle.services.CrowdDataService;
+import com.Cloud.CrowdOracle.services.CrowdDataStatistics;
+import com.Cloud.CrowdOracle.services.IngestRateLimiter;
+import com.Cloud.CrowdOracle.services.ResponseCache;
+import com.Cloud.CrowdOracle.services.RollupService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/crowd-data")
 @CrossOrigin(origins = "*") // Allow CORS for frontend integration
 public class CrowdDataController {
 
+    // Page size bounds for keyset-paginated reads
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final CrowdDataService crowdDataService;
+    private final CrowdDataIngestService crowdDataIngestService;
+    private final CrowdDataImportService crowdDataImportService;
+    private final IngestRateLimiter ingestRateLimiter;
+    private final RollupService rollupService;
+    private final ResponseCache responseCache;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public CrowdDataController(CrowdDataService crowdDataService) {
+    public CrowdDataController(CrowdDataService crowdDataService,
+                               CrowdDataIngestService crowdDataIngestService,
+                               CrowdDataImportService crowdDataImportService,
+                               IngestRateLimiter ingestRateLimiter,
+                               RollupService rollupService,
+                               ResponseCache responseCache,
+                               ObjectMapper objectMapper) {
         this.crowdDataService = crowdDataService;
+        this.crowdDataIngestService = crowdDataIngestService;
+        this.crowdDataImportService = crowdDataImportService;
+        this.ingestRateLimiter = ingestRateLimiter;
+        this.rollupService = rollupService;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * POST endpoint to save single crowd data entry
      * Usage: POST /api/crowd-data
      * Body: {"temperatureCelsius": 25.5, "totalPeopleCount": 150}
+     * Returns 201 with the saved entry, or 202 when write-behind ingest queued it,
+     * or 429 with Retry-After when the client or the server is over its ingest rate
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> saveCrowdData(@Valid @RequestBody CrowdDataDTO crowdDataDTO) {
+    public ResponseEntity<Map<String, Object>> saveCrowdData(@Valid @RequestBody CrowdDataDTO crowdDataDTO,
+                                                             HttpServletRequest request) {
+        IngestRateLimiter.Permit permit = IngestRateLimiter.Permit.NONE;
         try {
-            CrowdData savedData = crowdDataService.saveCrowdData(crowdDataDTO);
+            permit = ingestRateLimiter.admit(request.getRemoteAddr(), 1);
+            CompletableFuture<CrowdData> pending = crowdDataIngestService.submit(crowdDataDTO, false);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "Crowd data saved successfully");
-            response.put("data", savedData);
+            if (pending.isDone() && !pending.isCompletedExceptionally() && pending.join().getId() == null) {
+                response.put("message", "Crowd data unchanged within the deadband, not stored");
+                response.put("data", pending.join());
+                response.put("stored", false);
+                response.put("timestamp", LocalDateTime.now());
+
+                return ResponseEntity.ok(response);
+            }
+            if (pending.isDone() && !pending.isCompletedExceptionally()) {
+                response.put("message", "Crowd data saved successfully");
+                response.put("data", pending.join());
+                response.put("timestamp", LocalDateTime.now());
+
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            }
+
+            response.put("message", "Crowd data accepted for saving");
+            response.put("queued", true);
             response.put("timestamp", LocalDateTime.now());
 
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IngestRateLimitedException e) {
+            return tooManyRequests(e);
+
+        } catch (IngestQueueFullException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            errorResponse.put("timestamp", LocalDateTime.now());
+
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
 
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
@@ -52,6 +142,9 @@ public class CrowdDataController {
             errorResponse.put("timestamp", LocalDateTime.now());
 
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+
+        } finally {
+            permit.close();
         }
     }
 
@@ -59,30 +152,41 @@ public class CrowdDataController {
      * POST endpoint to save multiple crowd data entries
      * Usage: POST /api/crowd-data/batch
      * Body: [{"temperatureCelsius": 25.5, "totalPeopleCount": 150}, {"temperatureCelsius": 26.0, "totalPeopleCount": 200}]
+     * Every reading in the batch counts against the rate limit
      */
     @PostMapping("/batch")
-    public ResponseEntity<Map<String, Object>> saveMultipleCrowdData(@Valid @RequestBody List<CrowdDataDTO> crowdDataDTOs) {
-        try {
-            if (crowdDataDTOs == null || crowdDataDTOs.isEmpty()) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("message", "No data provided");
-                errorResponse.put("timestamp", LocalDateTime.now());
+    public ResponseEntity<Map<String, Object>> saveMultipleCrowdData(@Valid @RequestBody List<CrowdDataDTO> crowdDataDTOs,
+                                                                     HttpServletRequest request) {
+        if (crowdDataDTOs == null || crowdDataDTOs.isEmpty()) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "No data provided");
+            errorResponse.put("timestamp", LocalDateTime.now());
 
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
-            }
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
 
-            List<CrowdData> savedData = crowdDataService.saveMultipleCrowdData(crowdDataDTOs);
+        IngestRateLimiter.Permit permit = IngestRateLimiter.Permit.NONE;
+        try {
+            permit = ingestRateLimiter.admit(request.getRemoteAddr(), crowdDataDTOs.size());
+            // Readings inside the deadband come back without an id and are left out
+            List<CrowdData> savedData = crowdDataService.saveMultipleCrowdData(crowdDataDTOs).stream()
+                .filter(crowdData -> crowdData.getId() != null)
+                .toList();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Crowd data batch saved successfully");
             response.put("data", savedData);
             response.put("recordsSaved", savedData.size());
+            response.put("recordsSuppressed", crowdDataDTOs.size() - savedData.size());
             response.put("timestamp", LocalDateTime.now());
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
+        } catch (IngestRateLimitedException e) {
+            return tooManyRequests(e);
+
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -90,37 +194,152 @@ public class CrowdDataController {
             errorResponse.put("timestamp", LocalDateTime.now());
 
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+
+        } finally {
+            permit.close();
         }
     }
 
     /**
-     * GET endpoint to retrieve all crowd data
-     * Usage: GET /api/crowd-data
+     * POST endpoint to bulk import historical readings with their original timestamps
+     * Usage: POST /api/crowd-data/import with Content-Type text/csv or application/x-ndjson
+     * CSV: header line "temperatureCelsius,totalPeopleCount,entryTime,sourceId" then one row per line
+     * NDJSON: {"temperatureCelsius": 25.5, "totalPeopleCount": 150, "entryTime": "2024-01-01T08:00:00"} per line
+     * The body may be gzip-compressed (Content-Encoding: gzip). By default the first invalid row
+     * fails the whole import; with skipInvalid=true invalid rows are counted and left out.
      */
-    @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllCrowdData() {
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Map<String, Object>> importCrowdData(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @RequestParam(defaultValue = "false") boolean skipInvalid) {
         try {
-            List<CrowdData> allData = crowdDataService.getAllCrowdData();
+            CrowdDataImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? CrowdDataImportService.Format.NDJSON
+                : CrowdDataImportService.Format.CSV;
+            InputStream input = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, 64 * 1024) : body;
+
+            CrowdDataImportResult result = crowdDataImportService.importData(input, format, skipInvalid);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "Crowd data retrieved successfully");
-            response.put("data", allData);
-            response.put("totalRecords", allData.size());
+            response.put("message", "Crowd data imported successfully");
+            response.put("recordsImported", result.recordsImported());
+            response.put("recordsSkipped", result.recordsSkipped());
+            if (!result.errors().isEmpty()) {
+                response.put("errors", result.errors());
+            }
+            if (result.earliestEntryTime() != null) {
+                response.put("timeRange", Map.of("from", result.earliestEntryTime(), "to", result.latestEntryTime()));
+            }
+            response.put("elapsedMillis", result.elapsedMillis());
             response.put("timestamp", LocalDateTime.now());
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
+        } catch (InvalidCrowdDataException e) {
+            return badRequest(e);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
-            errorResponse.put("message", "Error retrieving crowd data: " + e.getMessage());
+            errorResponse.put("message", "Error importing crowd data: " + e.getMessage());
             errorResponse.put("timestamp", LocalDateTime.now());
 
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
 
+    /**
+     * GET endpoint to retrieve all crowd data
+     * Usage: GET /api/crowd-data
+     * Paged: GET /api/crowd-data?limit=100 then GET /api/crowd-data?limit=100&cursor={nextCursor}
+     * Columnar: add format=columnar (and delta=true) for parallel arrays instead of one object per reading
+     */
+    @GetMapping
+    public ResponseEntity<?> getAllCrowdData(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean delta,
+            HttpServletRequest request) {
+        return responseCache.get(request, () -> {
+            try {
+                boolean columnar = isColumnar(format);
+                if (cursor != null || limit != null) {
+                    CrowdDataPage page = crowdDataService.getCrowdDataPage(cursor, pageSize(limit));
+                    return ResponseEntity.ok(pageResponse(page, "Crowd data page retrieved successfully", columnar, delta));
+                }
+
+                List<CrowdData> allData = crowdDataService.getAllCrowdData();
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Crowd data retrieved successfully");
+                response.put("data", columnar ? ColumnarReadings.ofEntities(allData, delta) : allData);
+                response.put("totalRecords", allData.size());
+                response.put("timestamp", LocalDateTime.now());
+
+                return ResponseEntity.ok(response);
+
+            } catch (InvalidCrowdDataException e) {
+                return badRequest(e);
+            } catch (Exception e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("message", "Error retrieving crowd data: " + e.getMessage());
+                errorResponse.put("timestamp", LocalDateTime.now());
+
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        });
+    }
+
+    /**
+     * GET endpoint to stream all crowd data as newline-delimited JSON
+     * Usage: GET /api/crowd-data with header Accept: application/x-ndjson
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllCrowdData() {
+        return ndjson(crowdDataService::streamAllCrowdData);
+    }
+
+    /**
+     * GET endpoint to download crowd data as CSV, oldest first
+     * Usage: GET /api/crowd-data/export?from=2024-01-01T00:00:00&to=2024-02-01T00:00:00&format=csv[&gzip=true]
+     * from/to are optional (open range when omitted). Rows are copied from PostgreSQL to the
+     * response as they arrive; the file can be fed back into POST /api/crowd-data/import.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCrowdData(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (!format.equalsIgnoreCase("csv")) {
+            throw new InvalidCrowdDataException("Unsupported export format: " + format + " (only csv)");
+        }
+        if (from != null && to != null && !to.isAfter(from)) {
+            throw new InvalidCrowdDataException("'to' must be after 'from'");
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(outputStream, 64 * 1024);
+                crowdDataService.exportCrowdDataCsv(from, to, compressed);
+                compressed.finish();
+            } else {
+                crowdDataService.exportCrowdDataCsv(from, to, outputStream);
+            }
+        };
+
+        String filename = gzip ? "crowd-data.csv.gz" : "crowd-data.csv";
+        return ResponseEntity.ok()
+            .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType("text/csv"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(body);
+    }
+
     /**
      * GET endpoint to retrieve crowd data by ID
      * Usage: GET /api/crowd-data/{id}
@@ -155,98 +374,302 @@ public class CrowdDataController {
 
     /**
      * GET endpoint to retrieve crowd data by temperature range
-     * Usage: GET /api/crowd-data/temperature?min=20&max=30
+     * Usage: GET /api/crowd-data/temperature?min=20&max=30[&format=columnar]
      */
     @GetMapping("/temperature")
-    public ResponseEntity<Map<String, Object>> getCrowdDataByTemperatureRange(
+    public ResponseEntity<?> getCrowdDataByTemperatureRange(
             @RequestParam Double min,
-            @RequestParam Double max) {
-        try {
-            List<CrowdData> data = crowdDataService.getCrowdDataByTemperatureRange(min, max);
+            @RequestParam Double max,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean delta,
+            HttpServletRequest request) {
+        return responseCache.get(request, () -> {
+            try {
+                boolean columnar = isColumnar(format);
+                if (cursor != null || limit != null) {
+                    CrowdDataPage page = crowdDataService.getCrowdDataPageByTemperatureRange(
+                        min, max, cursor, pageSize(limit));
+                    Map<String, Object> response = pageResponse(page, "Crowd data page retrieved by temperature range",
+                                                                columnar, delta);
+                    response.put("temperatureRange", Map.of("min", min, "max", max));
+                    return ResponseEntity.ok(response);
+                }
+
+                List<CrowdDataView> data = crowdDataService.getCrowdDataByTemperatureRange(min, max);
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Crowd data retrieved by temperature range");
+                response.put("data", columnar ? ColumnarReadings.of(data, delta) : data);
+                response.put("totalRecords", data.size());
+                response.put("temperatureRange", Map.of("min", min, "max", max));
+                response.put("timestamp", LocalDateTime.now());
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Crowd data retrieved by temperature range");
-            response.put("data", data);
-            response.put("totalRecords", data.size());
-            response.put("temperatureRange", Map.of("min", min, "max", max));
-            response.put("timestamp", LocalDateTime.now());
+                return ResponseEntity.ok(response);
 
-            return ResponseEntity.ok(response);
+            } catch (InvalidCrowdDataException e) {
+                return badRequest(e);
+            } catch (Exception e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("message", "Error retrieving crowd data by temperature: " + e.getMessage());
+                errorResponse.put("timestamp", LocalDateTime.now());
 
-        } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Error retrieving crowd data by temperature: " + e.getMessage());
-            errorResponse.put("timestamp", LocalDateTime.now());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        });
+    }
 
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
-        }
+    /**
+     * GET endpoint to stream crowd data in a temperature range as newline-delimited JSON
+     * Usage: GET /api/crowd-data/temperature?min=20&max=30 with header Accept: application/x-ndjson
+     */
+    @GetMapping(value = "/temperature", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCrowdDataByTemperatureRange(
+            @RequestParam Double min,
+            @RequestParam Double max) {
+        return ndjson(consumer -> crowdDataService.streamCrowdDataByTemperatureRange(min, max, consumer));
     }
 
     /**
      * GET endpoint to retrieve crowd data by people count range
-     * Usage: GET /api/crowd-data/people?min=100&max=500
+     * Usage: GET /api/crowd-data/people?min=100&max=500[&format=columnar]
      */
     @GetMapping("/people")
-    public ResponseEntity<Map<String, Object>> getCrowdDataByPeopleCountRange(
+    public ResponseEntity<?> getCrowdDataByPeopleCountRange(
+            @RequestParam Integer min,
+            @RequestParam Integer max,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean delta,
+            HttpServletRequest request) {
+        return responseCache.get(request, () -> {
+            try {
+                boolean columnar = isColumnar(format);
+                if (cursor != null || limit != null) {
+                    CrowdDataPage page = crowdDataService.getCrowdDataPageByPeopleCountRange(
+                        min, max, cursor, pageSize(limit));
+                    Map<String, Object> response = pageResponse(page, "Crowd data page retrieved by people count range",
+                                                                columnar, delta);
+                    response.put("peopleCountRange", Map.of("min", min, "max", max));
+                    return ResponseEntity.ok(response);
+                }
+
+                List<CrowdDataView> data = crowdDataService.getCrowdDataByPeopleCountRange(min, max);
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Crowd data retrieved by people count range");
+                response.put("data", columnar ? ColumnarReadings.of(data, delta) : data);
+                response.put("totalRecords", data.size());
+                response.put("peopleCountRange", Map.of("min", min, "max", max));
+                response.put("timestamp", LocalDateTime.now());
+
+                return ResponseEntity.ok(response);
+
+            } catch (InvalidCrowdDataException e) {
+                return badRequest(e);
+            } catch (Exception e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("message", "Error retrieving crowd data by people count: " + e.getMessage());
+                errorResponse.put("timestamp", LocalDateTime.now());
+
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        });
+    }
+
+    /**
+     * GET endpoint to stream crowd data in a people count range as newline-delimited JSON
+     * Usage: GET /api/crowd-data/people?min=100&max=500 with header Accept: application/x-ndjson
+     */
+    @GetMapping(value = "/people", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCrowdDataByPeopleCountRange(
             @RequestParam Integer min,
             @RequestParam Integer max) {
-        try {
-            List<CrowdData> data = crowdDataService.getCrowdDataByPeopleCountRange(min, max);
+        return ndjson(consumer -> crowdDataService.streamCrowdDataByPeopleCountRange(min, max, consumer));
+    }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Crowd data retrieved by people count range");
-            response.put("data", data);
-            response.put("totalRecords", data.size());
-            response.put("peopleCountRange", Map.of("min", min, "max", max));
-            response.put("timestamp", LocalDateTime.now());
+    /**
+     * GET endpoint to retrieve raw readings in a time range (inclusive, oldest first)
+     * Usage: GET /api/crowd-data/range?from=2024-01-01T00:00:00&to=2024-01-01T01:00:00[&format=columnar&delta=true]
+     */
+    @GetMapping("/range")
+    public ResponseEntity<?> getCrowdDataByTimeRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean delta,
+            HttpServletRequest request) {
+        return responseCache.get(request, () -> {
+            try {
+                boolean columnar = isColumnar(format);
+                List<CrowdDataView> data = crowdDataService.getCrowdDataByTimeRange(from, to);
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Crowd data retrieved by time range");
+                response.put("data", columnar ? ColumnarReadings.of(data, delta) : data);
+                response.put("totalRecords", data.size());
+                response.put("timeRange", Map.of("from", from, "to", to));
+                response.put("timestamp", LocalDateTime.now());
 
-            return ResponseEntity.ok(response);
+                return ResponseEntity.ok(response);
 
-        } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Error retrieving crowd data by people count: " + e.getMessage());
-            errorResponse.put("timestamp", LocalDateTime.now());
+            } catch (InvalidCrowdDataException e) {
+                return badRequest(e);
+            } catch (Exception e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("message", "Error retrieving crowd data by time range: " + e.getMessage());
+                errorResponse.put("timestamp", LocalDateTime.now());
 
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
-        }
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        });
+    }
+
+    /**
+     * GET endpoint to retrieve a downsampled series from the rollup tables
+     * Usage: GET /api/crowd-data/series?from=2024-01-01T00:00:00&to=2024-02-01T00:00:00&bucket=1h
+     * bucket accepts minute, hour, day, a number with m/h/d (e.g. 15m) or an ISO-8601 duration;
+     * when omitted a size giving at most ~1000 points is picked
+     */
+    @GetMapping("/series")
+    public ResponseEntity<?> getCrowdDataSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String bucket,
+            HttpServletRequest request) {
+        return responseCache.get(request, () -> {
+            try {
+                RollupService.Series series = rollupService.getSeries(from, to, parseBucket(bucket));
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Crowd data series retrieved successfully");
+                response.put("data", series.points());
+                response.put("totalPoints", series.points().size());
+                response.put("bucket", series.bucketWidth().toString());
+                response.put("rollup", series.source().name().toLowerCase(Locale.ROOT));
+                response.put("timeRange", Map.of("from", from, "to", to));
+                response.put("timestamp", LocalDateTime.now());
+
+                return ResponseEntity.ok(response);
+
+            } catch (InvalidCrowdDataException e) {
+                return badRequest(e);
+            } catch (Exception e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("message", "Error retrieving crowd data series: " + e.getMessage());
+                errorResponse.put("timestamp", LocalDateTime.now());
+
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        });
     }
 
     /**
      * GET endpoint to retrieve the latest crowd data entry
-     * Usage: GET /api/crowd-data/latest
+     * Usage: GET /api/crowd-data/latest or GET /api/crowd-data/latest?source=ttyACM0
      */
     @GetMapping("/latest")
-    public ResponseEntity<Map<String, Object>> getLatestCrowdData() {
-        try {
-            List<CrowdData> allData = crowdDataService.getAllCrowdData();
+    public ResponseEntity<?> getLatestCrowdData(@RequestParam(required = false) String source,
+                                                HttpServletRequest request) {
+        return responseCache.get(request, () -> {
+            try {
+                Optional<CrowdData> latestData = source != null
+                    ? crowdDataService.getLatestCrowdData(source)
+                    : crowdDataService.getLatestCrowdData();
             
-            Map<String, Object> response = new HashMap<>();
-            if (!allData.isEmpty()) {
-                CrowdData latest = allData.get(0); // Already sorted by entry time desc
-                response.put("success", true);
-                response.put("message", "Latest crowd data retrieved");
-                response.put("data", latest);
-                response.put("currentPeopleCount", latest.getTotalPeopleCount());
-                response.put("currentTemperature", latest.getTemperatureCelsius());
-            } else {
-                response.put("success", true);
-                response.put("message", "No crowd data available");
-                response.put("data", null);
-                response.put("currentPeopleCount", 0);
-                response.put("currentTemperature", null);
+                Map<String, Object> response = new HashMap<>();
+                if (latestData.isPresent()) {
+                    CrowdData latest = latestData.get();
+                    response.put("success", true);
+                    response.put("message", "Latest crowd data retrieved");
+                    response.put("data", latest);
+                    response.put("currentPeopleCount", latest.getTotalPeopleCount());
+                    response.put("currentTemperature", latest.getTemperatureCelsius());
+                } else {
+                    response.put("success", true);
+                    response.put("message", "No crowd data available");
+                    response.put("data", null);
+                    response.put("currentPeopleCount", 0);
+                    response.put("currentTemperature", null);
+                }
+                response.put("timestamp", LocalDateTime.now());
+
+                return ResponseEntity.ok(response);
+
+            } catch (Exception e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("message", "Error retrieving latest crowd data: " + e.getMessage());
+                errorResponse.put("timestamp", LocalDateTime.now());
+
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        });
+    }
+
+    /**
+     * GET endpoint to get statistics summary
+     * Usage: GET /api/crowd-data/stats
+     * Windowed: GET /api/crowd-data/stats?from=2024-01-01T00:00:00&to=2024-02-01T00:00:00 (either bound optional)
+     * adds stddev and p50/p90/p99 of people count and temperature, computed by the database.
+     * With timeWeighted=true (the default when the deadband filter is on) and a from bound, the
+     * averages weight every reading by how long it held its value instead of counting rows.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getCrowdDataStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Boolean timeWeighted,
+            HttpServletRequest request) {
+        // Time-weighted averages over a window without an end run up to now, so those are not cached
+        if (from != null && to == null) {
+            return crowdDataStats(from, null, timeWeighted);
+        }
+        return responseCache.get(request, () -> crowdDataStats(from, to, timeWeighted));
+    }
+
+    private ResponseEntity<Map<String, Object>> crowdDataStats(LocalDateTime from, LocalDateTime to, Boolean timeWeighted) {
+        try {
+            if (from != null || to != null) {
+                CrowdDataRangeStats stats = crowdDataService.getCrowdDataRangeStatistics(from, to);
+
+                Map<String, Object> response = rangeStatsResponse(stats);
+                boolean weighted = timeWeighted != null ? timeWeighted : crowdDataService.isDeadbandEnabled();
+                if (weighted && from != null) {
+                    TimeWeightedAverages averages = crowdDataService.getTimeWeightedAverages(
+                        from, to != null ? to : LocalDateTime.now());
+                    response.put("timeWeighted", averages);
+                    if (averages.temperature() != null) {
+                        response.put("averageTemperature", Math.round(averages.temperature() * 100.0) / 100.0);
+                        response.put("averagePeopleCount", Math.round(averages.peopleCount() * 100.0) / 100.0);
+                    }
+                }
+                response.put("message", "Statistics retrieved successfully");
+                return ResponseEntity.ok(response);
             }
-            response.put("timestamp", LocalDateTime.now());
 
+            CrowdDataStatistics.Snapshot stats = crowdDataService.getCrowdDataStatistics();
+
+            Map<String, Object> response = statsResponse(stats);
+            response.put("message", "Statistics retrieved successfully");
             return ResponseEntity.ok(response);
 
+        } catch (InvalidCrowdDataException e) {
+            return badRequest(e);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
-            errorResponse.put("message", "Error retrieving latest crowd data: " + e.getMessage());
+            errorResponse.put("message", "Error retrieving statistics: " + e.getMessage());
             errorResponse.put("timestamp", LocalDateTime.now());
 
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
@@ -254,58 +677,175 @@ public class CrowdDataController {
     }
 
     /**
-     * GET endpoint to get statistics summary
-     * Usage: GET /api/crowd-data/stats
+     * POST endpoint to recompute the statistics from the database
+     * Usage: POST /api/crowd-data/stats/rebuild
      */
-    @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getCrowdDataStats() {
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildCrowdDataStats() {
         try {
-            List<CrowdData> allData = crowdDataService.getAllCrowdData();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Statistics retrieved successfully");
-            response.put("totalRecords", allData.size());
-            
-            if (!allData.isEmpty()) {
-                // Calculate statistics
-                double avgPeopleCount = allData.stream()
-                    .mapToInt(CrowdData::getTotalPeopleCount)
-                    .average()
-                    .orElse(0);
-                
-                int maxPeopleCount = allData.stream()
-                    .mapToInt(CrowdData::getTotalPeopleCount)
-                    .max()
-                    .orElse(0);
-                
-                int minPeopleCount = allData.stream()
-                    .mapToInt(CrowdData::getTotalPeopleCount)
-                    .min()
-                    .orElse(0);
-                
-                double avgTemperature = allData.stream()
-                    .mapToDouble(CrowdData::getTemperatureCelsius)
-                    .average()
-                    .orElse(0);
-                
-                response.put("averagePeopleCount", Math.round(avgPeopleCount * 100.0) / 100.0);
-                response.put("maxPeopleCount", maxPeopleCount);
-                response.put("minPeopleCount", minPeopleCount);
-                response.put("averageTemperature", Math.round(avgTemperature * 100.0) / 100.0);
-                response.put("latestEntry", allData.get(0));
-            }
-            
-            response.put("timestamp", LocalDateTime.now());
+            CrowdDataStatistics.Snapshot stats = crowdDataService.rebuildCrowdDataStatistics();
+
+            Map<String, Object> response = statsResponse(stats);
+            response.put("message", "Statistics rebuilt successfully");
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
-            errorResponse.put("message", "Error retrieving statistics: " + e.getMessage());
+            errorResponse.put("message", "Error rebuilding statistics: " + e.getMessage());
             errorResponse.put("timestamp", LocalDateTime.now());
 
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
+
+    private Map<String, Object> statsResponse(CrowdDataStatistics.Snapshot stats) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("totalRecords", stats.recordCount());
+
+        if (!stats.isEmpty()) {
+            response.put("averagePeopleCount", Math.round(stats.peopleMean() * 100.0) / 100.0);
+            response.put("maxPeopleCount", stats.peopleMax());
+            response.put("minPeopleCount", stats.peopleMin());
+            response.put("averageTemperature", Math.round(stats.temperatureMean() * 100.0) / 100.0);
+            response.put("maxTemperature", stats.temperatureMax());
+            response.put("minTemperature", stats.temperatureMin());
+            crowdDataService.getLatestCrowdData().ifPresent(latest -> response.put("latestEntry", latest));
+        }
+
+        response.put("timestamp", LocalDateTime.now());
+        return response;
+    }
+
+    private Map<String, Object> rangeStatsResponse(CrowdDataRangeStats stats) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("totalRecords", stats.recordCount());
+
+        Map<String, Object> timeRange = new HashMap<>();
+        timeRange.put("from", stats.from());
+        timeRange.put("to", stats.to());
+        response.put("timeRange", timeRange);
+
+        if (stats.recordCount() > 0) {
+            // Same keys as the whole-table summary, plus the full distributions
+            response.put("averagePeopleCount", Math.round(stats.people().mean() * 100.0) / 100.0);
+            response.put("maxPeopleCount", (int) stats.people().max());
+            response.put("minPeopleCount", (int) stats.people().min());
+            response.put("averageTemperature", Math.round(stats.temperature().mean() * 100.0) / 100.0);
+            response.put("maxTemperature", stats.temperature().max());
+            response.put("minTemperature", stats.temperature().min());
+            response.put("people", stats.people());
+            response.put("temperature", stats.temperature());
+        }
+
+        response.put("timestamp", LocalDateTime.now());
+        return response;
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static boolean isColumnar(String format) {
+        if (format == null || format.equalsIgnoreCase("json")) {
+            return false;
+        }
+        if (format.equalsIgnoreCase("columnar")) {
+            return true;
+        }
+        throw new InvalidCrowdDataException("Unsupported format: " + format + " (json or columnar)");
+    }
+
+    private static Duration parseBucket(String bucket) {
+        if (bucket == null || bucket.isBlank() || bucket.equalsIgnoreCase("auto")) {
+            return null;
+        }
+        String value = bucket.trim().toLowerCase(Locale.ROOT);
+        try {
+            return switch (value) {
+                case "minute" -> Duration.ofMinutes(1);
+                case "hour" -> Duration.ofHours(1);
+                case "day" -> Duration.ofDays(1);
+                default -> {
+                    if (value.startsWith("p")) {
+                        yield Duration.parse(value.toUpperCase(Locale.ROOT));
+                    }
+                    long amount = Long.parseLong(value.substring(0, value.length() - 1));
+                    yield switch (value.charAt(value.length() - 1)) {
+                        case 'm' -> Duration.ofMinutes(amount);
+                        case 'h' -> Duration.ofHours(amount);
+                        case 'd' -> Duration.ofDays(amount);
+                        default -> throw new InvalidCrowdDataException("Unknown bucket size: " + bucket);
+                    };
+                }
+            };
+        } catch (NumberFormatException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new InvalidCrowdDataException("Unknown bucket size: " + bucket, e);
+        }
+    }
+
+    private Map<String, Object> pageResponse(CrowdDataPage page, String message, boolean columnar, boolean delta) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", message);
+        response.put("data", columnar ? ColumnarReadings.ofEntities(page.data(), delta) : page.data());
+        response.put("totalRecords", page.data().size());
+        response.put("hasMore", page.hasMore());
+        response.put("nextCursor", page.nextCursor());
+        response.put("timestamp", LocalDateTime.now());
+        return response;
+    }
+
+    private ResponseEntity<Map<String, Object>> badRequest(InvalidCrowdDataException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", e.getMessage());
+        errorResponse.put("timestamp", LocalDateTime.now());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    private ResponseEntity<Map<String, Object>> tooManyRequests(IngestRateLimitedException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", e.getMessage());
+        errorResponse.put("retryAfterSeconds", e.getRetryAfterSeconds());
+        errorResponse.put("timestamp", LocalDateTime.now());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .body(errorResponse);
+    }
+
+    /**
+     * Write rows as newline-delimited JSON while they are read from the database cursor.
+     * Rows are not flushed one by one; the servlet buffer is sent whenever it fills up.
+     */
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<CrowdData>> source) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(new SerializedString("\n"));
+                source.accept(row -> {
+                    try {
+                        writer.writeValue(generator, row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeRaw('\n');
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
 }
@@ -0,0 +1,75 @@
+package com.Cloud.CrowdOracle.controller;
+
+import com.Cloud.CrowdOracle.config.LiveFeedConfig;
+import com.Cloud.CrowdOracle.services.CrowdDataService;
+import com.Cloud.CrowdOracle.services.LiveFeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/crowd-data")
+@CrossOrigin(origins = "*") // Allow CORS for frontend integration
+public class LiveFeedController {
+
+    private final LiveFeedService liveFeedService;
+    private final LiveFeedConfig liveFeedConfig;
+    private final CrowdDataService crowdDataService;
+
+    @Autowired
+    public LiveFeedController(LiveFeedService liveFeedService,
+                              LiveFeedConfig liveFeedConfig,
+                              CrowdDataService crowdDataService) {
+        this.liveFeedService = liveFeedService;
+        this.liveFeedConfig = liveFeedConfig;
+        this.crowdDataService = crowdDataService;
+    }
+
+    /**
+     * GET endpoint that pushes every new reading as a server-sent event
+     * Usage: new EventSource("/api/crowd-data/stream") and listen for "reading" events
+     * The latest reading is sent first; idle connections get a comment line every heartbeat interval
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamLiveCrowdData() {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(liveFeedConfig.getSseTimeoutMinutes()));
+
+        LiveFeedService.Subscription subscription;
+        try {
+            subscription = liveFeedService.subscribe(new LiveFeedService.Sink() {
+                @Override
+                public void send(String readingJson) throws IOException {
+                    emitter.send(SseEmitter.event().name("reading").data(readingJson));
+                }
+
+                @Override
+                public void heartbeat() throws IOException {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+
+                @Override
+                public void close() {
+                    emitter.complete();
+                }
+            });
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+
+        crowdDataService.getLatestCrowdData().ifPresent(latest -> liveFeedService.sendTo(subscription, latest));
+        return ResponseEntity.ok(emitter);
+    }
+}
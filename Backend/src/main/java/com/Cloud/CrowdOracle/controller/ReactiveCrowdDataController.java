@@ -0,0 +1,157 @@
+package com.Cloud.CrowdOracle.controller;
+
+import com.Cloud.CrowdOracle.customExceptions.InvalidCrowdDataException;
+import com.Cloud.CrowdOracle.dtos.PageCursor;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.services.ReactiveCrowdDataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only v2 API served from R2DBC. Requests are handled asynchronously, so a slow query
+ * holds neither a servlet thread nor a JDBC connection from the write path's Hikari pool.
+ * With Accept: application/x-ndjson rows are streamed as they arrive, one request(n) at a time;
+ * otherwise they are collected into a JSON array. Pages reaching compacted readings include them.
+ * List reads page by keyset: beforeTime and beforeId name the last row of the previous page, and the
+ * next page holds the rows after it in (entryTime DESC, id DESC) order.
+ */
+@RestController
+@RequestMapping("/api/v2/crowd-data")
+@CrossOrigin(origins = "*") // Allow CORS for frontend integration
+public class ReactiveCrowdDataController {
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10000;
+
+    private final ReactiveCrowdDataService reactiveCrowdDataService;
+
+    @Autowired
+    public ReactiveCrowdDataController(ReactiveCrowdDataService reactiveCrowdDataService) {
+        this.reactiveCrowdDataService = reactiveCrowdDataService;
+    }
+
+    /**
+     * GET newest crowd data first
+     * Usage: GET /api/v2/crowd-data?limit=500
+     * Next page: add beforeTime={entryTime}&beforeId={id} of the last row returned
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<CrowdData> getCrowdData(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTime,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        return reactiveCrowdDataService.findPage(before(beforeTime, beforeId), limit(limit));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CrowdData> streamCrowdData(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTime,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        return getCrowdData(beforeTime, beforeId, limit);
+    }
+
+    /**
+     * GET crowd data by temperature range
+     * Usage: GET /api/v2/crowd-data/temperature?min=20.0&max=30.0
+     */
+    @GetMapping(value = "/temperature", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<CrowdData> getCrowdDataByTemperatureRange(
+            @RequestParam Double min,
+            @RequestParam Double max,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTime,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        if (min > max) {
+            throw new InvalidCrowdDataException("Minimum temperature cannot be greater than maximum temperature");
+        }
+        return reactiveCrowdDataService.findByTemperatureRange(min, max, before(beforeTime, beforeId), limit(limit));
+    }
+
+    @GetMapping(value = "/temperature", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CrowdData> streamCrowdDataByTemperatureRange(
+            @RequestParam Double min,
+            @RequestParam Double max,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTime,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        return getCrowdDataByTemperatureRange(min, max, beforeTime, beforeId, limit);
+    }
+
+    /**
+     * GET crowd data by people count range
+     * Usage: GET /api/v2/crowd-data/people?min=10&max=100
+     */
+    @GetMapping(value = "/people", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<CrowdData> getCrowdDataByPeopleCountRange(
+            @RequestParam Integer min,
+            @RequestParam Integer max,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTime,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        if (min > max) {
+            throw new InvalidCrowdDataException("Minimum people count cannot be greater than maximum people count");
+        }
+        return reactiveCrowdDataService.findByPeopleCountRange(min, max, before(beforeTime, beforeId), limit(limit));
+    }
+
+    @GetMapping(value = "/people", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CrowdData> streamCrowdDataByPeopleCountRange(
+            @RequestParam Integer min,
+            @RequestParam Integer max,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTime,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        return getCrowdDataByPeopleCountRange(min, max, beforeTime, beforeId, limit);
+    }
+
+    /**
+     * GET the latest crowd data entry (404 when the table is empty)
+     * Usage: GET /api/v2/crowd-data/latest
+     */
+    @GetMapping("/latest")
+    public Mono<ResponseEntity<CrowdData>> getLatestCrowdData() {
+        return reactiveCrowdDataService.findLatest()
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET crowd data by ID
+     * Usage: GET /api/v2/crowd-data/1
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<CrowdData>> getCrowdDataById(@PathVariable Long id) {
+        return reactiveCrowdDataService.findById(id)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // Keyset position of the last row of the previous page, taken from its entryTime and id
+    private static PageCursor before(LocalDateTime beforeTime, Long beforeId) {
+        if (beforeTime == null && beforeId == null) {
+            return null;
+        }
+        if (beforeTime == null || beforeId == null) {
+            throw new InvalidCrowdDataException("beforeTime and beforeId must be given together");
+        }
+        return new PageCursor(beforeTime, beforeId);
+    }
+
+    private static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidCrowdDataException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+}
@@ -1,5 +1,6 @@
 package com.Cloud.CrowdOracle.controller;
 
+import com.Cloud.CrowdOracle.services.ReadingSpoolService;
 import com.Cloud.CrowdOracle.services.SerialCommunicationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
@@ -15,10 +16,13 @@ import java.util.Map;
 public class SerialPortController {
 
     private final SerialCommunicationService serialCommunicationService;
+    private final ReadingSpoolService readingSpoolService;
 
     @Autowired
-    public SerialPortController(SerialCommunicationService serialCommunicationService) {
+    public SerialPortController(SerialCommunicationService serialCommunicationService,
+                                ReadingSpoolService readingSpoolService) {
         this.serialCommunicationService = serialCommunicationService;
+        this.readingSpoolService = readingSpoolService;
     }
 
     /**
@@ -29,28 +33,26 @@ public class SerialPortController {
         Map<String, Object> status = new HashMap<>();
         status.put("connected", serialCommunicationService.isConnected());
         status.put("portName", serialCommunicationService.getPortName());
+        status.put("connectedPorts", serialCommunicationService.getConnectedPorts());
         status.put("availablePorts", serialCommunicationService.getAvailablePorts());
+        status.put("link", serialCommunicationService.getLinkStatistics());
+        status.put("spool", readingSpoolService.getStatistics());
         return ResponseEntity.ok(status);
     }
 
     /**
-     * Reconnect to the serial port
+     * Reconnect to the serial ports; the supervisor reopens them in the background
      */
     @PostMapping("/reconnect")
     public ResponseEntity<Map<String, Object>> reconnect() {
-        boolean success = serialCommunicationService.reconnect();
+        serialCommunicationService.requestReconnect();
         Map<String, Object> response = new HashMap<>();
-        response.put("success", success);
+        response.put("success", true);
         response.put("connected", serialCommunicationService.isConnected());
         response.put("portName", serialCommunicationService.getPortName());
-        
-        if (success) {
-            response.put("message", "Successfully reconnected to serial port");
-        } else {
-            response.put("message", "Failed to reconnect to serial port");
-        }
-        
-        return ResponseEntity.ok(response);
+        response.put("message", "Reconnect requested, see /api/serial/status for the result");
+
+        return ResponseEntity.accepted().body(response);
     }
 
     /**
@@ -0,0 +1,12 @@
+package com.Cloud.CrowdOracle.customExceptions;
+
+public class IngestQueueFullException extends RuntimeException {
+
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+
+    public IngestQueueFullException(int capacity) {
+        super("Ingest queue is full (capacity " + capacity + "), try again later");
+    }
+}
@@ -0,0 +1,16 @@
+package com.Cloud.CrowdOracle.customExceptions;
+
+public class IngestRateLimitedException extends RuntimeException {
+
+    // Whole seconds the client should wait before retrying (Retry-After)
+    private final long retryAfterSeconds;
+
+    public IngestRateLimitedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
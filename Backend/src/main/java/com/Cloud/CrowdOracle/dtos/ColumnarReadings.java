@@ -0,0 +1,141 @@
+package com.Cloud.CrowdOracle.dtos;
+
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Readings as parallel arrays (format=columnar on the list endpoints), so field names are written
+ * once per response instead of once per reading. entryTime is the stored local time in epoch
+ * milliseconds as if it were UTC, the way rollups and chunks count time, so it is unambiguous and
+ * keeps its order across DST changes; format it in UTC to get the wall-clock time the object form
+ * returns. With delta encoding every id and entryTime after the first is the difference to the
+ * previous value. Source ids are dictionary encoded: sourceIndex points into sources, -1 when the
+ * reading has no source.
+ * Written column by column straight to the JSON generator without per-reading objects.
+ */
+public final class ColumnarReadings extends JsonSerializable.Base {
+
+    private final Rows<?> rows;
+    private final boolean delta;
+
+    private ColumnarReadings(Rows<?> rows, boolean delta) {
+        this.rows = rows;
+        this.delta = delta;
+    }
+
+    public static ColumnarReadings of(List<CrowdDataView> rows, boolean delta) {
+        return new ColumnarReadings(new Rows<>(rows, CrowdDataView::id, CrowdDataView::entryTime,
+                                               CrowdDataView::temperatureCelsius, CrowdDataView::totalPeopleCount,
+                                               CrowdDataView::sourceId), delta);
+    }
+
+    public static ColumnarReadings ofEntities(List<CrowdData> rows, boolean delta) {
+        return new ColumnarReadings(new Rows<>(rows, CrowdData::getId, CrowdData::getEntryTime,
+                                               CrowdData::getTemperatureCelsius, CrowdData::getTotalPeopleCount,
+                                               CrowdData::getSourceId), delta);
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(rows, generator);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider provider,
+                                  TypeSerializer typeSerializer) throws IOException {
+        serialize(generator, provider);
+    }
+
+    private <T> void write(Rows<T> rows, JsonGenerator generator) throws IOException {
+        List<T> list = rows.list();
+        generator.writeStartObject();
+        generator.writeNumberField("count", list.size());
+        generator.writeStringField("encoding", delta ? "delta" : "absolute");
+
+        generator.writeArrayFieldStart("id");
+        long previousId = 0;
+        for (T row : list) {
+            Long id = rows.id().apply(row);
+            if (id == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(delta ? id - previousId : id);
+                previousId = id;
+            }
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("entryTime");
+        long previousMillis = 0;
+        for (T row : list) {
+            LocalDateTime entryTime = rows.entryTime().apply(row);
+            long millis = entryTime.toEpochSecond(ZoneOffset.UTC) * 1000 + entryTime.getNano() / 1_000_000;
+            generator.writeNumber(delta ? millis - previousMillis : millis);
+            previousMillis = millis;
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("temperatureCelsius");
+        for (T row : list) {
+            Double temperature = rows.temperature().apply(row);
+            if (temperature == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(temperature);
+            }
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("totalPeopleCount");
+        for (T row : list) {
+            Integer peopleCount = rows.peopleCount().apply(row);
+            if (peopleCount == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(peopleCount);
+            }
+        }
+        generator.writeEndArray();
+
+        // Few distinct sources, so index them instead of repeating the strings
+        List<String> sources = new ArrayList<>();
+        Map<String, Integer> sourceIndexes = new HashMap<>();
+        int[] sourceIndex = new int[list.size()];
+        int i = 0;
+        for (T row : list) {
+            String sourceId = rows.sourceId().apply(row);
+            sourceIndex[i++] = sourceId == null ? -1 : sourceIndexes.computeIfAbsent(sourceId, source -> {
+                sources.add(source);
+                return sources.size() - 1;
+            });
+        }
+        generator.writeArrayFieldStart("sources");
+        for (String source : sources) {
+            generator.writeString(source);
+        }
+        generator.writeEndArray();
+        generator.writeFieldName("sourceIndex");
+        generator.writeArray(sourceIndex, 0, sourceIndex.length);
+
+        generator.writeEndObject();
+    }
+
+    private record Rows<T>(List<T> list,
+                           Function<T, Long> id,
+                           Function<T, LocalDateTime> entryTime,
+                           Function<T, Double> temperature,
+                           Function<T, Integer> peopleCount,
+                           Function<T, String> sourceId) {}
+}
@@ -0,0 +1,22 @@
+package com.Cloud.CrowdOracle.dtos;
+
+/**
+ * Projection for whole-table aggregates computed by the database in one pass.
+ * All values except recordCount are null when the table is empty.
+ */
+public interface CrowdDataAggregate {
+
+    Long getRecordCount();
+
+    Long getPeopleSum();
+
+    Integer getPeopleMin();
+
+    Integer getPeopleMax();
+
+    Double getTemperatureSum();
+
+    Double getTemperatureMin();
+
+    Double getTemperatureMax();
+}
@@ -1,19 +1,26 @@
 package com.Cloud.CrowdOracle.dtos;
 
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 
 public class CrowdDataDTO {
 
     @NotNull(message = "Temperature in Celsius cannot be null")
     @DecimalMin(value = "-273.15", message = "Temperature cannot be below absolute zero")
+    @DecimalMax(value = "999.99", message = "Temperature cannot be above 999.99")
     private Double temperatureCelsius;
 
     @NotNull(message = "Total people count cannot be null")
     @Min(value = 0, message = "Total people count cannot be negative")
     private Integer totalPeopleCount;
 
+    // Optional device identifier, e.g. the serial port or room the reading came from
+    @Size(max = 64, message = "Source id cannot be longer than 64 characters")
+    private String sourceId;
+
     // Default constructor
     public CrowdDataDTO() {}
 
@@ -23,6 +30,12 @@ public class CrowdDataDTO {
         this.totalPeopleCount = totalPeopleCount;
     }
 
+    public CrowdDataDTO(Double temperatureCelsius, Integer totalPeopleCount, String sourceId) {
+        this.temperatureCelsius = temperatureCelsius;
+        this.totalPeopleCount = totalPeopleCount;
+        this.sourceId = sourceId;
+    }
+
     // Getters and Setters
     public Double getTemperatureCelsius() {
         return temperatureCelsius;
@@ -40,11 +53,20 @@ public class CrowdDataDTO {
         this.totalPeopleCount = totalPeopleCount;
     }
 
+    public String getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(String sourceId) {
+        this.sourceId = sourceId;
+    }
+
     @Override
     public String toString() {
         return "CrowdDataDTO{" +
                 "temperatureCelsius=" + temperatureCelsius +
                 ", totalPeopleCount=" + totalPeopleCount +
+                ", sourceId='" + sourceId + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,17 @@
+package com.Cloud.CrowdOracle.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. errors holds the first few rejected lines
+ * (only populated when invalid rows are skipped rather than failing the import).
+ * The entry times are null when nothing was imported.
+ */
+public record CrowdDataImportResult(long recordsImported,
+                                    long recordsSkipped,
+                                    List<String> errors,
+                                    LocalDateTime earliestEntryTime,
+                                    LocalDateTime latestEntryTime,
+                                    long elapsedMillis) {
+}
@@ -0,0 +1,16 @@
+package com.Cloud.CrowdOracle.dtos;
+
+import com.Cloud.CrowdOracle.entity.CrowdData;
+
+import java.util.List;
+
+/**
+ * One keyset page of readings, newest first.
+ * nextCursor is null when this is the last page.
+ */
+public record CrowdDataPage(List<CrowdData> data, String nextCursor) {
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,97 @@
+package com.Cloud.CrowdOracle.dtos;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Statistics of the readings with entry time in [from, to), computed by the database in one statement,
+ * from value counts merged by the database when the window reaches into compacted chunks, or in
+ * memory for windows inside the recent buffer.
+ * A null bound means the window is open on that side; people and temperature are null for an empty window.
+ */
+public record CrowdDataRangeStats(LocalDateTime from, LocalDateTime to, long recordCount,
+                                  Distribution people, Distribution temperature) {
+
+    /**
+     * Summary of one column. stddev is the sample standard deviation (0 for a single reading),
+     * percentiles are interpolated (percentile_cont).
+     */
+    public record Distribution(double sum, double min, double max, double mean, double stddev,
+                               double p50, double p90, double p99) {
+
+        /**
+         * Matches the SQL aggregates: sample stddev, percentiles interpolated like percentile_cont.
+         * The sum is added up exactly in units of 1/scale, as NUMERIC does for DECIMAL columns.
+         * Sorts values in place; there must be at least one.
+         */
+        public static Distribution of(double[] values, int scale) {
+            int n = values.length;
+            long units = 0;
+            for (double value : values) {
+                units += Math.round(value * scale);
+            }
+            double sum = (double) units / scale;
+            double mean = sum / n;
+            double squares = 0;
+            for (double value : values) {
+                squares += (value - mean) * (value - mean);
+            }
+            double stddev = n > 1 ? Math.sqrt(squares / (n - 1)) : 0;
+
+            Arrays.sort(values);
+            return new Distribution(sum, values[0], values[n - 1], mean, stddev,
+                                    percentile(values, 0.5), percentile(values, 0.9), percentile(values, 0.99));
+        }
+
+        /**
+         * Same figures as of, from distinct values in ascending order with how often each occurs.
+         * There must be at least one value.
+         */
+        public static Distribution ofCounts(double[] values, long[] counts, int scale) {
+            long n = 0;
+            long units = 0;
+            for (int i = 0; i < values.length; i++) {
+                n += counts[i];
+                units += Math.round(values[i] * scale) * counts[i];
+            }
+            double sum = (double) units / scale;
+            double mean = sum / n;
+            double squares = 0;
+            for (int i = 0; i < values.length; i++) {
+                squares += (values[i] - mean) * (values[i] - mean) * counts[i];
+            }
+            double stddev = n > 1 ? Math.sqrt(squares / (n - 1)) : 0;
+
+            return new Distribution(sum, values[0], values[values.length - 1], mean, stddev,
+                                    percentile(values, counts, n, 0.5), percentile(values, counts, n, 0.9),
+                                    percentile(values, counts, n, 0.99));
+        }
+
+        private static double percentile(double[] sorted, double fraction) {
+            double position = fraction * (sorted.length - 1);
+            int lower = (int) Math.floor(position);
+            int upper = (int) Math.ceil(position);
+            return sorted[lower] + (sorted[upper] - sorted[lower]) * (position - lower);
+        }
+
+        private static double percentile(double[] values, long[] counts, long n, double fraction) {
+            double position = fraction * (n - 1);
+            long lower = (long) Math.floor(position);
+            double lowerValue = valueAt(values, counts, lower);
+            double upperValue = valueAt(values, counts, (long) Math.ceil(position));
+            return lowerValue + (upperValue - lowerValue) * (position - lower);
+        }
+
+        // The value at a 0-based position of the sorted readings the counts stand for
+        private static double valueAt(double[] values, long[] counts, long position) {
+            long through = 0;
+            for (int i = 0; i < values.length; i++) {
+                through += counts[i];
+                if (position < through) {
+                    return values[i];
+                }
+            }
+            return values[values.length - 1];
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.Cloud.CrowdOracle.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row of crowd_data built straight from a JPQL constructor expression.
+ * Never enters the persistence context, and serializes to the same JSON as CrowdData.
+ */
+public record CrowdDataView(Long id,
+                            Double temperatureCelsius,
+                            Integer totalPeopleCount,
+                            LocalDateTime entryTime,
+                            String sourceId) {
+}
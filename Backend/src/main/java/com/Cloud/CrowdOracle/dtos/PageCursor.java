@@ -0,0 +1,38 @@
+package com.Cloud.CrowdOracle.dtos;
+
+import com.Cloud.CrowdOracle.customExceptions.InvalidCrowdDataException;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor pointing at the (entryTime, id) of the last row of a page.
+ * The next page starts strictly after that row in (entryTime DESC, id DESC) order.
+ */
+public record PageCursor(LocalDateTime entryTime, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static PageCursor of(CrowdData crowdData) {
+        return new PageCursor(crowdData.getEntryTime(), crowdData.getId());
+    }
+
+    public String encode() {
+        String raw = entryTime.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                  Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCrowdDataException("Invalid page cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.Cloud.CrowdOracle.dtos;
+
+import com.Cloud.CrowdOracle.entity.CrowdData;
+
+import java.time.LocalDateTime;
+
+/**
+ * Count, sum, min and max of people count and temperature for one time bucket.
+ * Buckets of the same start merge into one; coarser buckets merge finer ones.
+ */
+public record RollupBucket(LocalDateTime bucketStart,
+                           long sampleCount,
+                           long peopleSum, int peopleMin, int peopleMax,
+                           double temperatureSum, double temperatureMin, double temperatureMax) {
+
+    public static RollupBucket of(CrowdData crowdData, LocalDateTime bucketStart) {
+        int people = crowdData.getTotalPeopleCount();
+        double temperature = crowdData.getTemperatureCelsius();
+        return new RollupBucket(bucketStart, 1, people, people, people, temperature, temperature, temperature);
+    }
+
+    public static RollupBucket of(CrowdDataView row, LocalDateTime bucketStart) {
+        int people = row.totalPeopleCount();
+        double temperature = row.temperatureCelsius();
+        return new RollupBucket(bucketStart, 1, people, people, people, temperature, temperature, temperature);
+    }
+
+    /**
+     * Combine with another bucket, keeping this bucket's start
+     */
+    public RollupBucket merge(RollupBucket other) {
+        return new RollupBucket(bucketStart,
+            sampleCount + other.sampleCount,
+            peopleSum + other.peopleSum,
+            Math.min(peopleMin, other.peopleMin),
+            Math.max(peopleMax, other.peopleMax),
+            temperatureSum + other.temperatureSum,
+            Math.min(temperatureMin, other.temperatureMin),
+            Math.max(temperatureMax, other.temperatureMax));
+    }
+
+    public RollupBucket withBucketStart(LocalDateTime start) {
+        return new RollupBucket(start, sampleCount, peopleSum, peopleMin, peopleMax,
+                                temperatureSum, temperatureMin, temperatureMax);
+    }
+}
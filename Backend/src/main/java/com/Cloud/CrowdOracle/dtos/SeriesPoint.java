@@ -0,0 +1,21 @@
+package com.Cloud.CrowdOracle.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * One point of a downsampled time series, as returned by /api/crowd-data/series
+ */
+public record SeriesPoint(LocalDateTime bucketStart,
+                          long sampleCount,
+                          double averagePeopleCount, int minPeopleCount, int maxPeopleCount,
+                          double averageTemperature, double minTemperature, double maxTemperature) {
+
+    public static SeriesPoint from(RollupBucket bucket) {
+        return new SeriesPoint(bucket.bucketStart(),
+            bucket.sampleCount(),
+            Math.round((double) bucket.peopleSum() / bucket.sampleCount() * 100.0) / 100.0,
+            bucket.peopleMin(), bucket.peopleMax(),
+            Math.round(bucket.temperatureSum() / bucket.sampleCount() * 100.0) / 100.0,
+            bucket.temperatureMin(), bucket.temperatureMax());
+    }
+}
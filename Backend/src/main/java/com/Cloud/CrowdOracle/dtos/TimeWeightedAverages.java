@@ -0,0 +1,59 @@
+package com.Cloud.CrowdOracle.dtos;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Averages over [from, to) where every reading counts for as long as it held its value
+ * (until the next reading of its source, at most maxHold). coveredSeconds is the total time
+ * with a known value summed over sources; the averages are null when it is 0.
+ */
+public record TimeWeightedAverages(LocalDateTime from, LocalDateTime to, Double temperature,
+                                   Double peopleCount, double coveredSeconds) {
+
+    /**
+     * Same figures as the SQL in CrowdDataStatsRepository, from the readings with entry time
+     * in [from - maxHold, to) ordered by (entry time, id)
+     */
+    public static TimeWeightedAverages of(LocalDateTime from, LocalDateTime to, List<CrowdDataView> rows,
+                                          Duration maxHold) {
+        double[] sums = new double[3];
+        Map<String, CrowdDataView> previous = new HashMap<>();
+        for (CrowdDataView row : rows) {
+            CrowdDataView last = previous.put(row.sourceId(), row);
+            if (last != null) {
+                hold(last, row.entryTime(), from, to, maxHold, sums);
+            }
+        }
+        for (CrowdDataView last : previous.values()) {
+            hold(last, to, from, to, maxHold, sums);
+        }
+
+        double held = sums[0];
+        return new TimeWeightedAverages(from, to,
+                                        held > 0 ? sums[1] / held : null,
+                                        held > 0 ? sums[2] / held : null,
+                                        held);
+    }
+
+    private static void hold(CrowdDataView row, LocalDateTime next, LocalDateTime from, LocalDateTime to,
+                             Duration maxHold, double[] sums) {
+        LocalDateTime end = row.entryTime().plus(maxHold);
+        if (next.isBefore(end)) {
+            end = next;
+        }
+        if (to.isBefore(end)) {
+            end = to;
+        }
+        LocalDateTime start = row.entryTime().isAfter(from) ? row.entryTime() : from;
+        double seconds = Duration.between(start, end).toNanos() / 1e9;
+        if (seconds > 0) {
+            sums[0] += seconds;
+            sums[1] += row.temperatureCelsius() * seconds;
+            sums[2] += row.totalPeopleCount() * seconds;
+        }
+    }
+}
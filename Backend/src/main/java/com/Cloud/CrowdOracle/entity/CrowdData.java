@@ -7,8 +7,11 @@ import java.time.LocalDateTime;
 @Table(name = "crowd_data")
 public class CrowdData {
 
+    // Sequence ids are pre-allocated in blocks so Hibernate can batch inserts;
+    // allocationSize must match the INCREMENT BY set in schema.sql
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "crowd_data_seq")
+    @SequenceGenerator(name = "crowd_data_seq", sequenceName = "crowd_data_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "temperature_celsius", nullable = false)
@@ -20,6 +23,10 @@ public class CrowdData {
     @Column(name = "entry_time", nullable = false)
     private LocalDateTime entryTime;
 
+    // Device the reading came from (serial port name), null for readings posted without one
+    @Column(name = "source_id", length = 64)
+    private String sourceId;
+
     // Default constructor
     public CrowdData() {}
 
@@ -71,6 +78,15 @@ public class CrowdData {
         this.entryTime = entryTime;
     }
 
+    public String getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(String sourceId) {
+        // A blank id is no source, so it groups with readings posted without one
+        this.sourceId = sourceId == null || sourceId.isBlank() ? null : sourceId;
+    }
+
     @Override
     public String toString() {
         return "CrowdData{" +
@@ -78,6 +94,7 @@ public class CrowdData {
                 ", temperatureCelsius=" + temperatureCelsius +
                 ", totalPeopleCount=" + totalPeopleCount +
                 ", entryTime=" + entryTime +
+                ", sourceId='" + sourceId + '\'' +
                 '}';
     }
 }
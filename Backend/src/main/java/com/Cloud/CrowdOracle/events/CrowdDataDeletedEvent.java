@@ -0,0 +1,32 @@
+package com.Cloud.CrowdOracle.events;
+
+import com.Cloud.CrowdOracle.entity.CrowdData;
+
+import java.util.List;
+
+/**
+ * Published by CrowdDataService whenever readings are deleted.
+ * When allDeleted is true the table was emptied and deletedData is empty.
+ */
+public class CrowdDataDeletedEvent {
+
+    private final List<CrowdData> deletedData;
+    private final boolean allDeleted;
+
+    public CrowdDataDeletedEvent(List<CrowdData> deletedData, boolean allDeleted) {
+        this.deletedData = deletedData;
+        this.allDeleted = allDeleted;
+    }
+
+    public static CrowdDataDeletedEvent all() {
+        return new CrowdDataDeletedEvent(List.of(), true);
+    }
+
+    public List<CrowdData> getDeletedData() {
+        return deletedData;
+    }
+
+    public boolean isAllDeleted() {
+        return allDeleted;
+    }
+}
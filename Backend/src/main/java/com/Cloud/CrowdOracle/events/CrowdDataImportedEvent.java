@@ -0,0 +1,33 @@
+package com.Cloud.CrowdOracle.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by CrowdDataImportService after a bulk COPY import.
+ * Imported rows are not loaded back as entities, so listeners only get the count
+ * and the entry time range they fall in and refresh their state from the database.
+ */
+public class CrowdDataImportedEvent {
+
+    private final long recordCount;
+    private final LocalDateTime earliestEntryTime;
+    private final LocalDateTime latestEntryTime;
+
+    public CrowdDataImportedEvent(long recordCount, LocalDateTime earliestEntryTime, LocalDateTime latestEntryTime) {
+        this.recordCount = recordCount;
+        this.earliestEntryTime = earliestEntryTime;
+        this.latestEntryTime = latestEntryTime;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public LocalDateTime getEarliestEntryTime() {
+        return earliestEntryTime;
+    }
+
+    public LocalDateTime getLatestEntryTime() {
+        return latestEntryTime;
+    }
+}
@@ -0,0 +1,22 @@
+package com.Cloud.CrowdOracle.events;
+
+import com.Cloud.CrowdOracle.entity.CrowdData;
+
+import java.util.List;
+
+/**
+ * Published by CrowdDataService whenever readings are persisted.
+ * Transactional listeners receive it after the surrounding transaction commits.
+ */
+public class CrowdDataSavedEvent {
+
+    private final List<CrowdData> savedData;
+
+    public CrowdDataSavedEvent(List<CrowdData> savedData) {
+        this.savedData = savedData;
+    }
+
+    public List<CrowdData> getSavedData() {
+        return savedData;
+    }
+}
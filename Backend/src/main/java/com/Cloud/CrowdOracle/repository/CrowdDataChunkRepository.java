@@ -0,0 +1,587 @@
+package com.Cloud.CrowdOracle.repository;
+
+import com.Cloud.CrowdOracle.chunk.ChunkCodec;
+import com.Cloud.CrowdOracle.dtos.CrowdDataRangeStats;
+import com.Cloud.CrowdOracle.dtos.CrowdDataRangeStats.Distribution;
+import com.Cloud.CrowdOracle.dtos.CrowdDataView;
+import com.Cloud.CrowdOracle.dtos.RollupBucket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access to crowd_data_chunk (one compressed block per source and hour, see schema.sql)
+ * and to the hot crowd_data rows being compacted into it.
+ */
+@Repository
+public class CrowdDataChunkRepository {
+
+    public static final Duration CHUNK_WIDTH = Duration.ofHours(1);
+
+    private static final String COLUMNS = "chunk_start, source_id, record_count, people_sum, people_min, people_max, " +
+                                          "temperature_sum, temperature_min, temperature_max, id_min, id_max, data";
+
+    public static final Comparator<CrowdDataView> OLDEST_FIRST =
+        Comparator.comparing(CrowdDataView::entryTime).thenComparing(CrowdDataView::id);
+
+    // Chunks that may hold a given id
+    private static final String ID_SPAN_CONDITION = "id_min <= ? AND id_max >= ?";
+
+    // Written with each chunk but never read back into Java; range statistics merge them in SQL
+    private static final String VALUE_COUNT_COLUMNS = "people_values, people_counts, temperature_values, temperature_counts";
+
+    // Value counts merged over hot rows, whole chunks and the value counts of the decoded edge rows
+    private static final String VALUE_COUNTS_SQL =
+        "WITH hot AS (SELECT total_people_count, temperature_celsius FROM crowd_data%s), " +
+        "whole AS (SELECT " + VALUE_COUNT_COLUMNS + " FROM crowd_data_chunk%s), " +
+        "people AS (SELECT value, SUM(weight) AS weight FROM (" +
+        "SELECT total_people_count AS value, 1 AS weight FROM hot " +
+        "UNION ALL SELECT c.value, c.weight FROM whole, unnest(people_values, people_counts) AS c(value, weight) " +
+        "UNION ALL SELECT * FROM unnest(?::integer[], ?::integer[])) v GROUP BY value), " +
+        "temperature AS (SELECT value, SUM(weight) AS weight FROM (" +
+        "SELECT temperature_celsius AS value, 1 AS weight FROM hot " +
+        "UNION ALL SELECT c.value, c.weight FROM whole, unnest(temperature_values, temperature_counts) AS c(value, weight) " +
+        "UNION ALL SELECT * FROM unnest(?::numeric[], ?::integer[])) v GROUP BY value) " +
+        "SELECT (SELECT array_agg(value ORDER BY value) FROM people) AS people_values, " +
+        "(SELECT array_agg(weight ORDER BY value) FROM people) AS people_counts, " +
+        "(SELECT array_agg(value ORDER BY value) FROM temperature) AS temperature_values, " +
+        "(SELECT array_agg(weight ORDER BY value) FROM temperature) AS temperature_counts";
+
+    private static final String VIEW_COLUMNS = "id, temperature_celsius, total_people_count, entry_time, source_id";
+
+    private static final RowMapper<Chunk> CHUNK_MAPPER = (rs, rowNum) -> new Chunk(
+        rs.getTimestamp("chunk_start").toLocalDateTime(),
+        rs.getString("source_id"),
+        new RollupBucket(null,
+            rs.getLong("record_count"),
+            rs.getLong("people_sum"),
+            rs.getInt("people_min"),
+            rs.getInt("people_max"),
+            rs.getDouble("temperature_sum"),
+            rs.getDouble("temperature_min"),
+            rs.getDouble("temperature_max")),
+        rs.getLong("id_min"),
+        rs.getLong("id_max"),
+        rs.getBytes("data"));
+
+    private static final RowMapper<CrowdDataView> VIEW_MAPPER = (rs, rowNum) -> new CrowdDataView(
+        rs.getLong("id"),
+        rs.getDouble("temperature_celsius"),
+        rs.getInt("total_people_count"),
+        rs.getTimestamp("entry_time").toLocalDateTime(),
+        rs.getString("source_id"));
+
+    /**
+     * One stored block; totals carries count, sum, min and max without decoding, idMin and idMax
+     * the span of the ids inside
+     */
+    public record Chunk(LocalDateTime chunkStart, String sourceId, RollupBucket totals, long idMin, long idMax,
+                        byte[] data) {
+
+        /**
+         * Encode one source's readings of the hour starting at chunkStart
+         */
+        public static Chunk of(LocalDateTime chunkStart, String sourceId, List<CrowdDataView> rows) {
+            List<CrowdDataView> sorted = new ArrayList<>(rows);
+            sorted.sort(OLDEST_FIRST);
+
+            long peopleSum = 0;
+            int peopleMin = Integer.MAX_VALUE;
+            int peopleMax = Integer.MIN_VALUE;
+            // DECIMAL(5,2) values, summed exactly in hundredths
+            long temperatureUnits = 0;
+            double temperatureMin = Double.POSITIVE_INFINITY;
+            double temperatureMax = Double.NEGATIVE_INFINITY;
+            long idMin = Long.MAX_VALUE;
+            long idMax = Long.MIN_VALUE;
+            for (CrowdDataView row : sorted) {
+                peopleSum += row.totalPeopleCount();
+                peopleMin = Math.min(peopleMin, row.totalPeopleCount());
+                peopleMax = Math.max(peopleMax, row.totalPeopleCount());
+                temperatureUnits += Math.round(row.temperatureCelsius() * 100);
+                temperatureMin = Math.min(temperatureMin, row.temperatureCelsius());
+                temperatureMax = Math.max(temperatureMax, row.temperatureCelsius());
+                idMin = Math.min(idMin, row.id());
+                idMax = Math.max(idMax, row.id());
+            }
+            RollupBucket totals = new RollupBucket(chunkStart, sorted.size(), peopleSum, peopleMin, peopleMax,
+                                                   temperatureUnits / 100.0, temperatureMin, temperatureMax);
+            return new Chunk(chunkStart, sourceId, totals, idMin, idMax, ChunkCodec.encode(sorted));
+        }
+
+        /**
+         * One chunk per source for the hour starting at chunkStart, holding the readings of the
+         * existing chunks plus the new rows. A blank source id is no source, as in the unique
+         * index on COALESCE(source_id, ''), so such rows share the chunk of readings without one.
+         */
+        public static List<Chunk> merge(LocalDateTime chunkStart, List<Chunk> existing, List<CrowdDataView> rows) {
+            Map<String, List<CrowdDataView>> bySource = new HashMap<>();
+            for (Chunk chunk : existing) {
+                bySource.computeIfAbsent(sourceKey(chunk.sourceId()), source -> new ArrayList<>()).addAll(chunk.decode());
+            }
+            for (CrowdDataView row : rows) {
+                bySource.computeIfAbsent(sourceKey(row.sourceId()), source -> new ArrayList<>()).add(row);
+            }
+
+            List<Chunk> chunks = new ArrayList<>(bySource.size());
+            bySource.forEach((sourceId, sourceRows) -> chunks.add(of(chunkStart, sourceId, sourceRows)));
+            return chunks;
+        }
+
+        private static String sourceKey(String sourceId) {
+            return sourceId == null || sourceId.isBlank() ? null : sourceId;
+        }
+
+        public List<CrowdDataView> decode() {
+            return ChunkCodec.decode(data, sourceId);
+        }
+
+        public LocalDateTime chunkEnd() {
+            return chunkStart.plus(CHUNK_WIDTH);
+        }
+    }
+
+    /**
+     * Distinct people counts and temperatures of some readings, ascending, with how often each occurs
+     */
+    private record ValueCounts(Integer[] peopleValues, Integer[] peopleCounts,
+                               BigDecimal[] temperatureValues, Integer[] temperatureCounts) {
+
+        static ValueCounts of(List<CrowdDataView> rows) {
+            TreeMap<Integer, Integer> people = new TreeMap<>();
+            // DECIMAL(5,2) values, keyed in hundredths
+            TreeMap<Long, Integer> temperature = new TreeMap<>();
+            for (CrowdDataView row : rows) {
+                people.merge(row.totalPeopleCount(), 1, Integer::sum);
+                temperature.merge(Math.round(row.temperatureCelsius() * 100), 1, Integer::sum);
+            }
+            return new ValueCounts(people.keySet().toArray(Integer[]::new), people.values().toArray(Integer[]::new),
+                                   temperature.keySet().stream().map(units -> BigDecimal.valueOf(units, 2))
+                                       .toArray(BigDecimal[]::new),
+                                   temperature.values().toArray(Integer[]::new));
+        }
+
+        /**
+         * Bind the four arrays from the given parameter index on, in VALUE_COUNT_COLUMNS order
+         */
+        void set(PreparedStatement ps, int index) throws SQLException {
+            Connection connection = ps.getConnection();
+            ps.setArray(index, connection.createArrayOf("integer", peopleValues));
+            ps.setArray(index + 1, connection.createArrayOf("integer", peopleCounts));
+            ps.setArray(index + 2, connection.createArrayOf("numeric", temperatureValues));
+            ps.setArray(index + 3, connection.createArrayOf("integer", temperatureCounts));
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CrowdDataChunkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Start of the oldest hour holding hot rows older than the cutoff, or null when there is none
+     */
+    public LocalDateTime findOldestHotHourBefore(LocalDateTime cutoff) {
+        Timestamp oldest = jdbcTemplate.queryForObject(
+            "SELECT date_trunc('hour', MIN(entry_time)) FROM crowd_data WHERE entry_time < ?",
+            Timestamp.class, Timestamp.valueOf(cutoff));
+        return oldest != null ? oldest.toLocalDateTime() : null;
+    }
+
+    /**
+     * Move the hot rows of one hour into its chunks, merging with chunks written earlier
+     * (late readings for an hour already compacted). Returns the number of rows moved.
+     */
+    @Transactional
+    public int compactHour(LocalDateTime chunkStart) {
+        List<Chunk> existing = lockChunks(chunkStart);
+        List<CrowdDataView> hot = deleteHotRows(chunkStart, chunkStart.plus(CHUNK_WIDTH));
+        if (hot.isEmpty()) {
+            return 0;
+        }
+
+        deleteChunks(chunkStart);
+        insert(Chunk.merge(chunkStart, existing, hot));
+        return hot.size();
+    }
+
+    /**
+     * Feed each hot row with entry time in [startTime, endTime) to the action, oldest first,
+     * fetched in batches so large windows do not sit in memory; null bounds are open
+     */
+    public void forEachHotRow(LocalDateTime startTime, LocalDateTime endTime, Consumer<CrowdDataView> action) {
+        List<String> conditions = new ArrayList<>();
+        List<Timestamp> args = new ArrayList<>();
+        if (startTime != null) {
+            conditions.add("entry_time >= ?");
+            args.add(Timestamp.valueOf(startTime));
+        }
+        if (endTime != null) {
+            conditions.add("entry_time < ?");
+            args.add(Timestamp.valueOf(endTime));
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        String sql = "SELECT " + VIEW_COLUMNS + " FROM crowd_data" + where + " ORDER BY entry_time, id";
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(1000);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setTimestamp(i + 1, args.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(VIEW_MAPPER.mapRow(rs, 0)));
+    }
+
+    /**
+     * Delete the hot rows with entry time in [startTime, endTime) and return exactly those rows,
+     * so a row committed meanwhile is either returned or left in place, never lost
+     */
+    public List<CrowdDataView> deleteHotRows(LocalDateTime startTime, LocalDateTime endTime) {
+        return jdbcTemplate.query(
+            "DELETE FROM crowd_data WHERE entry_time >= ? AND entry_time < ? RETURNING " + VIEW_COLUMNS,
+            VIEW_MAPPER, Timestamp.valueOf(startTime), Timestamp.valueOf(endTime));
+    }
+
+    /**
+     * Chunks of one hour, locked so a concurrent compaction of the same hour waits
+     */
+    public List<Chunk> lockChunks(LocalDateTime chunkStart) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM crowd_data_chunk WHERE chunk_start = ? FOR UPDATE",
+                                  CHUNK_MAPPER, Timestamp.valueOf(chunkStart));
+    }
+
+    public void deleteChunks(LocalDateTime chunkStart) {
+        jdbcTemplate.update("DELETE FROM crowd_data_chunk WHERE chunk_start = ?", Timestamp.valueOf(chunkStart));
+    }
+
+    /**
+     * Compacted reading by id, decoding only the chunks whose id span covers it
+     */
+    public Optional<CrowdDataView> findReading(long id) {
+        for (Chunk chunk : findChunks(List.of(ID_SPAN_CONDITION), List.of(id, id), "chunk_start")) {
+            Optional<CrowdDataView> row = find(chunk.decode(), id);
+            if (row.isPresent()) {
+                return row;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Remove one compacted reading, rewriting its chunk without it (or dropping the chunk when
+     * it held nothing else). Returns the removed reading.
+     */
+    @Transactional
+    public Optional<CrowdDataView> deleteReading(long id) {
+        for (Chunk chunk : findChunks(List.of(ID_SPAN_CONDITION), List.of(id, id), "chunk_start FOR UPDATE")) {
+            List<CrowdDataView> rows = new ArrayList<>(chunk.decode());
+            Optional<CrowdDataView> row = find(rows, id);
+            if (row.isPresent()) {
+                rows.remove(row.get());
+                jdbcTemplate.update("DELETE FROM crowd_data_chunk WHERE chunk_start = ? AND " +
+                                    "COALESCE(source_id, '') = COALESCE(?, '')",
+                                    Timestamp.valueOf(chunk.chunkStart()), chunk.sourceId());
+                if (!rows.isEmpty()) {
+                    insert(List.of(Chunk.of(chunk.chunkStart(), chunk.sourceId(), rows)));
+                }
+                return row;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void insert(List<Chunk> chunks) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO crowd_data_chunk (" + COLUMNS + ", " + VALUE_COUNT_COLUMNS + ") " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            chunks, chunks.size(), (ps, chunk) -> {
+                RollupBucket totals = chunk.totals();
+                ps.setTimestamp(1, Timestamp.valueOf(chunk.chunkStart()));
+                ps.setString(2, chunk.sourceId());
+                ps.setLong(3, totals.sampleCount());
+                ps.setLong(4, totals.peopleSum());
+                ps.setInt(5, totals.peopleMin());
+                ps.setInt(6, totals.peopleMax());
+                ps.setDouble(7, totals.temperatureSum());
+                ps.setDouble(8, totals.temperatureMin());
+                ps.setDouble(9, totals.temperatureMax());
+                ps.setLong(10, chunk.idMin());
+                ps.setLong(11, chunk.idMax());
+                ps.setBytes(12, chunk.data());
+                ValueCounts.of(chunk.decode()).set(ps, 13);
+            });
+    }
+
+    /**
+     * End of the newest chunk, or null when nothing has been compacted
+     */
+    public LocalDateTime findCompactedUntil() {
+        Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(chunk_start) FROM crowd_data_chunk", Timestamp.class);
+        return latest != null ? latest.toLocalDateTime().plus(CHUNK_WIDTH) : null;
+    }
+
+    /**
+     * Oldest entry time across hot rows and chunks (chunk start for chunks), null when both are empty
+     */
+    public LocalDateTime findEarliestEntryTime() {
+        Timestamp earliest = jdbcTemplate.queryForObject(
+            "SELECT LEAST((SELECT MIN(chunk_start) FROM crowd_data_chunk), (SELECT MIN(entry_time) FROM crowd_data))",
+            Timestamp.class);
+        return earliest != null ? earliest.toLocalDateTime() : null;
+    }
+
+    /**
+     * Newest chunk of one source, if any
+     */
+    public Optional<Chunk> findLatestChunk(String sourceId) {
+        return findChunks(List.of("source_id = ?"), List.of(sourceId), "chunk_start DESC LIMIT 1").stream().findFirst();
+    }
+
+    /**
+     * Chunks that may hold readings with entry time in [startTime, endTime]; null bounds are open
+     */
+    public List<Chunk> findChunks(LocalDateTime startTime, LocalDateTime endTime) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (startTime != null) {
+            conditions.add("chunk_start > ?");
+            args.add(Timestamp.valueOf(startTime.minus(CHUNK_WIDTH)));
+        }
+        if (endTime != null) {
+            conditions.add("chunk_start <= ?");
+            args.add(Timestamp.valueOf(endTime));
+        }
+        return findChunks(conditions, args, "chunk_start");
+    }
+
+    /**
+     * Chunks whose temperature span meets [min, max]; null bounds are open
+     */
+    public List<Chunk> findChunksByTemperature(Double min, Double max) {
+        return findChunksBySpan("temperature", min, max);
+    }
+
+    /**
+     * Chunks whose people count span meets [min, max]; null bounds are open
+     */
+    public List<Chunk> findChunksByPeopleCount(Integer min, Integer max) {
+        return findChunksBySpan("people", min, max);
+    }
+
+    /**
+     * Up to limit chunks starting at or before the given time (all when null), newest first
+     */
+    public List<Chunk> findChunksNewestFirst(LocalDateTime startingAtOrBefore, int limit) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (startingAtOrBefore != null) {
+            conditions.add("chunk_start <= ?");
+            args.add(Timestamp.valueOf(startingAtOrBefore));
+        }
+        return findChunks(conditions, args, "chunk_start DESC LIMIT " + limit);
+    }
+
+    /**
+     * Count, sum, min and max over every chunk, from the plain columns
+     */
+    public RollupBucket getTotals() {
+        return getTotals(null, null);
+    }
+
+    /**
+     * Count, sum, min and max over chunks lying wholly inside [startTime, endTime); null bounds are open
+     */
+    public RollupBucket getTotals(LocalDateTime startTime, LocalDateTime endTime) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (startTime != null) {
+            conditions.add("chunk_start >= ?");
+            args.add(Timestamp.valueOf(startTime));
+        }
+        if (endTime != null) {
+            conditions.add("chunk_start <= ?");
+            args.add(Timestamp.valueOf(endTime.minus(CHUNK_WIDTH)));
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        return jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(record_count), 0) AS record_count, COALESCE(SUM(people_sum), 0) AS people_sum, " +
+            "MIN(people_min) AS people_min, MAX(people_max) AS people_max, " +
+            "COALESCE(SUM(temperature_sum), 0) AS temperature_sum, " +
+            "MIN(temperature_min) AS temperature_min, MAX(temperature_max) AS temperature_max " +
+            "FROM crowd_data_chunk" + where,
+            (rs, rowNum) -> new RollupBucket(null,
+                rs.getLong("record_count"),
+                rs.getLong("people_sum"),
+                rs.getInt("people_min"),
+                rs.getInt("people_max"),
+                rs.getDouble("temperature_sum"),
+                rs.getDouble("temperature_min"),
+                rs.getDouble("temperature_max")),
+            args.toArray());
+    }
+
+    /**
+     * Chunks holding readings with entry time in [startTime, endTime) without lying wholly inside it:
+     * the ones range statistics must decode. Null bounds are open.
+     */
+    public List<Chunk> findPartialChunks(LocalDateTime startTime, LocalDateTime endTime) {
+        List<String> conditions = new ArrayList<>();
+        List<String> partial = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (startTime != null) {
+            conditions.add("chunk_start > ?");
+            args.add(Timestamp.valueOf(startTime.minus(CHUNK_WIDTH)));
+        }
+        if (endTime != null) {
+            conditions.add("chunk_start < ?");
+            args.add(Timestamp.valueOf(endTime));
+        }
+        if (startTime != null) {
+            partial.add("chunk_start < ?");
+            args.add(Timestamp.valueOf(startTime));
+        }
+        if (endTime != null) {
+            partial.add("chunk_start > ?");
+            args.add(Timestamp.valueOf(endTime.minus(CHUNK_WIDTH)));
+        }
+        if (partial.isEmpty()) {
+            return List.of();
+        }
+        conditions.add("(" + String.join(" OR ", partial) + ")");
+        return findChunks(conditions, args, "chunk_start");
+    }
+
+    /**
+     * Statistics over hot rows with entry time in [startTime, endTime), the chunks lying wholly inside
+     * it (from their value counts, without decoding) and the given rows, decoded from the other chunks.
+     * The database merges the value counts in one statement; the figures are then taken from the
+     * merged counts, which hold one entry per distinct value. Null bounds are open.
+     */
+    public CrowdDataRangeStats getRangeStatistics(LocalDateTime startTime, LocalDateTime endTime,
+                                                  List<CrowdDataView> rows) {
+        List<String> hot = new ArrayList<>();
+        List<String> whole = new ArrayList<>();
+        List<Timestamp> hotArgs = new ArrayList<>();
+        List<Timestamp> wholeArgs = new ArrayList<>();
+        if (startTime != null) {
+            hot.add("entry_time >= ?");
+            hotArgs.add(Timestamp.valueOf(startTime));
+            whole.add("chunk_start >= ?");
+            wholeArgs.add(Timestamp.valueOf(startTime));
+        }
+        if (endTime != null) {
+            hot.add("entry_time < ?");
+            hotArgs.add(Timestamp.valueOf(endTime));
+            whole.add("chunk_start <= ?");
+            wholeArgs.add(Timestamp.valueOf(endTime.minus(CHUNK_WIDTH)));
+        }
+        String sql = String.format(VALUE_COUNTS_SQL,
+                                   hot.isEmpty() ? "" : " WHERE " + String.join(" AND ", hot),
+                                   whole.isEmpty() ? "" : " WHERE " + String.join(" AND ", whole));
+        ValueCounts edges = ValueCounts.of(rows);
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            int index = 1;
+            for (Timestamp arg : hotArgs) {
+                statement.setTimestamp(index++, arg);
+            }
+            for (Timestamp arg : wholeArgs) {
+                statement.setTimestamp(index++, arg);
+            }
+            statement.setArray(index++, connection.createArrayOf("integer", edges.peopleValues()));
+            statement.setArray(index++, connection.createArrayOf("integer", edges.peopleCounts()));
+            statement.setArray(index++, connection.createArrayOf("numeric", edges.temperatureValues()));
+            statement.setArray(index, connection.createArrayOf("integer", edges.temperatureCounts()));
+            return statement;
+        }, rs -> {
+            rs.next();
+            Distribution people = readDistribution(rs, "people", 1);
+            if (people == null) {
+                return new CrowdDataRangeStats(startTime, endTime, 0, null, null);
+            }
+            long count = 0;
+            for (Long weight : (Long[]) rs.getArray("people_counts").getArray()) {
+                count += weight;
+            }
+            return new CrowdDataRangeStats(startTime, endTime, count, people,
+                                           readDistribution(rs, "temperature", 100));
+        });
+    }
+
+    /**
+     * Drop chunks whose hour ends at or before the cutoff (retention)
+     */
+    public int deleteChunksBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM crowd_data_chunk WHERE chunk_start <= ?",
+                                   Timestamp.valueOf(cutoff.minus(CHUNK_WIDTH)));
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM crowd_data_chunk");
+    }
+
+    private List<Chunk> findChunksBySpan(String prefix, Number min, Number max) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (min != null) {
+            conditions.add(prefix + "_max >= ?");
+            args.add(min);
+        }
+        if (max != null) {
+            conditions.add(prefix + "_min <= ?");
+            args.add(max);
+        }
+        return findChunks(conditions, args, "chunk_start");
+    }
+
+    private static Distribution readDistribution(ResultSet rs, String prefix, int scale) throws SQLException {
+        Array values = rs.getArray(prefix + "_values");
+        if (values == null) {
+            return null;
+        }
+        Object[] distinct = (Object[]) values.getArray();
+        Long[] weights = (Long[]) rs.getArray(prefix + "_counts").getArray();
+        double[] doubles = new double[distinct.length];
+        long[] counts = new long[distinct.length];
+        for (int i = 0; i < distinct.length; i++) {
+            doubles[i] = ((Number) distinct[i]).doubleValue();
+            counts[i] = weights[i];
+        }
+        return Distribution.ofCounts(doubles, counts, scale);
+    }
+
+    private static Optional<CrowdDataView> find(List<CrowdDataView> rows, long id) {
+        return rows.stream().filter(row -> row.id() == id).findFirst();
+    }
+
+    private List<Chunk> findChunks(List<String> conditions, List<Object> args, String orderBy) {
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM crowd_data_chunk" + where +
+                                  " ORDER BY " + orderBy, CHUNK_MAPPER, args.toArray());
+    }
+}
@@ -0,0 +1,116 @@
+package com.Cloud.CrowdOracle.repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk transfer of crowd_data rows with PostgreSQL COPY, in (FROM STDIN) and out (TO STDOUT).
+ * Rows are streamed as they are produced or received, so memory use does not
+ * depend on the number of rows. Runs on the caller's transaction connection, if any.
+ */
+@Repository
+public class CrowdDataCopyRepository {
+
+    // Column order of the CSV rows written by a CopyWriter; id comes from the column default
+    public static final String COPY_SQL = "COPY crowd_data (temperature_celsius, total_people_count, " +
+                                          "entry_time, source_id) FROM STDIN (FORMAT csv)";
+
+    // Header and column order of exported CSV, which the import accepts as is
+    private static final String EXPORT_COLUMNS = "id, temperature_celsius, total_people_count, entry_time, source_id";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Produces CSV rows matching COPY_SQL
+     */
+    @FunctionalInterface
+    public interface CopyWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CrowdDataCopyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Run one COPY fed by the writer and return the number of rows the server stored.
+     * If the writer throws, the COPY is cancelled and the exception is rethrown.
+     */
+    public long copyIn(CopyWriter writer) {
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            PGCopyOutputStream out = new PGCopyOutputStream(pgConnection, COPY_SQL, BUFFER_SIZE);
+            try {
+                writer.writeTo(out);
+                return out.endCopy();
+            } catch (IOException e) {
+                cancel(out);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException | Error e) {
+                cancel(out);
+                throw e;
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    /**
+     * Write readings with entry_time in [startTime, endTime), oldest first, as CSV with a header row.
+     * A null bound leaves that side open. Returns the number of rows written.
+     */
+    public long copyOut(LocalDateTime startTime, LocalDateTime endTime, OutputStream out) {
+        return copyOut(startTime, endTime, out, true);
+    }
+
+    /**
+     * Same as copyOut, optionally without the header row (to continue a CSV written elsewhere)
+     */
+    public long copyOut(LocalDateTime startTime, LocalDateTime endTime, OutputStream out, boolean header) {
+        // COPY takes no bind parameters; the bounds are typed values, so inlining them is safe
+        List<String> conditions = new ArrayList<>();
+        if (startTime != null) {
+            conditions.add("entry_time >= '" + Timestamp.valueOf(startTime) + "'::timestamp");
+        }
+        if (endTime != null) {
+            conditions.add("entry_time < '" + Timestamp.valueOf(endTime) + "'::timestamp");
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        String sql = "COPY (SELECT " + EXPORT_COLUMNS + " FROM crowd_data" + where +
+                     " ORDER BY entry_time, id) TO STDOUT (FORMAT csv" + (header ? ", HEADER)" : ")");
+
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private static void cancel(PGCopyOutputStream out) {
+        try {
+            if (out.isActive()) {
+                out.cancelCopy();
+            }
+        } catch (SQLException ignored) {
+            // The transaction is rolled back anyway
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.Cloud.CrowdOracle.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DDL for the range partitions of crowd_data (partitioned on entry_time).
+ * Rows outside every partition land in crowd_data_default; creating a partition first moves
+ * its rows out of the default partition so the attach does not fail. Creating and dropping run in
+ * a transaction of their own, also when called from an after-commit listener, so a failed attach
+ * puts the moved rows back.
+ */
+@Repository
+public class CrowdDataPartitionRepository {
+
+    public static final String DEFAULT_PARTITION = "crowd_data_default";
+    public static final String LEGACY_PARTITION = "crowd_data_legacy";
+
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern RANGE_BOUND = Pattern.compile("FROM \\((.+?)\\) TO \\((.+?)\\)");
+
+    // Secondary indexes that existed on the unpartitioned table, renamed when it becomes a partition
+    private static final List<String> LEGACY_INDEXES = List.of(
+        "idx_crowd_data_entry_time", "idx_crowd_data_entry_time_id", "idx_crowd_data_source_time",
+        "idx_crowd_data_temperature", "idx_crowd_data_people_count");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CrowdDataPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * One partition and its range; from/to are null for MINVALUE/MAXVALUE and both null for the default
+     */
+    public record Partition(String name, LocalDateTime from, LocalDateTime to, boolean isDefault) {
+
+        public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            return !isDefault && (from == null || from.isBefore(end)) && (to == null || to.isAfter(start));
+        }
+    }
+
+    public boolean isPartitioned() {
+        String kind = jdbcTemplate.queryForObject(
+            "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('crowd_data')", String.class);
+        return "p".equals(kind);
+    }
+
+    public List<Partition> findPartitions() {
+        return jdbcTemplate.query(
+            "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'crowd_data'::regclass ORDER BY c.relname",
+            (rs, rowNum) -> toPartition(rs.getString("relname"), rs.getString("bound")));
+    }
+
+    private static Partition toPartition(String name, String bound) {
+        Matcher matcher = RANGE_BOUND.matcher(bound);
+        if (!matcher.find()) {
+            return new Partition(name, null, null, true);
+        }
+        return new Partition(name, parseBound(matcher.group(1)), parseBound(matcher.group(2)), false);
+    }
+
+    private static LocalDateTime parseBound(String value) {
+        if (value.equals("MINVALUE") || value.equals("MAXVALUE")) {
+            return null;
+        }
+        // e.g. '2025-01-01 00:00:00'
+        return LocalDateTime.parse(value.replace("'", "").replace(' ', 'T'));
+    }
+
+    public void createDefaultPartition() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF crowd_data DEFAULT");
+    }
+
+    /**
+     * Oldest row in the default partition, or null when it is empty
+     */
+    public LocalDateTime findOldestUnpartitionedEntry() {
+        Timestamp oldest = jdbcTemplate.queryForObject(
+            "SELECT MIN(entry_time) FROM " + DEFAULT_PARTITION, Timestamp.class);
+        return oldest != null ? oldest.toLocalDateTime() : null;
+    }
+
+    /**
+     * Create and attach the partition for [from, to), taking over matching rows from the default partition
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createPartition(String name, LocalDateTime from, LocalDateTime to) {
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE crowd_data INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.update("INSERT INTO " + name + " SELECT * FROM " + DEFAULT_PARTITION +
+                            " WHERE entry_time >= ? AND entry_time < ?", start, end);
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE entry_time >= ? AND entry_time < ?", start, end);
+        jdbcTemplate.execute("ALTER TABLE crowd_data ATTACH PARTITION " + name +
+                             " FOR VALUES FROM ('" + BOUND_FORMAT.format(from) + "') TO ('" + BOUND_FORMAT.format(to) + "')");
+    }
+
+    /**
+     * Remove a whole partition without row-level deletes (no dead tuples, nothing to vacuum)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE crowd_data DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+    }
+
+    /**
+     * Turn the original unpartitioned crowd_data into the oldest partition of a new partitioned crowd_data.
+     * Rows from boundary onwards are moved to the default partition, to be picked up by regular partitions.
+     */
+    @Transactional
+    public void convertToPartitioned(LocalDateTime boundary) {
+        Timestamp start = Timestamp.valueOf(boundary);
+
+        jdbcTemplate.execute("LOCK TABLE crowd_data IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE crowd_data RENAME TO " + LEGACY_PARTITION);
+        // A partition cannot keep its own primary key; attaching builds the (id, entry_time) one
+        jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " DROP CONSTRAINT IF EXISTS crowd_data_pkey");
+        for (String index : LEGACY_INDEXES) {
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS " + index + " RENAME TO " + index + "_legacy");
+        }
+
+        // The id sequence must outlive the legacy partition once retention drops it
+        jdbcTemplate.execute("ALTER SEQUENCE IF EXISTS crowd_data_id_seq OWNED BY NONE");
+
+        jdbcTemplate.execute("CREATE TABLE crowd_data (LIKE " + LEGACY_PARTITION + " INCLUDING DEFAULTS) " +
+                             "PARTITION BY RANGE (entry_time)");
+        jdbcTemplate.execute("ALTER TABLE crowd_data ADD PRIMARY KEY (id, entry_time)");
+        jdbcTemplate.execute("ALTER SEQUENCE IF EXISTS crowd_data_id_seq OWNED BY crowd_data.id");
+        createDefaultPartition();
+
+        jdbcTemplate.update("INSERT INTO crowd_data SELECT * FROM " + LEGACY_PARTITION + " WHERE entry_time >= ?", start);
+        jdbcTemplate.update("DELETE FROM " + LEGACY_PARTITION + " WHERE entry_time >= ?", start);
+        jdbcTemplate.execute("ALTER TABLE crowd_data ATTACH PARTITION " + LEGACY_PARTITION +
+                             " FOR VALUES FROM (MINVALUE) TO ('" + BOUND_FORMAT.format(boundary) + "')");
+    }
+}
@@ -1,20 +1,93 @@
 package com.Cloud.CrowdOracle.repository;
 
+import com.Cloud.CrowdOracle.dtos.CrowdDataAggregate;
+import com.Cloud.CrowdOracle.dtos.CrowdDataView;
 import com.Cloud.CrowdOracle.entity.CrowdData;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CrowdDataRepository extends JpaRepository<CrowdData, Long> {
 
+    // Select clause of the projection queries below
+    String VIEW_SELECT = "SELECT new com.Cloud.CrowdOracle.dtos.CrowdDataView(" +
+                         "c.id, c.temperatureCelsius, c.totalPeopleCount, c.entryTime, c.sourceId) FROM CrowdData c ";
+
     // Find all records ordered by entry time (most recent first)
     List<CrowdData> findAllByOrderByEntryTimeDesc();
 
+    // Find the single most recent record
+    Optional<CrowdData> findFirstByOrderByEntryTimeDescIdDesc();
+
+    // Find the most recent record from one device
+    Optional<CrowdData> findFirstBySourceIdOrderByEntryTimeDescIdDesc(String sourceId);
+
+    // Keyset pagination on (entry_time, id), newest first: first page, then pages after a cursor
+    List<CrowdData> findAllByOrderByEntryTimeDescIdDesc(Limit limit);
+
+    @Query("SELECT c FROM CrowdData c WHERE (c.entryTime, c.id) < (:entryTime, :id) " +
+           "ORDER BY c.entryTime DESC, c.id DESC")
+    List<CrowdData> findPageAfter(@Param("entryTime") LocalDateTime entryTime,
+                                  @Param("id") Long id, Limit limit);
+
+    List<CrowdData> findByTemperatureCelsiusBetweenOrderByEntryTimeDescIdDesc(Double minTemp, Double maxTemp,
+                                                                              Limit limit);
+
+    @Query("SELECT c FROM CrowdData c WHERE c.temperatureCelsius BETWEEN :minTemp AND :maxTemp " +
+           "AND (c.entryTime, c.id) < (:entryTime, :id) ORDER BY c.entryTime DESC, c.id DESC")
+    List<CrowdData> findTemperatureRangePageAfter(@Param("minTemp") Double minTemp,
+                                                  @Param("maxTemp") Double maxTemp,
+                                                  @Param("entryTime") LocalDateTime entryTime,
+                                                  @Param("id") Long id, Limit limit);
+
+    List<CrowdData> findByTotalPeopleCountBetweenOrderByEntryTimeDescIdDesc(Integer minCount, Integer maxCount,
+                                                                            Limit limit);
+
+    @Query("SELECT c FROM CrowdData c WHERE c.totalPeopleCount BETWEEN :minCount AND :maxCount " +
+           "AND (c.entryTime, c.id) < (:entryTime, :id) ORDER BY c.entryTime DESC, c.id DESC")
+    List<CrowdData> findPeopleCountRangePageAfter(@Param("minCount") Integer minCount,
+                                                  @Param("maxCount") Integer maxCount,
+                                                  @Param("entryTime") LocalDateTime entryTime,
+                                                  @Param("id") Long id, Limit limit);
+
+    // Cursor-backed streams for NDJSON export: rows are fetched from the database in
+    // bounded chunks and are read-only, so callers must consume them inside a transaction
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM CrowdData c ORDER BY c.entryTime DESC, c.id DESC")
+    Stream<CrowdData> streamAllByOrderByEntryTimeDesc();
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM CrowdData c WHERE c.temperatureCelsius BETWEEN :minTemp AND :maxTemp " +
+           "ORDER BY c.entryTime DESC, c.id DESC")
+    Stream<CrowdData> streamByTemperatureCelsiusBetween(@Param("minTemp") Double minTemp,
+                                                        @Param("maxTemp") Double maxTemp);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM CrowdData c WHERE c.totalPeopleCount BETWEEN :minCount AND :maxCount " +
+           "ORDER BY c.entryTime DESC, c.id DESC")
+    Stream<CrowdData> streamByTotalPeopleCountBetween(@Param("minCount") Integer minCount,
+                                                      @Param("maxCount") Integer maxCount);
+
     // Find records by temperature range
     List<CrowdData> findByTemperatureCelsiusBetween(Double minTemp, Double maxTemp);
 
@@ -30,6 +103,36 @@ public interface CrowdDataRepository extends JpaRepository<CrowdData, Long> {
     // Find records where temperature is greater than specified value
     List<CrowdData> findByTemperatureCelsiusGreaterThan(Double temperature);
 
+    // Projection variants of the range lookups above for read endpoints: rows become records
+    // directly, with no entity instances, snapshots or persistence context entries
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(VIEW_SELECT + "WHERE c.temperatureCelsius BETWEEN :minTemp AND :maxTemp")
+    List<CrowdDataView> findViewsByTemperatureCelsiusBetween(@Param("minTemp") Double minTemp,
+                                                             @Param("maxTemp") Double maxTemp);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(VIEW_SELECT + "WHERE c.totalPeopleCount BETWEEN :minCount AND :maxCount")
+    List<CrowdDataView> findViewsByTotalPeopleCountBetween(@Param("minCount") Integer minCount,
+                                                           @Param("maxCount") Integer maxCount);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(VIEW_SELECT + "WHERE c.entryTime BETWEEN :startTime AND :endTime ORDER BY c.entryTime, c.id")
+    List<CrowdDataView> findViewsByEntryTimeBetween(@Param("startTime") LocalDateTime startTime,
+                                                    @Param("endTime") LocalDateTime endTime);
+
+    // Newest rows, used to fill the in-memory recent tier
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(VIEW_SELECT + "ORDER BY c.entryTime DESC, c.id DESC")
+    List<CrowdDataView> findNewestViews(Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(VIEW_SELECT + "WHERE c.totalPeopleCount > :count")
+    List<CrowdDataView> findViewsByTotalPeopleCountGreaterThan(@Param("count") Integer count);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(VIEW_SELECT + "WHERE c.temperatureCelsius > :temperature")
+    List<CrowdDataView> findViewsByTemperatureCelsiusGreaterThan(@Param("temperature") Double temperature);
+
     // Custom query to get average temperature
     @Query("SELECT AVG(c.temperatureCelsius) FROM CrowdData c WHERE c.entryTime BETWEEN :startTime AND :endTime")
     Double getAverageTemperatureInTimeRange(@Param("startTime") LocalDateTime startTime,
@@ -44,4 +147,15 @@ public interface CrowdDataRepository extends JpaRepository<CrowdData, Long> {
     @Query("SELECT COUNT(c) FROM CrowdData c WHERE c.entryTime BETWEEN :startTime AND :endTime")
     Long getRecordsCountInTimeRange(@Param("startTime") LocalDateTime startTime,
                                    @Param("endTime") LocalDateTime endTime);
+
+    // Oldest entry time in the table, null when empty
+    @Query("SELECT MIN(c.entryTime) FROM CrowdData c")
+    LocalDateTime findEarliestEntryTime();
+
+    // Whole-table aggregates in a single scan, used to (re)build the running statistics
+    @Query("SELECT COUNT(c) AS recordCount, SUM(c.totalPeopleCount) AS peopleSum, " +
+           "MIN(c.totalPeopleCount) AS peopleMin, MAX(c.totalPeopleCount) AS peopleMax, " +
+           "SUM(c.temperatureCelsius) AS temperatureSum, MIN(c.temperatureCelsius) AS temperatureMin, " +
+           "MAX(c.temperatureCelsius) AS temperatureMax FROM CrowdData c")
+    CrowdDataAggregate getAggregateStatistics();
 }
@@ -0,0 +1,114 @@
+package com.Cloud.CrowdOracle.repository;
+
+import com.Cloud.CrowdOracle.dtos.RollupBucket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JDBC access to the per-minute, per-hour and per-day rollup tables.
+ * All three tables share the same layout, see schema.sql.
+ */
+@Repository
+public class CrowdDataRollupRepository {
+
+    private static final String COLUMNS = "bucket_start, sample_count, people_sum, people_min, people_max, " +
+                                          "temperature_sum, temperature_min, temperature_max";
+
+    private static final RowMapper<RollupBucket> BUCKET_MAPPER = (rs, rowNum) -> new RollupBucket(
+        rs.getTimestamp("bucket_start").toLocalDateTime(),
+        rs.getLong("sample_count"),
+        rs.getLong("people_sum"),
+        rs.getInt("people_min"),
+        rs.getInt("people_max"),
+        rs.getDouble("temperature_sum"),
+        rs.getDouble("temperature_min"),
+        rs.getDouble("temperature_max"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CrowdDataRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add pre-aggregated deltas to their buckets, creating missing buckets
+     */
+    public void upsert(RollupGranularity granularity, List<RollupBucket> buckets) {
+        String sql = "INSERT INTO " + granularity.getTableName() + " AS r (" + COLUMNS + ") " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+                     "ON CONFLICT (bucket_start) DO UPDATE SET " +
+                     "sample_count = r.sample_count + EXCLUDED.sample_count, " +
+                     "people_sum = r.people_sum + EXCLUDED.people_sum, " +
+                     "people_min = LEAST(r.people_min, EXCLUDED.people_min), " +
+                     "people_max = GREATEST(r.people_max, EXCLUDED.people_max), " +
+                     "temperature_sum = r.temperature_sum + EXCLUDED.temperature_sum, " +
+                     "temperature_min = LEAST(r.temperature_min, EXCLUDED.temperature_min), " +
+                     "temperature_max = GREATEST(r.temperature_max, EXCLUDED.temperature_max)";
+
+        jdbcTemplate.batchUpdate(sql, buckets, buckets.size(), (ps, bucket) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(bucket.bucketStart()));
+            ps.setLong(2, bucket.sampleCount());
+            ps.setLong(3, bucket.peopleSum());
+            ps.setInt(4, bucket.peopleMin());
+            ps.setInt(5, bucket.peopleMax());
+            ps.setDouble(6, bucket.temperatureSum());
+            ps.setDouble(7, bucket.temperatureMin());
+            ps.setDouble(8, bucket.temperatureMax());
+        });
+    }
+
+    /**
+     * Find buckets starting in [startTime, endTime), oldest first
+     */
+    public List<RollupBucket> findBuckets(RollupGranularity granularity, LocalDateTime startTime, LocalDateTime endTime) {
+        String sql = "SELECT " + COLUMNS + " FROM " + granularity.getTableName() +
+                     " WHERE bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start";
+        return jdbcTemplate.query(sql, BUCKET_MAPPER, Timestamp.valueOf(startTime), Timestamp.valueOf(endTime));
+    }
+
+    /**
+     * Recompute buckets starting in [startTime, endTime) from the raw crowd_data rows
+     */
+    public void rebuild(RollupGranularity granularity, LocalDateTime startTime, LocalDateTime endTime) {
+        Timestamp start = Timestamp.valueOf(startTime);
+        Timestamp end = Timestamp.valueOf(endTime);
+
+        jdbcTemplate.update("DELETE FROM " + granularity.getTableName() +
+                            " WHERE bucket_start >= ? AND bucket_start < ?", start, end);
+        jdbcTemplate.update("INSERT INTO " + granularity.getTableName() + " (" + COLUMNS + ") " +
+                            "SELECT date_trunc('" + granularity.getTruncField() + "', entry_time), COUNT(*), " +
+                            "SUM(total_people_count), MIN(total_people_count), MAX(total_people_count), " +
+                            "SUM(temperature_celsius), MIN(temperature_celsius), MAX(temperature_celsius) " +
+                            "FROM crowd_data WHERE entry_time >= ? AND entry_time < ? GROUP BY 1", start, end);
+    }
+
+    /**
+     * Those of the given crowd_data ids that exist, as seen by the current transaction
+     */
+    public Set<Long> findExistingIds(List<Long> ids) {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM crowd_data WHERE id = ANY(?)", Long.class,
+                                                       (Object) ids.toArray(new Long[0])));
+    }
+
+    /**
+     * Start of the newest bucket, or null when the table is empty
+     */
+    public LocalDateTime findLatestBucketStart(RollupGranularity granularity) {
+        Timestamp latest = jdbcTemplate.queryForObject(
+            "SELECT MAX(bucket_start) FROM " + granularity.getTableName(), Timestamp.class);
+        return latest != null ? latest.toLocalDateTime() : null;
+    }
+
+    public void deleteAll(RollupGranularity granularity) {
+        jdbcTemplate.update("DELETE FROM " + granularity.getTableName());
+    }
+}
@@ -0,0 +1,116 @@
+package com.Cloud.CrowdOracle.repository;
+
+import com.Cloud.CrowdOracle.dtos.CrowdDataRangeStats;
+import com.Cloud.CrowdOracle.dtos.CrowdDataRangeStats.Distribution;
+import com.Cloud.CrowdOracle.dtos.TimeWeightedAverages;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Windowed statistics over crowd_data in a single statement. The entry_time bounds are
+ * the only filter, so the query is an index range scan over the pruned partitions.
+ */
+@Repository
+public class CrowdDataStatsRepository {
+
+    // Percentiles of each column come from one sort (the array form of percentile_cont)
+    private static final String SQL =
+        "SELECT COUNT(*) AS record_count, " +
+        distribution("total_people_count", "people") + ", " +
+        distribution("temperature_celsius", "temperature") +
+        " FROM crowd_data";
+
+    // Each row holds until the next row of its source (LEAD), the hold limit or the window end,
+    // counted from the window start; the lookback picks up the row already in effect at the start
+    private static final String TIME_WEIGHTED_SQL =
+        "SELECT (SUM(temperature_celsius * held) / NULLIF(SUM(held), 0))::float8 AS temperature, " +
+        "(SUM(total_people_count * held) / NULLIF(SUM(held), 0))::float8 AS people, " +
+        "COALESCE(SUM(held), 0)::float8 AS covered_seconds " +
+        "FROM (SELECT temperature_celsius, total_people_count, " +
+        "EXTRACT(EPOCH FROM LEAST(COALESCE(LEAD(entry_time) OVER w, ?), entry_time + ? * INTERVAL '1 second', ?) " +
+        "- GREATEST(entry_time, ?)) AS held " +
+        "FROM crowd_data WHERE entry_time >= ? AND entry_time < ? " +
+        "WINDOW w AS (PARTITION BY source_id ORDER BY entry_time, id)) readings " +
+        "WHERE held > 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CrowdDataStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Statistics of readings with entry time in [startTime, endTime); a null bound leaves that side open
+     */
+    public CrowdDataRangeStats getRangeStatistics(LocalDateTime startTime, LocalDateTime endTime) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (startTime != null) {
+            conditions.add("entry_time >= ?");
+            args.add(Timestamp.valueOf(startTime));
+        }
+        if (endTime != null) {
+            conditions.add("entry_time < ?");
+            args.add(Timestamp.valueOf(endTime));
+        }
+        String sql = conditions.isEmpty() ? SQL : SQL + " WHERE " + String.join(" AND ", conditions);
+
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
+            long count = rs.getLong("record_count");
+            if (count == 0) {
+                return new CrowdDataRangeStats(startTime, endTime, 0, null, null);
+            }
+            return new CrowdDataRangeStats(startTime, endTime, count,
+                                           readDistribution(rs, "people"), readDistribution(rs, "temperature"));
+        }, args.toArray());
+    }
+
+    /**
+     * Time-weighted averages over [startTime, endTime), treating each reading as holding its
+     * value until the next reading of the same source but no longer than maxHold
+     */
+    public TimeWeightedAverages getTimeWeightedAverages(LocalDateTime startTime, LocalDateTime endTime,
+                                                        Duration maxHold) {
+        Timestamp start = Timestamp.valueOf(startTime);
+        Timestamp end = Timestamp.valueOf(endTime);
+        return jdbcTemplate.queryForObject(TIME_WEIGHTED_SQL, (rs, rowNum) -> new TimeWeightedAverages(
+                startTime, endTime,
+                rs.getObject("temperature", Double.class),
+                rs.getObject("people", Double.class),
+                rs.getDouble("covered_seconds")),
+            end, maxHold.toSeconds(), end, start, Timestamp.valueOf(startTime.minus(maxHold)), end);
+    }
+
+    private static String distribution(String column, String prefix) {
+        return "SUM(" + column + ")::float8 AS " + prefix + "_sum, " +
+               "MIN(" + column + ")::float8 AS " + prefix + "_min, " +
+               "MAX(" + column + ")::float8 AS " + prefix + "_max, " +
+               "AVG(" + column + ")::float8 AS " + prefix + "_mean, " +
+               "COALESCE(STDDEV_SAMP(" + column + "), 0)::float8 AS " + prefix + "_stddev, " +
+               "percentile_cont(ARRAY[0.5, 0.9, 0.99]) WITHIN GROUP (ORDER BY " + column + ") AS " + prefix + "_pct";
+    }
+
+    private static Distribution readDistribution(ResultSet rs, String prefix) throws SQLException {
+        Array array = rs.getArray(prefix + "_pct");
+        Double[] percentiles = (Double[]) array.getArray();
+        array.free();
+        return new Distribution(
+            rs.getDouble(prefix + "_sum"),
+            rs.getDouble(prefix + "_min"),
+            rs.getDouble(prefix + "_max"),
+            rs.getDouble(prefix + "_mean"),
+            rs.getDouble(prefix + "_stddev"),
+            percentiles[0], percentiles[1], percentiles[2]);
+    }
+}
@@ -0,0 +1,39 @@
+package com.Cloud.CrowdOracle.repository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Width of one crowd_data partition.
+ */
+public enum PartitionInterval {
+
+    DAY("yyyyMMdd"),
+    MONTH("yyyyMM");
+
+    private final DateTimeFormatter suffixFormat;
+
+    PartitionInterval(String suffixPattern) {
+        this.suffixFormat = DateTimeFormatter.ofPattern(suffixPattern);
+    }
+
+    /**
+     * Start of the partition containing the given time
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        LocalDateTime day = time.truncatedTo(ChronoUnit.DAYS);
+        return this == DAY ? day : day.withDayOfMonth(1);
+    }
+
+    public LocalDateTime next(LocalDateTime partitionStart) {
+        return this == DAY ? partitionStart.plusDays(1) : partitionStart.plusMonths(1);
+    }
+
+    /**
+     * Table name of the partition starting at the given time, e.g. crowd_data_p202501
+     */
+    public String partitionName(LocalDateTime partitionStart) {
+        return "crowd_data_p" + suffixFormat.format(partitionStart);
+    }
+}
@@ -0,0 +1,130 @@
+package com.Cloud.CrowdOracle.repository;
+
+import com.Cloud.CrowdOracle.config.ReactiveReadConfig;
+import com.Cloud.CrowdOracle.dtos.PageCursor;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only, non-blocking access to crowd_data over R2DBC.
+ * The connection pool is owned here rather than exposed as a bean: a ConnectionFactory
+ * bean would make Spring Boot back off from creating the JDBC DataSource used by JPA.
+ */
+@Repository
+public class ReactiveCrowdDataRepository {
+
+    private static final String COLUMNS = "id, temperature_celsius, total_people_count, entry_time, source_id";
+    private static final String ORDER = " ORDER BY entry_time DESC, id DESC LIMIT :limit";
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveCrowdDataRepository(ReactiveReadConfig reactiveReadConfig, DataSourceProperties dataSourceProperties) {
+        String url = reactiveReadConfig.getUrl() != null && !reactiveReadConfig.getUrl().isBlank()
+            ? reactiveReadConfig.getUrl()
+            : toR2dbcUrl(dataSourceProperties.determineUrl());
+
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+            .option(ConnectionFactoryOptions.USER, dataSourceProperties.determineUsername())
+            .option(ConnectionFactoryOptions.PASSWORD, dataSourceProperties.determinePassword())
+            .build();
+
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+            .name("crowd-data-reactive")
+            .initialSize(reactiveReadConfig.getInitialSize())
+            .maxSize(reactiveReadConfig.getMaxSize())
+            .maxIdleTime(Duration.ofMinutes(reactiveReadConfig.getMaxIdleMinutes()))
+            .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * jdbc:postgresql://host:5432/db?params -> r2dbc:postgresql://host:5432/db (JDBC-only params dropped)
+     */
+    static String toR2dbcUrl(String jdbcUrl) {
+        String url = jdbcUrl.startsWith("jdbc:") ? "r2dbc:" + jdbcUrl.substring("jdbc:".length()) : jdbcUrl;
+        int query = url.indexOf('?');
+        return query >= 0 ? url.substring(0, query) : url;
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    /**
+     * Newest rows first, starting after the cursor when one is given
+     */
+    public Flux<CrowdData> findPage(PageCursor after, int limit) {
+        if (after == null) {
+            return query("SELECT " + COLUMNS + " FROM crowd_data" + ORDER, null, limit);
+        }
+        return query("SELECT " + COLUMNS + " FROM crowd_data WHERE (entry_time, id) < (:entryTime, :id)" + ORDER,
+                     after, limit);
+    }
+
+    public Flux<CrowdData> findByTemperatureRange(Double minTemp, Double maxTemp, PageCursor after, int limit) {
+        String sql = "SELECT " + COLUMNS + " FROM crowd_data WHERE temperature_celsius BETWEEN :min AND :max" +
+                     (after != null ? " AND (entry_time, id) < (:entryTime, :id)" : "") + ORDER;
+        return rangeQuery(sql, minTemp, maxTemp, after, limit);
+    }
+
+    public Flux<CrowdData> findByPeopleCountRange(Integer minCount, Integer maxCount, PageCursor after, int limit) {
+        String sql = "SELECT " + COLUMNS + " FROM crowd_data WHERE total_people_count BETWEEN :min AND :max" +
+                     (after != null ? " AND (entry_time, id) < (:entryTime, :id)" : "") + ORDER;
+        return rangeQuery(sql, minCount, maxCount, after, limit);
+    }
+
+    public Mono<CrowdData> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM crowd_data WHERE id = :id")
+            .bind("id", id)
+            .map((row, metadata) -> toCrowdData(row))
+            .one();
+    }
+
+    public Mono<CrowdData> findLatest() {
+        return findPage(null, 1).next();
+    }
+
+    private Flux<CrowdData> query(String sql, PageCursor after, int limit) {
+        return page(databaseClient.sql(sql), after, limit);
+    }
+
+    private Flux<CrowdData> rangeQuery(String sql, Object min, Object max, PageCursor after, int limit) {
+        return page(databaseClient.sql(sql).bind("min", min).bind("max", max), after, limit);
+    }
+
+    private static Flux<CrowdData> page(DatabaseClient.GenericExecuteSpec spec, PageCursor after, int limit) {
+        spec = spec.bind("limit", limit);
+        if (after != null) {
+            spec = spec.bind("entryTime", after.entryTime()).bind("id", after.id());
+        }
+        return spec.map((row, metadata) -> toCrowdData(row)).all();
+    }
+
+    private static CrowdData toCrowdData(Row row) {
+        CrowdData crowdData = new CrowdData(
+            row.get("id", Long.class),
+            row.get("temperature_celsius", BigDecimal.class).doubleValue(),
+            row.get("total_people_count", Integer.class),
+            row.get("entry_time", LocalDateTime.class));
+        crowdData.setSourceId(row.get("source_id", String.class));
+        return crowdData;
+    }
+}
@@ -0,0 +1,45 @@
+package com.Cloud.CrowdOracle.repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket sizes of the pre-aggregated rollup tables, finest first.
+ */
+public enum RollupGranularity {
+
+    MINUTE("crowd_data_rollup_minute", ChronoUnit.MINUTES, "minute"),
+    HOUR("crowd_data_rollup_hour", ChronoUnit.HOURS, "hour"),
+    DAY("crowd_data_rollup_day", ChronoUnit.DAYS, "day");
+
+    private final String tableName;
+    private final ChronoUnit unit;
+    private final String truncField;
+
+    RollupGranularity(String tableName, ChronoUnit unit, String truncField) {
+        this.tableName = tableName;
+        this.unit = unit;
+        this.truncField = truncField;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    // Field name for PostgreSQL date_trunc
+    public String getTruncField() {
+        return truncField;
+    }
+
+    public Duration getDuration() {
+        return unit.getDuration();
+    }
+
+    /**
+     * Start of the bucket containing the given time
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+}
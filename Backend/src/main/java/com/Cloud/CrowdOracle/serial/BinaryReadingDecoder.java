@@ -0,0 +1,113 @@
+package com.Cloud.CrowdOracle.serial;
+
+/**
+ * Decodes the compact binary reading frame sent by the Arduino sketch when
+ * SERIAL_BINARY_FRAMES is enabled. Layout after COBS decoding (little endian):
+ *
+ *   0      version (1)
+ *   1-2    sequence number, uint16, wraps around
+ *   3-6    device uptime in milliseconds, uint32
+ *   7-8    temperature in hundredths of a degree Celsius, int16
+ *   9-10   total people count, uint16
+ *   11     flags (bit 0: sensor failure)
+ *   12-13  CRC-16/CCITT-FALSE over bytes 0-11
+ *
+ * Sequence numbers are tracked to count frames lost on the link.
+ * Not thread-safe: use one instance per port.
+ */
+public final class BinaryReadingDecoder {
+
+    public static final int VERSION = 1;
+    public static final int FRAME_LENGTH = 14;
+    public static final int FLAG_SENSOR_FAILURE = 0x01;
+
+    private double temperatureCelsius;
+    private int totalPeopleCount;
+    private int sequence;
+    private long deviceMillis;
+
+    private int lastSequence = -1;
+    private long missedFrames;
+    private long corruptFrames;
+
+    /**
+     * Decode one frame. Values are available through the getters until the next call.
+     */
+    public SerialReadingParser.Result decode(byte[] buffer, int offset, int length) {
+        if (length != FRAME_LENGTH || (buffer[offset] & 0xFF) != VERSION) {
+            corruptFrames++;
+            return SerialReadingParser.Result.MALFORMED;
+        }
+        int crc = Crc16.compute(buffer, offset, FRAME_LENGTH - 2);
+        if (crc != uint16(buffer, offset + 12)) {
+            corruptFrames++;
+            return SerialReadingParser.Result.MALFORMED;
+        }
+
+        sequence = uint16(buffer, offset + 1);
+        deviceMillis = (buffer[offset + 3] & 0xFFL)
+                     | (buffer[offset + 4] & 0xFFL) << 8
+                     | (buffer[offset + 5] & 0xFFL) << 16
+                     | (buffer[offset + 6] & 0xFFL) << 24;
+        trackSequence();
+
+        if ((buffer[offset + 11] & FLAG_SENSOR_FAILURE) != 0) {
+            return SerialReadingParser.Result.SENSOR_ERROR;
+        }
+        temperatureCelsius = (short) uint16(buffer, offset + 7) / 100.0;
+        totalPeopleCount = uint16(buffer, offset + 9);
+        return SerialReadingParser.Result.READING;
+    }
+
+    public double getTemperatureCelsius() {
+        return temperatureCelsius;
+    }
+
+    public int getTotalPeopleCount() {
+        return totalPeopleCount;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public long getDeviceMillis() {
+        return deviceMillis;
+    }
+
+    /**
+     * Frames missing according to gaps in the sequence numbers
+     */
+    public long getMissedFrames() {
+        return missedFrames;
+    }
+
+    /**
+     * Frames rejected for a bad length, version or checksum
+     */
+    public long getCorruptFrames() {
+        return corruptFrames;
+    }
+
+    /**
+     * Forget the last sequence number (e.g. after reconnecting)
+     */
+    public void reset() {
+        lastSequence = -1;
+    }
+
+    private void trackSequence() {
+        if (lastSequence >= 0 && sequence != 0) {
+            int gap = (sequence - lastSequence - 1) & 0xFFFF;
+            // A huge gap means the device restarted or frames were reordered, not lost
+            if (gap > 0 && gap < 0x8000) {
+                missedFrames += gap;
+            }
+        }
+        lastSequence = sequence;
+    }
+
+    private static int uint16(byte[] buffer, int index) {
+        return (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8;
+    }
+}
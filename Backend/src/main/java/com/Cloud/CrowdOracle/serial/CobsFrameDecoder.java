@@ -0,0 +1,95 @@
+package com.Cloud.CrowdOracle.serial;
+
+/**
+ * Splits a serial byte stream into 0x00-delimited COBS frames and decodes them in place.
+ * Like SerialLineFramer it works on one reusable buffer: each decoded frame is handed
+ * to the handler as a slice that is only valid during the callback.
+ */
+public final class CobsFrameDecoder {
+
+    /**
+     * Receives decoded, non-empty frames
+     */
+    @FunctionalInterface
+    public interface FrameHandler {
+        void onFrame(byte[] buffer, int offset, int length);
+    }
+
+    private final byte[] frame;
+    private int length;
+    private boolean overflow;
+    private long droppedFrames;
+
+    public CobsFrameDecoder(int maxFrameLength) {
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("maxFrameLength must be positive");
+        }
+        this.frame = new byte[maxFrameLength];
+    }
+
+    /**
+     * Feed received bytes, calling the handler once per completed frame
+     */
+    public void accept(byte[] data, int offset, int count, FrameHandler handler) {
+        int end = offset + count;
+        for (int i = offset; i < end; i++) {
+            byte b = data[i];
+            if (b == 0) {
+                if (overflow) {
+                    droppedFrames++;
+                } else if (length > 0) {
+                    int decoded = decode(frame, length);
+                    if (decoded < 0) {
+                        droppedFrames++;
+                    } else if (decoded > 0) {
+                        handler.onFrame(frame, 0, decoded);
+                    }
+                }
+                length = 0;
+                overflow = false;
+            } else if (!overflow) {
+                if (length == frame.length) {
+                    overflow = true;
+                } else {
+                    frame[length++] = b;
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of frames discarded for being too long or not valid COBS
+     */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Forget any partially received frame (e.g. after reconnecting)
+     */
+    public void reset() {
+        length = 0;
+        overflow = false;
+    }
+
+    /**
+     * Decode COBS in place. Returns the decoded length, or -1 if the encoding is invalid.
+     */
+    static int decode(byte[] buffer, int encodedLength) {
+        int read = 0;
+        int write = 0;
+        while (read < encodedLength) {
+            int code = buffer[read++] & 0xFF;
+            if (code == 0 || read + code - 1 > encodedLength) {
+                return -1;
+            }
+            for (int i = 1; i < code; i++) {
+                buffer[write++] = buffer[read++];
+            }
+            if (code != 0xFF && read < encodedLength) {
+                buffer[write++] = 0;
+            }
+        }
+        return write;
+    }
+}
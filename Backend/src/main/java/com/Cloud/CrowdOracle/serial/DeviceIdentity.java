@@ -0,0 +1,63 @@
+package com.Cloud.CrowdOracle.serial;
+
+import com.fazecast.jSerialComm.SerialPort;
+
+import java.util.Locale;
+
+/**
+ * USB identity of a serial device, used to find it again when the OS gives it another
+ * port name after it is re-plugged. Unknown parts are -1 (ids) or null (serial number),
+ * as for ports that are not USB.
+ *
+ * Configured as usb:VID:PID or usb:VID:PID:SERIAL with hexadecimal ids, e.g. usb:2341:0043.
+ */
+public record DeviceIdentity(int vendorId, int productId, String serialNumber) {
+
+    private static final String PREFIX = "usb:";
+
+    public static DeviceIdentity of(SerialPort port) {
+        String serialNumber = port.getSerialNumber();
+        if (serialNumber == null || serialNumber.isBlank() || serialNumber.equalsIgnoreCase("Unknown")) {
+            serialNumber = null;
+        }
+        return new DeviceIdentity(port.getVendorID(), port.getProductID(), serialNumber);
+    }
+
+    /**
+     * Parse a usb:VID:PID[:SERIAL] port entry, or return null for a port name or glob
+     */
+    public static DeviceIdentity parse(String entry) {
+        if (!entry.toLowerCase(Locale.ROOT).startsWith(PREFIX)) {
+            return null;
+        }
+        String[] parts = entry.substring(PREFIX.length()).split(":", 3);
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Expected usb:VID:PID[:SERIAL] but got " + entry);
+        }
+        return new DeviceIdentity(Integer.parseInt(parts[0], 16), Integer.parseInt(parts[1], 16),
+                                  parts.length > 2 && !parts[2].isEmpty() ? parts[2] : null);
+    }
+
+    /**
+     * Whether there is enough to recognise the device on another port
+     */
+    public boolean isKnown() {
+        return vendorId >= 0 && productId >= 0;
+    }
+
+    /**
+     * Same device: same vendor and product, and the same serial number when this identity has one
+     */
+    public boolean matches(DeviceIdentity other) {
+        if (!isKnown() || vendorId != other.vendorId || productId != other.productId) {
+            return false;
+        }
+        return serialNumber == null || serialNumber.equals(other.serialNumber);
+    }
+
+    @Override
+    public String toString() {
+        String ids = String.format("%s%04x:%04x", PREFIX, vendorId, productId);
+        return serialNumber != null ? ids + ":" + serialNumber : ids;
+    }
+}
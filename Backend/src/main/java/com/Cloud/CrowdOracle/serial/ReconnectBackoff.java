@@ -0,0 +1,41 @@
+package com.Cloud.CrowdOracle.serial;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter for reopening a port: the n-th delay is drawn from
+ * [d/2, d] with d = initial * 2^n capped at max, so several ports that fail together
+ * do not keep retrying in lockstep.
+ */
+public final class ReconnectBackoff {
+
+    private final long initialMs;
+    private final long maxMs;
+    private int attempts;
+
+    public ReconnectBackoff(long initialMs, long maxMs) {
+        this.initialMs = Math.max(1, initialMs);
+        this.maxMs = Math.max(this.initialMs, maxMs);
+    }
+
+    /**
+     * Delay before the next attempt; each call counts as one failed attempt
+     */
+    public long nextDelayMs() {
+        long delay = initialMs << Math.min(attempts, 30);
+        if (delay <= 0 || delay > maxMs) {
+            delay = maxMs;
+        }
+        attempts++;
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    public void reset() {
+        attempts = 0;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,88 @@
+package com.Cloud.CrowdOracle.serial;
+
+/**
+ * Splits a serial byte stream into newline-terminated lines without allocating.
+ * Bytes are copied into one reusable buffer; each complete line is handed to the
+ * handler as a slice of that buffer, which is only valid during the callback.
+ * Lines longer than maxLineLength are discarded up to the next newline.
+ */
+public final class SerialLineFramer {
+
+    /**
+     * Receives complete lines, trimmed of surrounding whitespace and never empty
+     */
+    @FunctionalInterface
+    public interface LineHandler {
+        void onLine(byte[] buffer, int offset, int length);
+    }
+
+    private final byte[] line;
+    private int length;
+    private boolean overflow;
+    private long droppedLines;
+
+    public SerialLineFramer(int maxLineLength) {
+        if (maxLineLength <= 0) {
+            throw new IllegalArgumentException("maxLineLength must be positive");
+        }
+        this.line = new byte[maxLineLength];
+    }
+
+    /**
+     * Feed received bytes, calling the handler once per completed line
+     */
+    public void accept(byte[] data, int offset, int count, LineHandler handler) {
+        int end = offset + count;
+        for (int i = offset; i < end; i++) {
+            byte b = data[i];
+            if (b == '\n') {
+                if (overflow) {
+                    droppedLines++;
+                } else {
+                    emit(handler);
+                }
+                length = 0;
+                overflow = false;
+            } else if (!overflow) {
+                if (length == line.length) {
+                    overflow = true;
+                } else {
+                    line[length++] = b;
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of lines discarded for exceeding the maximum length
+     */
+    public long getDroppedLines() {
+        return droppedLines;
+    }
+
+    /**
+     * Forget any partially received line (e.g. after reconnecting)
+     */
+    public void reset() {
+        length = 0;
+        overflow = false;
+    }
+
+    private void emit(LineHandler handler) {
+        int start = 0;
+        int stop = length;
+        while (start < stop && isWhitespace(line[start])) {
+            start++;
+        }
+        while (stop > start && isWhitespace(line[stop - 1])) {
+            stop--;
+        }
+        if (stop > start) {
+            handler.onLine(line, start, stop - start);
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\r' || b == '\t';
+    }
+}
@@ -0,0 +1,273 @@
+package com.Cloud.CrowdOracle.serial;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Specialised parser for the flat JSON objects sent by the Arduino sketch, e.g.
+ * {"temperatureCelsius":25.50,"totalPeopleCount":0} or {"error":"sensor_failure"}.
+ * Values are read straight from the line bytes into primitives; nothing is allocated
+ * on the common path. Unknown keys are skipped. Not thread-safe: use one instance
+ * per reading thread and read the getters right after parse().
+ */
+public final class SerialReadingParser {
+
+    public enum Result { READING, SENSOR_ERROR, MALFORMED }
+
+    private static final byte[] TEMPERATURE_KEY = "temperatureCelsius".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PEOPLE_COUNT_KEY = "totalPeopleCount".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ERROR_KEY = "error".getBytes(StandardCharsets.US_ASCII);
+
+    // Exactly representable powers of ten, so mantissa / POW10[scale] is correctly rounded
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private byte[] buf;
+    private int pos;
+    private int end;
+    private double number;
+
+    private double temperatureCelsius;
+    private int totalPeopleCount;
+    private byte[] errorBuffer;
+    private int errorOffset;
+    private int errorLength;
+
+    /**
+     * Parse one line. Values are available through the getters until the next call.
+     */
+    public Result parse(byte[] buffer, int offset, int length) {
+        buf = buffer;
+        pos = offset;
+        end = offset + length;
+
+        boolean hasTemperature = false;
+        boolean hasPeopleCount = false;
+        boolean hasError = false;
+
+        skipWhitespace();
+        if (!consume('{')) {
+            return Result.MALFORMED;
+        }
+        skipWhitespace();
+        if (!consume('}')) {
+            while (true) {
+                skipWhitespace();
+                if (!consume('"')) {
+                    return Result.MALFORMED;
+                }
+                int keyStart = pos;
+                if (!skipStringBody()) {
+                    return Result.MALFORMED;
+                }
+                int keyLength = pos - 1 - keyStart;
+
+                skipWhitespace();
+                if (!consume(':')) {
+                    return Result.MALFORMED;
+                }
+                skipWhitespace();
+
+                if (keyEquals(keyStart, keyLength, TEMPERATURE_KEY)) {
+                    if (!parseNumber()) {
+                        return Result.MALFORMED;
+                    }
+                    temperatureCelsius = number;
+                    hasTemperature = true;
+                } else if (keyEquals(keyStart, keyLength, PEOPLE_COUNT_KEY)) {
+                    if (!parseNumber() || number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+                        return Result.MALFORMED;
+                    }
+                    totalPeopleCount = (int) number;
+                    hasPeopleCount = true;
+                } else if (keyEquals(keyStart, keyLength, ERROR_KEY)) {
+                    hasError = true;
+                    errorBuffer = buf;
+                    errorOffset = pos + 1;
+                    if (consume('"')) {
+                        if (!skipStringBody()) {
+                            return Result.MALFORMED;
+                        }
+                        errorLength = pos - 1 - errorOffset;
+                    } else {
+                        errorOffset = pos;
+                        if (!skipValue()) {
+                            return Result.MALFORMED;
+                        }
+                        errorLength = pos - errorOffset;
+                    }
+                } else if (!skipValue()) {
+                    return Result.MALFORMED;
+                }
+
+                skipWhitespace();
+                if (consume(',')) {
+                    continue;
+                }
+                if (consume('}')) {
+                    break;
+                }
+                return Result.MALFORMED;
+            }
+        }
+
+        skipWhitespace();
+        if (pos != end) {
+            return Result.MALFORMED;
+        }
+        if (hasError) {
+            return Result.SENSOR_ERROR;
+        }
+        return hasTemperature && hasPeopleCount ? Result.READING : Result.MALFORMED;
+    }
+
+    public double getTemperatureCelsius() {
+        return temperatureCelsius;
+    }
+
+    public int getTotalPeopleCount() {
+        return totalPeopleCount;
+    }
+
+    /**
+     * Error text of the last SENSOR_ERROR line (allocates, intended for logging)
+     */
+    public String getErrorMessage() {
+        return new String(errorBuffer, errorOffset, errorLength, StandardCharsets.UTF_8);
+    }
+
+    private boolean parseNumber() {
+        int start = pos;
+        boolean negative = consume('-');
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean exact = true;
+
+        while (pos < end && isDigit(buf[pos])) {
+            mantissa = mantissa * 10 + (buf[pos++] - '0');
+            digits++;
+            exact &= mantissa < MAX_EXACT_MANTISSA;
+        }
+        if (consume('.')) {
+            while (pos < end && isDigit(buf[pos])) {
+                mantissa = mantissa * 10 + (buf[pos++] - '0');
+                digits++;
+                scale++;
+                exact &= mantissa < MAX_EXACT_MANTISSA;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (pos < end && (buf[pos] == 'e' || buf[pos] == 'E')) {
+            exact = false;
+            pos++;
+            if (pos < end && (buf[pos] == '+' || buf[pos] == '-')) {
+                pos++;
+            }
+            int exponentStart = pos;
+            while (pos < end && isDigit(buf[pos])) {
+                pos++;
+            }
+            if (pos == exponentStart) {
+                return false;
+            }
+        }
+
+        if (exact && scale < POW10.length) {
+            double value = mantissa / POW10[scale];
+            number = negative ? -value : value;
+        } else {
+            // Rare: too many digits or an exponent, let the JDK do the rounding
+            number = Double.parseDouble(new String(buf, start, pos - start, StandardCharsets.US_ASCII));
+        }
+        return true;
+    }
+
+    /**
+     * Skip a string whose opening quote was consumed; leaves pos after the closing quote
+     */
+    private boolean skipStringBody() {
+        while (pos < end) {
+            byte b = buf[pos++];
+            if (b == '"') {
+                return true;
+            }
+            if (b == '\\') {
+                pos++;
+            }
+        }
+        return false;
+    }
+
+    private boolean skipValue() {
+        if (pos >= end) {
+            return false;
+        }
+        byte b = buf[pos];
+        if (b == '"') {
+            pos++;
+            return skipStringBody();
+        }
+        if (b == '{' || b == '[') {
+            int depth = 0;
+            while (pos < end) {
+                byte c = buf[pos++];
+                if (c == '"') {
+                    if (!skipStringBody()) {
+                        return false;
+                    }
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    if (--depth == 0) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        if (b == '-' || isDigit(b)) {
+            return parseNumber();
+        }
+        // true / false / null
+        int start = pos;
+        while (pos < end && buf[pos] >= 'a' && buf[pos] <= 'z') {
+            pos++;
+        }
+        return pos > start;
+    }
+
+    private boolean keyEquals(int offset, int length, byte[] key) {
+        if (length != key.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buf[offset + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean consume(char expected) {
+        if (pos < end && buf[pos] == expected) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < end && (buf[pos] == ' ' || buf[pos] == '\t' || buf[pos] == '\r' || buf[pos] == '\n')) {
+            pos++;
+        }
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
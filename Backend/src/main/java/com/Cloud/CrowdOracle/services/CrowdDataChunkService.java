@@ -0,0 +1,483 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.config.CompactionConfig;
+import com.Cloud.CrowdOracle.dtos.CrowdDataRangeStats;
+import com.Cloud.CrowdOracle.dtos.CrowdDataView;
+import com.Cloud.CrowdOracle.dtos.PageCursor;
+import com.Cloud.CrowdOracle.dtos.RollupBucket;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.repository.CrowdDataChunkRepository;
+import com.Cloud.CrowdOracle.repository.CrowdDataChunkRepository.Chunk;
+import com.Cloud.CrowdOracle.repository.RollupGranularity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static com.Cloud.CrowdOracle.repository.CrowdDataChunkRepository.CHUNK_WIDTH;
+import static com.Cloud.CrowdOracle.repository.CrowdDataChunkRepository.OLDEST_FIRST;
+
+/**
+ * Cold tier: readings older than compaction.age-days move out of crowd_data into crowd_data_chunk,
+ * one compressed block per source and hour (ChunkCodec) with count, sum, min and max in plain columns.
+ * Each hour is moved in one transaction that deletes exactly the rows it encodes. Reads whose window
+ * reaches below compactedUntil merge the decoded chunks with the hot rows; aggregates over whole
+ * chunks come from the plain columns without decoding. Such reads run at one repeatable-read
+ * snapshot (inSnapshot), so an hour being compacted is seen either as hot rows or as chunks.
+ */
+@Service
+public class CrowdDataChunkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrowdDataChunkService.class);
+
+    // Hours of chunks decoded per step when walking newest first
+    private static final int WALK_HOURS = 24;
+
+    private static final DateTimeFormatter CSV_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final CompactionConfig compactionConfig;
+    private final CrowdDataChunkRepository chunkRepository;
+    private final CrowdDataVersion crowdDataVersion;
+    private final Counter compactedReadings;
+    private final TransactionTemplate snapshotTransaction;
+
+    // Every compacted reading is before this; null when nothing has been compacted
+    private volatile LocalDateTime compactedUntil;
+
+    @Autowired
+    public CrowdDataChunkService(CompactionConfig compactionConfig,
+                                 CrowdDataChunkRepository chunkRepository,
+                                 CrowdDataVersion crowdDataVersion,
+                                 MeterRegistry meterRegistry,
+                                 PlatformTransactionManager transactionManager) {
+        this.compactionConfig = compactionConfig;
+        this.chunkRepository = chunkRepository;
+        this.crowdDataVersion = crowdDataVersion;
+        this.compactedReadings = Counter.builder("crowd.data.compacted")
+            .description("Readings moved from crowd_data into compressed chunks")
+            .register(meterRegistry);
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void initialize() {
+        try {
+            compactedUntil = chunkRepository.findCompactedUntil();
+        } catch (Exception e) {
+            logger.warn("Could not read compacted chunk range - Error: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${compaction.cron:0 */10 * * * *}")
+    public void compactAged() {
+        if (!compactionConfig.isEnabled()) {
+            return;
+        }
+
+        try {
+            compact();
+        } catch (Exception e) {
+            logger.error("Compaction failed - Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Compact whole hours older than the configured age, oldest first, up to max-hours-per-run.
+     * Returns the number of readings moved.
+     */
+    public synchronized long compact() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(compactionConfig.getAgeDays()).truncatedTo(ChronoUnit.HOURS);
+        long moved = 0;
+        int hours = 0;
+        LocalDateTime hour;
+        while (hours < compactionConfig.getMaxHoursPerRun()
+               && (hour = chunkRepository.findOldestHotHourBefore(cutoff)) != null) {
+            // Widen the chunk range before the rows leave crowd_data, so readers never skip them
+            LocalDateTime hourEnd = hour.plus(CHUNK_WIDTH);
+            LocalDateTime until = compactedUntil;
+            if (until == null || hourEnd.isAfter(until)) {
+                compactedUntil = hourEnd;
+            }
+            moved += chunkRepository.compactHour(hour);
+            hours++;
+        }
+
+        if (hours > 0) {
+            compactedReadings.increment(moved);
+            // Moved readings are now read back from chunks; rebuild cached responses from the new layout
+            crowdDataVersion.bump();
+            logger.info("Compacted {} readings from {} hours before {}", moved, hours, cutoff);
+        }
+        return moved;
+    }
+
+    /**
+     * Run a read that merges hot rows with chunks at one repeatable-read snapshot, joining the
+     * caller's transaction when there is one
+     */
+    public <T> T inSnapshot(Supplier<T> read) {
+        return snapshotTransaction.execute(status -> {
+            // PostgreSQL fixes the snapshot at the first statement. compactedUntil is widened before an
+            // hour's move commits, so once read after this it covers every hour the snapshot lacks.
+            chunkRepository.findCompactedUntil();
+            return read.get();
+        });
+    }
+
+    /**
+     * Whether compacted readings may exist at or after startTime (at all when null). Inside a
+     * repeatable-read transaction, call it only after the transaction's first statement.
+     */
+    public boolean reaches(LocalDateTime startTime) {
+        LocalDateTime until = compactedUntil;
+        return until != null && (startTime == null || startTime.isBefore(until));
+    }
+
+    public LocalDateTime getCompactedUntil() {
+        return compactedUntil;
+    }
+
+    /**
+     * Compacted reading by id
+     */
+    public Optional<CrowdDataView> findById(long id) {
+        return reaches(null) ? chunkRepository.findReading(id) : Optional.empty();
+    }
+
+    /**
+     * Remove one compacted reading from its chunk; empty when no chunk holds it
+     */
+    public Optional<CrowdDataView> delete(long id) {
+        return reaches(null) ? chunkRepository.deleteReading(id) : Optional.empty();
+    }
+
+    /**
+     * Compacted readings with entry time in [startTime, endTime] (null bounds open), oldest first
+     */
+    public List<CrowdDataView> findViews(LocalDateTime startTime, LocalDateTime endTime) {
+        if (!reaches(startTime)) {
+            return List.of();
+        }
+        List<CrowdDataView> rows = select(chunkRepository.findChunks(startTime, endTime),
+            row -> (startTime == null || !row.entryTime().isBefore(startTime))
+                && (endTime == null || !row.entryTime().isAfter(endTime)));
+        rows.sort(OLDEST_FIRST);
+        return rows;
+    }
+
+    /**
+     * Compacted readings matching the filter, decoding only chunks whose temperature span meets [min, max]
+     */
+    public List<CrowdDataView> findViewsByTemperature(Double min, Double max, Predicate<CrowdDataView> filter) {
+        return reaches(null) ? select(chunkRepository.findChunksByTemperature(min, max), filter) : List.of();
+    }
+
+    /**
+     * Compacted readings matching the filter, decoding only chunks whose people count span meets [min, max]
+     */
+    public List<CrowdDataView> findViewsByPeopleCount(Integer min, Integer max, Predicate<CrowdDataView> filter) {
+        return reaches(null) ? select(chunkRepository.findChunksByPeopleCount(min, max), filter) : List.of();
+    }
+
+    /**
+     * Compacted readings matching the filter, newest first, strictly before the cursor when given.
+     * Chunks are decoded a day at a time as the iteration goes.
+     */
+    public Iterator<CrowdDataView> newestFirst(PageCursor before, Predicate<CrowdDataView> filter) {
+        return reaches(null) ? new NewestFirst(before, filter) : Collections.emptyIterator();
+    }
+
+    public List<CrowdDataView> findNewest(PageCursor before, int count, Predicate<CrowdDataView> filter) {
+        List<CrowdDataView> rows = new ArrayList<>();
+        Iterator<CrowdDataView> iterator = newestFirst(before, filter);
+        while (rows.size() < count && iterator.hasNext()) {
+            rows.add(iterator.next());
+        }
+        return rows;
+    }
+
+    /**
+     * Hot and compacted readings with entry time in [startTime, endTime) (null bounds open), oldest first
+     */
+    public List<CrowdDataView> findAllViews(LocalDateTime startTime, LocalDateTime endTime) {
+        List<CrowdDataView> rows = new ArrayList<>();
+        chunkRepository.forEachHotRow(startTime, endTime, rows::add);
+        if (reaches(startTime)) {
+            for (Chunk chunk : chunkRepository.findChunks(startTime, endTime)) {
+                for (CrowdDataView row : chunk.decode()) {
+                    if (isWithin(row, startTime, endTime)) {
+                        rows.add(row);
+                    }
+                }
+            }
+            rows.sort(OLDEST_FIRST);
+        }
+        return rows;
+    }
+
+    /**
+     * Same figures as CrowdDataStatsRepository for [startTime, endTime), over hot and compacted readings.
+     * Chunks lying wholly inside the window contribute their stored value counts, so only the chunks
+     * at its edges are decoded.
+     */
+    public CrowdDataRangeStats rangeStatistics(LocalDateTime startTime, LocalDateTime endTime) {
+        List<CrowdDataView> edges = select(chunkRepository.findPartialChunks(startTime, endTime),
+                                           row -> isWithin(row, startTime, endTime));
+        return chunkRepository.getRangeStatistics(startTime, endTime, edges);
+    }
+
+    /**
+     * Count, sums, min and max of compacted readings with entry time in [startTime, endTime];
+     * whole chunks are read from the plain columns, only the boundary chunks are decoded
+     */
+    public RollupBucket getTotals(LocalDateTime startTime, LocalDateTime endTime) {
+        RollupBucket totals = new RollupBucket(null, 0, 0, 0, 0, 0, 0, 0);
+        if (!reaches(startTime)) {
+            return totals;
+        }
+
+        totals = combine(totals, chunkRepository.getTotals(startTime, endTime));
+        for (Chunk chunk : chunkRepository.findChunks(startTime, endTime)) {
+            if (!chunk.chunkStart().isBefore(startTime) && !chunk.chunkEnd().isAfter(endTime)) {
+                continue;
+            }
+            for (CrowdDataView row : chunk.decode()) {
+                if (!row.entryTime().isBefore(startTime) && !row.entryTime().isAfter(endTime)) {
+                    totals = combine(totals, RollupBucket.of(row, null));
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Rollup buckets of the given granularity for compacted readings in [startTime, endTime).
+     * Hour and day buckets take whole chunks from the plain columns.
+     */
+    public List<RollupBucket> rollup(RollupGranularity granularity, LocalDateTime startTime, LocalDateTime endTime) {
+        if (!reaches(startTime)) {
+            return List.of();
+        }
+
+        boolean wholeChunks = granularity.getDuration().compareTo(CHUNK_WIDTH) >= 0;
+        Map<LocalDateTime, RollupBucket> buckets = new TreeMap<>();
+        for (Chunk chunk : chunkRepository.findChunks(startTime, endTime)) {
+            if (wholeChunks && !chunk.chunkStart().isBefore(startTime) && !chunk.chunkEnd().isAfter(endTime)) {
+                LocalDateTime bucketStart = granularity.truncate(chunk.chunkStart());
+                buckets.merge(bucketStart, chunk.totals().withBucketStart(bucketStart), RollupBucket::merge);
+                continue;
+            }
+            for (CrowdDataView row : chunk.decode()) {
+                if (isWithin(row, startTime, endTime)) {
+                    LocalDateTime bucketStart = granularity.truncate(row.entryTime());
+                    buckets.merge(bucketStart, RollupBucket.of(row, bucketStart), RollupBucket::merge);
+                }
+            }
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    /**
+     * Newest compacted reading of one source
+     */
+    public Optional<CrowdDataView> findLatest(String sourceId) {
+        if (!reaches(null)) {
+            return Optional.empty();
+        }
+        return chunkRepository.findLatestChunk(sourceId)
+            .map(chunk -> {
+                List<CrowdDataView> rows = chunk.decode();
+                return rows.get(rows.size() - 1);
+            });
+    }
+
+    /**
+     * Write hot and compacted readings with entry time in [startTime, endTime) as CSV with a header row,
+     * oldest first and in the same format as the COPY export, a day at a time. Returns the number of rows.
+     */
+    public long exportCsv(LocalDateTime startTime, LocalDateTime endTime, OutputStream out) {
+        try {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writer.write("id,temperature_celsius,total_people_count,entry_time,source_id\n");
+            long rows = 0;
+            LocalDateTime from = startTime != null ? startTime : chunkRepository.findEarliestEntryTime();
+            while (from != null && from.isBefore(endTime)) {
+                LocalDateTime to = from.plusDays(1).isBefore(endTime) ? from.plusDays(1) : endTime;
+                for (CrowdDataView row : findAllViews(from, to)) {
+                    writer.write(row.id() + "," +
+                                 BigDecimal.valueOf(row.temperatureCelsius()).setScale(2, RoundingMode.HALF_UP).toPlainString() +
+                                 "," + row.totalPeopleCount() + "," + csvTime(row.entryTime()) + "," +
+                                 csvText(row.sourceId()) + "\n");
+                    rows++;
+                }
+                from = to;
+            }
+            writer.flush();
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Drop chunks whose hour ends at or before the cutoff (retention)
+     */
+    public int deleteBefore(LocalDateTime cutoff) {
+        return chunkRepository.deleteChunksBefore(cutoff);
+    }
+
+    public void deleteAll() {
+        chunkRepository.deleteAll();
+        compactedUntil = null;
+    }
+
+    /**
+     * Detached entity for a compacted reading, for the endpoints that return entities
+     */
+    public static CrowdData toEntity(CrowdDataView row) {
+        CrowdData crowdData = new CrowdData(row.id(), row.temperatureCelsius(), row.totalPeopleCount(), row.entryTime());
+        crowdData.setSourceId(row.sourceId());
+        return crowdData;
+    }
+
+    private static List<CrowdDataView> select(List<Chunk> chunks, Predicate<CrowdDataView> filter) {
+        List<CrowdDataView> rows = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            for (CrowdDataView row : chunk.decode()) {
+                if (filter.test(row)) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static boolean isWithin(CrowdDataView row, LocalDateTime startTime, LocalDateTime endTime) {
+        return (startTime == null || !row.entryTime().isBefore(startTime))
+            && (endTime == null || row.entryTime().isBefore(endTime));
+    }
+
+    private static RollupBucket combine(RollupBucket totals, RollupBucket more) {
+        if (more.sampleCount() == 0) {
+            return totals;
+        }
+        return totals.sampleCount() == 0 ? more : totals.merge(more);
+    }
+
+    // PostgreSQL's timestamp text: fractional seconds only when present, trailing zeros dropped
+    private static String csvTime(LocalDateTime time) {
+        String text = CSV_TIME_FORMAT.format(time);
+        int micros = time.getNano() / 1000;
+        if (micros == 0) {
+            return text;
+        }
+        String fraction = String.format("%06d", micros);
+        int end = fraction.length();
+        while (fraction.charAt(end - 1) == '0') {
+            end--;
+        }
+        return text + "." + fraction.substring(0, end);
+    }
+
+    // Quoted like COPY csv does: null stays empty, an empty string or special characters get quotes
+    private static String csvText(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.isEmpty() || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    /**
+     * Walks the chunks backwards one day at a time; each day is decoded, filtered and sorted newest first
+     */
+    private final class NewestFirst implements Iterator<CrowdDataView> {
+
+        private final PageCursor before;
+        private final Predicate<CrowdDataView> filter;
+        private LocalDateTime upper;
+        private boolean exhausted;
+        private Iterator<CrowdDataView> batch = Collections.emptyIterator();
+
+        NewestFirst(PageCursor before, Predicate<CrowdDataView> filter) {
+            this.before = before;
+            this.filter = filter;
+            this.upper = before != null ? before.entryTime() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!batch.hasNext() && !exhausted) {
+                loadBatch();
+            }
+            return batch.hasNext();
+        }
+
+        @Override
+        public CrowdDataView next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch.next();
+        }
+
+        private void loadBatch() {
+            // Jump straight to the newest chunk left, so gaps in the data cost nothing
+            List<Chunk> newest = chunkRepository.findChunksNewestFirst(upper, 1);
+            if (newest.isEmpty()) {
+                exhausted = true;
+                return;
+            }
+            LocalDateTime latest = newest.get(0).chunkStart();
+            LocalDateTime earliest = latest.minus(CHUNK_WIDTH.multipliedBy(WALK_HOURS - 1));
+
+            List<CrowdDataView> rows = select(chunkRepository.findChunks(earliest, latest),
+                                              row -> isBeforeCursor(row) && filter.test(row));
+            rows.sort(OLDEST_FIRST.reversed());
+            batch = rows.iterator();
+            upper = earliest.minus(CHUNK_WIDTH);
+        }
+
+        private boolean isBeforeCursor(CrowdDataView row) {
+            if (before == null) {
+                return true;
+            }
+            int byTime = row.entryTime().compareTo(before.entryTime());
+            return byTime < 0 || (byTime == 0 && row.id() < before.id());
+        }
+    }
+}
\ No newline at end of file
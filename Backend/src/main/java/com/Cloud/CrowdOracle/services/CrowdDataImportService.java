@@ -0,0 +1,464 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.customExceptions.InvalidCrowdDataException;
+import com.Cloud.CrowdOracle.dtos.CrowdDataImportResult;
+import com.Cloud.CrowdOracle.events.CrowdDataImportedEvent;
+import com.Cloud.CrowdOracle.repository.CrowdDataCopyRepository;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bulk import of historical readings from CSV or newline-delimited JSON.
+ * The request body is parsed and validated row by row and re-encoded straight into a
+ * PostgreSQL COPY, so nothing is materialized and memory stays flat regardless of size.
+ * Each row keeps its own entry time. The import runs in one transaction: an invalid row
+ * fails the whole import unless invalid rows are skipped.
+ */
+@Service
+public class CrowdDataImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrowdDataImportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    private enum Column { TEMPERATURE, PEOPLE, ENTRY_TIME, SOURCE_ID }
+
+    // Rejected lines listed in the result when invalid rows are skipped
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    // temperature_celsius is DECIMAL(5,2)
+    private static final double MIN_TEMPERATURE = -273.15;
+    private static final double MAX_TEMPERATURE = 999.99;
+    private static final int MAX_SOURCE_ID_LENGTH = 64;
+
+    // Encoded rows are handed to the COPY stream in chunks of about this many chars
+    private static final int FLUSH_THRESHOLD = 32 * 1024;
+
+    private final CrowdDataCopyRepository copyRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Counter importedRows;
+
+    @Autowired
+    public CrowdDataImportService(CrowdDataCopyRepository copyRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.copyRepository = copyRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.importedRows = Counter.builder("crowd.data.import.rows")
+            .description("Readings stored by bulk imports")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Import all rows of the given body.
+     * CSV needs a header naming temperatureCelsius, totalPeopleCount, entryTime and optionally sourceId
+     * (snake_case works too); NDJSON takes one object per line with the same fields.
+     *
+     * @throws InvalidCrowdDataException for an invalid row (unless skipInvalid) or an unreadable body
+     */
+    @Transactional
+    public CrowdDataImportResult importData(InputStream body, Format format, boolean skipInvalid) {
+        long started = System.nanoTime();
+        RowEncoder encoder = new RowEncoder(skipInvalid);
+
+        long stored = copyRepository.copyIn(out -> {
+            encoder.out = out;
+            if (format == Format.CSV) {
+                readCsv(body, encoder);
+            } else {
+                readNdjson(body, encoder);
+            }
+            encoder.flush();
+        });
+
+        if (stored > 0) {
+            eventPublisher.publishEvent(new CrowdDataImportedEvent(stored, encoder.earliest, encoder.latest));
+            importedRows.increment(stored);
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Imported {} readings ({} skipped) from {} in {} ms",
+                   stored, encoder.skipped, format, elapsedMillis);
+        return new CrowdDataImportResult(stored, encoder.skipped, encoder.errors,
+                                         encoder.earliest, encoder.latest, elapsedMillis);
+    }
+
+    private static void readCsv(InputStream body, RowEncoder encoder) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        List<String> fields = new ArrayList<>();
+
+        String line;
+        long lineNumber = 0;
+        int temperatureColumn = -1;
+        int peopleColumn = -1;
+        int entryTimeColumn = -1;
+        int sourceIdColumn = -1;
+        boolean headerRead = false;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (!splitCsvLine(line, fields)) {
+                encoder.reject(lineNumber, "unterminated quoted field");
+                continue;
+            }
+
+            if (!headerRead) {
+                if (lineNumber == 1 && !fields.isEmpty() && fields.get(0).startsWith("\uFEFF")) {
+                    fields.set(0, fields.get(0).substring(1));
+                }
+                for (int i = 0; i < fields.size(); i++) {
+                    Column column = columnOf(fields.get(i));
+                    if (column == Column.TEMPERATURE) {
+                        temperatureColumn = i;
+                    } else if (column == Column.PEOPLE) {
+                        peopleColumn = i;
+                    } else if (column == Column.ENTRY_TIME) {
+                        entryTimeColumn = i;
+                    } else if (column == Column.SOURCE_ID) {
+                        sourceIdColumn = i;
+                    }
+                }
+                if (temperatureColumn < 0 || peopleColumn < 0 || entryTimeColumn < 0) {
+                    throw new InvalidCrowdDataException(
+                        "CSV header must name temperatureCelsius, totalPeopleCount and entryTime columns");
+                }
+                headerRead = true;
+                continue;
+            }
+
+            int lastColumn = Math.max(Math.max(temperatureColumn, peopleColumn), Math.max(entryTimeColumn, sourceIdColumn));
+            if (fields.size() <= lastColumn) {
+                encoder.reject(lineNumber, "expected at least " + (lastColumn + 1) + " columns");
+                continue;
+            }
+
+            double temperature;
+            int people;
+            LocalDateTime entryTime;
+            try {
+                temperature = Double.parseDouble(fields.get(temperatureColumn).trim());
+            } catch (NumberFormatException e) {
+                encoder.reject(lineNumber, "invalid temperatureCelsius '" + fields.get(temperatureColumn) + "'");
+                continue;
+            }
+            try {
+                people = Integer.parseInt(fields.get(peopleColumn).trim());
+            } catch (NumberFormatException e) {
+                encoder.reject(lineNumber, "invalid totalPeopleCount '" + fields.get(peopleColumn) + "'");
+                continue;
+            }
+            try {
+                entryTime = parseEntryTime(fields.get(entryTimeColumn).trim());
+            } catch (DateTimeException e) {
+                encoder.reject(lineNumber, "invalid entryTime '" + fields.get(entryTimeColumn) + "'");
+                continue;
+            }
+            String sourceId = sourceIdColumn >= 0 ? fields.get(sourceIdColumn) : null;
+
+            encoder.accept(lineNumber, temperature, people, entryTime, sourceId);
+        }
+    }
+
+    /**
+     * Split one CSV line into fields (RFC 4180 quoting, no line breaks inside quotes).
+     * Returns false when a quoted field is not closed.
+     */
+    private static boolean splitCsvLine(String line, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        int length = line.length();
+        while (true) {
+            field.setLength(0);
+            if (i < length && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= length) {
+                        return false;
+                    }
+                    char c = line.charAt(i++);
+                    if (c == '"') {
+                        if (i < length && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                }
+                // Ignore anything between the closing quote and the next comma
+                while (i < length && line.charAt(i) != ',') {
+                    i++;
+                }
+            } else {
+                int comma = line.indexOf(',', i);
+                int fieldEnd = comma < 0 ? length : comma;
+                field.append(line, i, fieldEnd);
+                i = fieldEnd;
+            }
+            fields.add(field.toString());
+            if (i >= length) {
+                return true;
+            }
+            i++; // skip the comma
+        }
+    }
+
+    private void readNdjson(InputStream body, RowEncoder encoder) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                long lineNumber = parser.currentLocation().getLineNr();
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    encoder.reject(lineNumber, "expected a JSON object");
+                    continue;
+                }
+
+                Double temperature = null;
+                Integer people = null;
+                LocalDateTime entryTime = null;
+                String sourceId = null;
+                String error = null;
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    Column column = columnOf(parser.currentName());
+                    JsonToken value = parser.nextToken();
+                    if (value.isStructStart()) {
+                        parser.skipChildren();
+                        if (column != null) {
+                            error = parser.currentName() + " must be a plain value";
+                        }
+                        continue;
+                    }
+                    if (column == null || value == JsonToken.VALUE_NULL) {
+                        continue;
+                    }
+                    switch (column) {
+                        case TEMPERATURE -> {
+                            if (value.isNumeric()) {
+                                temperature = parser.getDoubleValue();
+                            } else {
+                                error = "temperatureCelsius must be a number";
+                            }
+                        }
+                        case PEOPLE -> {
+                            if (value == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == JsonParser.NumberType.INT) {
+                                people = parser.getIntValue();
+                            } else {
+                                error = "totalPeopleCount must be an integer";
+                            }
+                        }
+                        case ENTRY_TIME -> {
+                            if (value != JsonToken.VALUE_STRING) {
+                                error = "entryTime must be an ISO-8601 string";
+                            } else {
+                                try {
+                                    entryTime = parseEntryTime(parser.getText());
+                                } catch (DateTimeException e) {
+                                    error = "invalid entryTime '" + parser.getText() + "'";
+                                }
+                            }
+                        }
+                        case SOURCE_ID -> {
+                            if (value == JsonToken.VALUE_STRING) {
+                                sourceId = parser.getText();
+                            } else {
+                                error = "sourceId must be a string";
+                            }
+                        }
+                    }
+                }
+
+                if (error != null) {
+                    encoder.reject(lineNumber, error);
+                } else if (temperature == null || people == null || entryTime == null) {
+                    encoder.reject(lineNumber, "temperatureCelsius, totalPeopleCount and entryTime are required");
+                } else {
+                    encoder.accept(lineNumber, temperature, people, entryTime, sourceId);
+                }
+            }
+        } catch (JsonParseException e) {
+            // The stream cannot be resynchronized after broken JSON, so this always ends the import
+            throw new InvalidCrowdDataException("Line " + e.getLocation().getLineNr() + ": malformed JSON - " +
+                                                e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Map a CSV header or JSON field name (camelCase or snake_case) to a column, null if unknown
+     */
+    private static Column columnOf(String name) {
+        return switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "temperaturecelsius", "temperature_celsius" -> Column.TEMPERATURE;
+            case "totalpeoplecount", "total_people_count" -> Column.PEOPLE;
+            case "entrytime", "entry_time" -> Column.ENTRY_TIME;
+            case "sourceid", "source_id" -> Column.SOURCE_ID;
+            default -> null;
+        };
+    }
+
+    /**
+     * Parse an ISO-8601 local timestamp ("2024-05-01T12:30:00", optional fraction, 'T' or space).
+     * Timestamps with an offset or 'Z' are converted to the server's time zone, like LocalDateTime.now().
+     */
+    static LocalDateTime parseEntryTime(String text) {
+        int length = text.length();
+        if (length >= 19 && text.charAt(4) == '-' && text.charAt(7) == '-'
+                && (text.charAt(10) == 'T' || text.charAt(10) == ' ')
+                && text.charAt(13) == ':' && text.charAt(16) == ':') {
+            int nanos = 0;
+            int end = 19;
+            if (length > 19 && text.charAt(19) == '.') {
+                int digits = 0;
+                end = 20;
+                while (end < length && Character.isDigit(text.charAt(end))) {
+                    if (digits < 9) {
+                        nanos = nanos * 10 + (text.charAt(end) - '0');
+                        digits++;
+                    }
+                    end++;
+                }
+                if (digits == 0) {
+                    throw new DateTimeException("Missing fraction digits: " + text);
+                }
+                for (; digits < 9; digits++) {
+                    nanos *= 10;
+                }
+            }
+            if (end == length) {
+                // Fast path: plain local timestamps, which is what exports from this system look like
+                return LocalDateTime.of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10),
+                                        digits(text, 11, 13), digits(text, 14, 16), digits(text, 17, 19), nanos);
+            }
+        }
+        try {
+            return LocalDateTime.parse(text.replace(' ', 'T'));
+        } catch (DateTimeException e) {
+            return OffsetDateTime.parse(text.replace(' ', 'T'))
+                .atZoneSameInstant(ZoneId.systemDefault())
+                .toLocalDateTime();
+        }
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new DateTimeException("Invalid timestamp: " + text);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Validates rows and writes them as COPY CSV, tracking what the result needs
+     */
+    private static final class RowEncoder {
+
+        private final boolean skipInvalid;
+        private final StringBuilder chunk = new StringBuilder(FLUSH_THRESHOLD + 256);
+        private final List<String> errors = new ArrayList<>();
+
+        private OutputStream out;
+        private long skipped;
+        private LocalDateTime earliest;
+        private LocalDateTime latest;
+
+        RowEncoder(boolean skipInvalid) {
+            this.skipInvalid = skipInvalid;
+        }
+
+        void accept(long lineNumber, double temperature, int people, LocalDateTime entryTime, String sourceId)
+                throws IOException {
+            if (!Double.isFinite(temperature) || temperature < MIN_TEMPERATURE || temperature > MAX_TEMPERATURE) {
+                reject(lineNumber, "temperatureCelsius " + temperature + " is outside [" +
+                                   MIN_TEMPERATURE + ", " + MAX_TEMPERATURE + "]");
+                return;
+            }
+            if (people < 0) {
+                reject(lineNumber, "totalPeopleCount cannot be negative");
+                return;
+            }
+            // No source, whichever format it came in: an empty CSV field or "" / blank in NDJSON
+            if (sourceId != null && sourceId.isBlank()) {
+                sourceId = null;
+            }
+            if (sourceId != null && sourceId.length() > MAX_SOURCE_ID_LENGTH) {
+                reject(lineNumber, "sourceId cannot be longer than " + MAX_SOURCE_ID_LENGTH + " characters");
+                return;
+            }
+
+            chunk.append(temperature).append(',')
+                 .append(people).append(',')
+                 .append(entryTime).append(',');
+            if (sourceId != null) {
+                // Quoted so the id is taken literally
+                chunk.append('"').append(sourceId.replace("\"", "\"\"")).append('"');
+            }
+            chunk.append('\n');
+            if (chunk.length() >= FLUSH_THRESHOLD) {
+                flush();
+            }
+
+            if (earliest == null || entryTime.isBefore(earliest)) {
+                earliest = entryTime;
+            }
+            if (latest == null || entryTime.isAfter(latest)) {
+                latest = entryTime;
+            }
+        }
+
+        void reject(long lineNumber, String reason) {
+            String message = "Line " + lineNumber + ": " + reason;
+            if (!skipInvalid) {
+                throw new InvalidCrowdDataException(message);
+            }
+            skipped++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        void flush() throws IOException {
+            if (!chunk.isEmpty()) {
+                out.write(chunk.toString().getBytes(StandardCharsets.UTF_8));
+                chunk.setLength(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.config.WriteBehindConfig;
+import com.Cloud.CrowdOracle.customExceptions.IngestQueueFullException;
+import com.Cloud.CrowdOracle.dtos.CrowdDataDTO;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.events.CrowdDataSavedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Entry point for incoming sensor readings (serial listener and REST endpoints).
+ * In write-behind mode readings are queued and persisted in multi-row batches by a
+ * single flusher thread; otherwise each reading is saved synchronously.
+ */
+@Service
+public class CrowdDataIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrowdDataIngestService.class);
+
+    private final WriteBehindConfig writeBehindConfig;
+    private final CrowdDataService crowdDataService;
+    private final MeterRegistry meterRegistry;
+    private final Timer singleSaveTimer;
+    private final Timer batchSaveTimer;
+    private final Timer commitLag;
+
+    private BlockingQueue<PendingReading> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @Autowired
+    public CrowdDataIngestService(WriteBehindConfig writeBehindConfig,
+                                  CrowdDataService crowdDataService,
+                                  MeterRegistry meterRegistry) {
+        this.writeBehindConfig = writeBehindConfig;
+        this.crowdDataService = crowdDataService;
+
+        // Includes the commit, since CrowdDataService is called through its transactional proxy
+        this.singleSaveTimer = Timer.builder("crowd.data.save")
+            .description("Time to persist and commit readings")
+            .tag("mode", "single")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.batchSaveTimer = Timer.builder("crowd.data.save")
+            .description("Time to persist and commit readings")
+            .tag("mode", "batch")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.commitLag = Timer.builder("crowd.data.commit.lag")
+            .description("Time from a reading's arrival to the commit of its row")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("crowd.data.ingest.queued", this, CrowdDataIngestService::getQueuedCount)
+            .description("Readings waiting in the write-behind queue")
+            .register(meterRegistry);
+
+        if (!writeBehindConfig.isEnabled()) {
+            logger.info("Write-behind ingest disabled, readings are saved synchronously");
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(writeBehindConfig.getQueueCapacity());
+        running = true;
+        flusher = new Thread(this::runFlusher, "crowd-data-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        logger.info("Write-behind ingest enabled - queue capacity: {}, batch size: {}, flush interval: {}ms",
+                   writeBehindConfig.getQueueCapacity(), writeBehindConfig.getBatchSize(),
+                   writeBehindConfig.getFlushIntervalMs());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        try {
+            // The flusher keeps going until the queue is drained
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            logger.warn("Write-behind flusher stopped with {} readings still queued", queue.size());
+        }
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return queue != null;
+    }
+
+    /**
+     * Submit a reading from the serial listener, which may use the whole write-behind queue
+     *
+     * @throws IngestQueueFullException if the write-behind queue has no free slot
+     */
+    public CompletableFuture<CrowdData> submit(CrowdDataDTO crowdDataDTO) {
+        return submit(crowdDataDTO, true);
+    }
+
+    /**
+     * Submit a reading for persistence.
+     * In synchronous mode the returned future is already completed with the saved entity.
+     * In write-behind mode it completes once the batch containing the reading is committed.
+     * Non-priority (REST) readings are shed while only the priority reserve of the queue is left.
+     *
+     * @throws IngestQueueFullException if the write-behind queue has no free slot for this lane
+     */
+    public CompletableFuture<CrowdData> submit(CrowdDataDTO crowdDataDTO, boolean priority) {
+        if (!isWriteBehindEnabled() || !running) {
+            return CompletableFuture.completedFuture(
+                singleSaveTimer.record(() -> crowdDataService.saveCrowdData(crowdDataDTO)));
+        }
+
+        if (!priority && queue.remainingCapacity() <= writeBehindConfig.getPriorityReserve()) {
+            throw new IngestQueueFullException(writeBehindConfig.getQueueCapacity());
+        }
+
+        // Build the entity now so entry time reflects arrival, not flush time
+        PendingReading pending = new PendingReading(
+            CrowdDataService.toEntity(crowdDataDTO), new CompletableFuture<>());
+
+        if (!queue.offer(pending)) {
+            throw new IngestQueueFullException(writeBehindConfig.getQueueCapacity());
+        }
+        return pending.acknowledgement();
+    }
+
+    /**
+     * Save already built readings in one transaction, through the deadband filter and timed like a
+     * write-behind batch (used by the spool replayer). The result matches the input position by position.
+     */
+    public List<CrowdData> saveBatch(List<CrowdData> entities) {
+        return batchSaveTimer.record(() -> crowdDataService.saveAllCrowdData(entities));
+    }
+
+    /**
+     * Number of readings waiting to be flushed
+     */
+    public int getQueuedCount() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaved(CrowdDataSavedEvent event) {
+        // Entry time is stamped on arrival, so this covers queueing, batching and the commit
+        LocalDateTime now = LocalDateTime.now();
+        for (CrowdData saved : event.getSavedData()) {
+            Duration lag = Duration.between(saved.getEntryTime(), now);
+            commitLag.record(lag.isNegative() ? Duration.ZERO : lag);
+        }
+    }
+
+    private void runFlusher() {
+        int batchSize = writeBehindConfig.getBatchSize();
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(writeBehindConfig.getFlushIntervalMs());
+        List<PendingReading> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingReading first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Collect until the batch is full or the flush interval has passed
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    PendingReading next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flush(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Save a batch, acknowledging each reading once its row is committed. While the database is
+     * unreachable the batch is retried with backoff; when it rejects the batch, the readings are
+     * saved one at a time so only the rows that fail themselves are failed.
+     */
+    private void flush(List<PendingReading> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<PendingReading> left = batch;
+        boolean oneByOne = false;
+        long retryMs = writeBehindConfig.getRetryInitialMs();
+        while (!left.isEmpty()) {
+            List<PendingReading> attempt = oneByOne ? left.subList(0, 1) : left;
+            try {
+                store(attempt);
+                left = left.subList(attempt.size(), left.size());
+                retryMs = writeBehindConfig.getRetryInitialMs();
+            } catch (Exception e) {
+                if (!CrowdDataService.isTransientFailure(e)) {
+                    if (oneByOne) {
+                        logger.error("Dropping reading {} rejected by the database - Error: {}",
+                                    attempt.get(0).entity(), e.getMessage());
+                        attempt.get(0).acknowledgement().completeExceptionally(e);
+                        left = left.subList(1, left.size());
+                    } else {
+                        logger.warn("Batch of {} readings rejected, saving them one at a time - Error: {}",
+                                   attempt.size(), e.getMessage());
+                        oneByOne = true;
+                    }
+                } else if (!running) {
+                    logger.error("Database unreachable during shutdown, dropping {} readings - Error: {}",
+                                left.size(), e.getMessage());
+                    left.forEach(pending -> pending.acknowledgement().completeExceptionally(e));
+                    return;
+                } else {
+                    logger.warn("Failed to flush {} readings, retrying in {}ms - Error: {}",
+                               left.size(), retryMs, e.getMessage());
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryMs));
+                    retryMs = Math.min(retryMs * 2, writeBehindConfig.getRetryMaxMs());
+                }
+            }
+        }
+    }
+
+    private void store(List<PendingReading> batch) {
+        // Fresh entities on every attempt; a failed save may have assigned ids already
+        List<CrowdData> entities = batch.stream().map(pending -> CrowdDataService.copyOf(pending.entity())).toList();
+        List<CrowdData> saved = saveBatch(entities);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).acknowledgement().complete(saved.get(i));
+        }
+        logger.debug("Flushed {} readings", saved.size());
+    }
+
+    private record PendingReading(CrowdData entity, CompletableFuture<CrowdData> acknowledgement) {}
+}
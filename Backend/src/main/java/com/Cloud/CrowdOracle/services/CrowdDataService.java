@@ -1,39 +1,108 @@
 package com.Cloud.CrowdOracle.services;
 
+import com.Cloud.CrowdOracle.customExceptions.InvalidCrowdDataException;
 import com.Cloud.CrowdOracle.dtos.CrowdDataDTO;
+import com.Cloud.CrowdOracle.dtos.CrowdDataPage;
+import com.Cloud.CrowdOracle.dtos.CrowdDataRangeStats;
+import com.Cloud.CrowdOracle.dtos.CrowdDataView;
+import com.Cloud.CrowdOracle.dtos.PageCursor;
+import com.Cloud.CrowdOracle.dtos.RollupBucket;
+import com.Cloud.CrowdOracle.dtos.TimeWeightedAverages;
 import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.events.CrowdDataDeletedEvent;
+import com.Cloud.CrowdOracle.events.CrowdDataSavedEvent;
+import com.Cloud.CrowdOracle.repository.CrowdDataChunkRepository;
+import com.Cloud.CrowdOracle.repository.CrowdDataCopyRepository;
 import com.Cloud.CrowdOracle.repository.CrowdDataRepository;
+import com.Cloud.CrowdOracle.repository.CrowdDataStatsRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
+@DependsOn("partitionMaintenanceService") // partitions must exist before the first insert
 public class CrowdDataService {
 
+    private static final Comparator<CrowdData> NEWEST_FIRST = Comparator
+        .comparing(CrowdData::getEntryTime).thenComparing(CrowdData::getId).reversed();
+
     private final CrowdDataRepository crowdDataRepository;
+    private final CrowdDataCopyRepository crowdDataCopyRepository;
+    private final CrowdDataStatsRepository crowdDataStatsRepository;
+    private final LatestReadingCache latestReadingCache;
+    private final RecentReadingBuffer recentReadingBuffer;
+    private final DeadbandFilter deadbandFilter;
+    private final CrowdDataStatistics crowdDataStatistics;
+    private final CrowdDataChunkService crowdDataChunkService;
+    private final CrowdDataVersion crowdDataVersion;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     @Autowired
-    public CrowdDataService(CrowdDataRepository crowdDataRepository) {
+    public CrowdDataService(CrowdDataRepository crowdDataRepository,
+                            CrowdDataCopyRepository crowdDataCopyRepository,
+                            CrowdDataStatsRepository crowdDataStatsRepository,
+                            LatestReadingCache latestReadingCache,
+                            RecentReadingBuffer recentReadingBuffer,
+                            DeadbandFilter deadbandFilter,
+                            CrowdDataStatistics crowdDataStatistics,
+                            CrowdDataChunkService crowdDataChunkService,
+                            CrowdDataVersion crowdDataVersion,
+                            ApplicationEventPublisher eventPublisher,
+                            EntityManager entityManager) {
         this.crowdDataRepository = crowdDataRepository;
+        this.crowdDataCopyRepository = crowdDataCopyRepository;
+        this.crowdDataStatsRepository = crowdDataStatsRepository;
+        this.latestReadingCache = latestReadingCache;
+        this.recentReadingBuffer = recentReadingBuffer;
+        this.deadbandFilter = deadbandFilter;
+        this.crowdDataStatistics = crowdDataStatistics;
+        this.crowdDataChunkService = crowdDataChunkService;
+        this.crowdDataVersion = crowdDataVersion;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
     /**
-     * Save crowd data from DTO
+     * Save crowd data from DTO. A reading inside the deadband is not stored and comes back without an id.
      */
     public CrowdData saveCrowdData(CrowdDataDTO crowdDataDTO) {
         // Convert DTO to Entity
-        CrowdData crowdData = new CrowdData(
-            crowdDataDTO.getTemperatureCelsius(),
-            crowdDataDTO.getTotalPeopleCount()
-        );
+        CrowdData crowdData = toEntity(crowdDataDTO);
+        if (!deadbandFilter.accept(crowdData)) {
+            return crowdData;
+        }
 
         // Save and return the saved entity
-        return crowdDataRepository.save(crowdData);
+        CrowdData savedData = crowdDataRepository.save(crowdData);
+        eventPublisher.publishEvent(new CrowdDataSavedEvent(List.of(savedData)));
+        return savedData;
     }
 
     /**
@@ -41,98 +110,404 @@ public class CrowdDataService {
      */
     public List<CrowdData> saveMultipleCrowdData(List<CrowdDataDTO> crowdDataDTOs) {
         List<CrowdData> crowdDataList = crowdDataDTOs.stream()
-            .map(dto -> new CrowdData(dto.getTemperatureCelsius(), dto.getTotalPeopleCount()))
+            .map(CrowdDataService::toEntity)
             .toList();
 
-        return crowdDataRepository.saveAll(crowdDataList);
+        return saveAllCrowdData(crowdDataList);
+    }
+
+    /**
+     * Save already built entities in one transaction (used by the write-behind flusher).
+     * Inserts are sent as JDBC batches thanks to the sequence-based id.
+     * The result matches the input position by position; readings inside the deadband have no id.
+     */
+    public List<CrowdData> saveAllCrowdData(List<CrowdData> crowdDataList) {
+        List<CrowdData> toStore = crowdDataList.stream()
+            .filter(deadbandFilter::accept)
+            .toList();
+        if (toStore.size() == crowdDataList.size()) {
+            return storeAllCrowdData(crowdDataList);
+        }
+        if (toStore.isEmpty()) {
+            return crowdDataList;
+        }
+
+        List<CrowdData> savedData = storeAllCrowdData(toStore);
+
+        Iterator<CrowdData> saved = savedData.iterator();
+        List<CrowdData> result = new ArrayList<>(crowdDataList.size());
+        int next = 0;
+        for (CrowdData crowdData : crowdDataList) {
+            if (next < toStore.size() && toStore.get(next) == crowdData) {
+                result.add(saved.next());
+                next++;
+            } else {
+                result.add(crowdData);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Save entities that already passed the deadband filter
+     */
+    public List<CrowdData> storeAllCrowdData(List<CrowdData> crowdDataList) {
+        List<CrowdData> savedData = crowdDataRepository.saveAll(crowdDataList);
+        eventPublisher.publishEvent(new CrowdDataSavedEvent(savedData));
+        return savedData;
+    }
+
+    /**
+     * Unsaved copy of an entity, for retrying a save that failed after ids were assigned
+     */
+    public static CrowdData copyOf(CrowdData crowdData) {
+        CrowdData copy = new CrowdData(null, crowdData.getTemperatureCelsius(), crowdData.getTotalPeopleCount(),
+                                       crowdData.getEntryTime());
+        copy.setSourceId(crowdData.getSourceId());
+        return copy;
+    }
+
+    /**
+     * Whether a failed save is worth retrying unchanged: the database was unreachable or busy,
+     * rather than rejecting the rows themselves
+     */
+    public static boolean isTransientFailure(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                || cause instanceof RecoverableDataAccessException
+                || cause instanceof DataAccessResourceFailureException
+                || cause instanceof CannotCreateTransactionException
+                || cause instanceof SQLTransientException
+                || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            // SQLSTATE class 08: connection exception
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                && sqlException.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Convert DTO to a new entity stamped with the current time
+     */
+    public static CrowdData toEntity(CrowdDataDTO crowdDataDTO) {
+        CrowdData crowdData = new CrowdData(
+            crowdDataDTO.getTemperatureCelsius(),
+            crowdDataDTO.getTotalPeopleCount()
+        );
+        crowdData.setSourceId(crowdDataDTO.getSourceId());
+        return crowdData;
     }
 
     /**
      * Get all crowd data records ordered by entry time (most recent first)
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<CrowdData> getAllCrowdData() {
-        return crowdDataRepository.findAllByOrderByEntryTimeDesc();
+        List<CrowdData> rows = crowdDataRepository.findAllByOrderByEntryTimeDesc();
+        if (!crowdDataChunkService.reaches(null)) {
+            return rows;
+        }
+        List<CrowdData> merged = new ArrayList<>(rows);
+        crowdDataChunkService.newestFirst(null, row -> true)
+            .forEachRemaining(row -> merged.add(CrowdDataChunkService.toEntity(row)));
+        merged.sort(NEWEST_FIRST);
+        return merged;
+    }
+
+    /**
+     * Get one keyset page of crowd data (most recent first), starting after the given cursor.
+     * Pages inside the recent buffer are served from memory without a transaction.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CrowdDataPage getCrowdDataPage(String cursor, int limit) {
+        PageCursor after = cursor != null ? PageCursor.decode(cursor) : null;
+        // Fetch one extra row to know whether another page follows
+        Optional<List<CrowdData>> recent = recentReadingBuffer.newest(after, limit + 1);
+        if (recent.isPresent()) {
+            return toPage(recent.get(), limit);
+        }
+        return crowdDataChunkService.inSnapshot(() -> {
+            Limit fetchLimit = Limit.of(limit + 1);
+            List<CrowdData> rows = after == null
+                ? crowdDataRepository.findAllByOrderByEntryTimeDescIdDesc(fetchLimit)
+                : crowdDataRepository.findPageAfter(after.entryTime(), after.id(), fetchLimit);
+            return toPage(withCompacted(rows, after, limit + 1, row -> true), limit);
+        });
+    }
+
+    /**
+     * Get one keyset page of crowd data in a temperature range
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CrowdDataPage getCrowdDataPageByTemperatureRange(Double minTemp, Double maxTemp, String cursor, int limit) {
+        Limit fetchLimit = Limit.of(limit + 1);
+        PageCursor after = cursor != null ? PageCursor.decode(cursor) : null;
+        List<CrowdData> rows = after == null
+            ? crowdDataRepository.findByTemperatureCelsiusBetweenOrderByEntryTimeDescIdDesc(minTemp, maxTemp, fetchLimit)
+            : crowdDataRepository.findTemperatureRangePageAfter(minTemp, maxTemp, after.entryTime(), after.id(),
+                                                                fetchLimit);
+        return toPage(withCompacted(rows, after, limit + 1, temperatureBetween(minTemp, maxTemp)), limit);
+    }
+
+    /**
+     * Get one keyset page of crowd data in a people count range
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CrowdDataPage getCrowdDataPageByPeopleCountRange(Integer minCount, Integer maxCount, String cursor, int limit) {
+        Limit fetchLimit = Limit.of(limit + 1);
+        PageCursor after = cursor != null ? PageCursor.decode(cursor) : null;
+        List<CrowdData> rows = after == null
+            ? crowdDataRepository.findByTotalPeopleCountBetweenOrderByEntryTimeDescIdDesc(minCount, maxCount, fetchLimit)
+            : crowdDataRepository.findPeopleCountRangePageAfter(minCount, maxCount, after.entryTime(), after.id(),
+                                                                fetchLimit);
+        return toPage(withCompacted(rows, after, limit + 1, peopleCountBetween(minCount, maxCount)), limit);
+    }
+
+    /**
+     * Stream all crowd data (most recent first) through a database cursor
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void streamAllCrowdData(Consumer<CrowdData> consumer) {
+        consume(crowdDataRepository.streamAllByOrderByEntryTimeDesc(),
+                crowdDataChunkService.newestFirst(null, row -> true), consumer);
+    }
+
+    /**
+     * Stream crowd data in a temperature range through a database cursor
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void streamCrowdDataByTemperatureRange(Double minTemp, Double maxTemp, Consumer<CrowdData> consumer) {
+        consume(crowdDataRepository.streamByTemperatureCelsiusBetween(minTemp, maxTemp),
+                crowdDataChunkService.newestFirst(null, temperatureBetween(minTemp, maxTemp)), consumer);
+    }
+
+    /**
+     * Stream crowd data in a people count range through a database cursor
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void streamCrowdDataByPeopleCountRange(Integer minCount, Integer maxCount, Consumer<CrowdData> consumer) {
+        consume(crowdDataRepository.streamByTotalPeopleCountBetween(minCount, maxCount),
+                crowdDataChunkService.newestFirst(null, peopleCountBetween(minCount, maxCount)), consumer);
+    }
+
+    /**
+     * Write crowd data with entry time in [startTime, endTime) as CSV straight from the database
+     * (COPY TO STDOUT: no entities, no JSON). Null bounds are open. Returns the number of rows.
+     * The part of the window below the compacted range is written from decoded chunks first.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public long exportCrowdDataCsv(LocalDateTime startTime, LocalDateTime endTime, OutputStream out) {
+        return crowdDataChunkService.inSnapshot(() -> {
+            if (!crowdDataChunkService.reaches(startTime)) {
+                return crowdDataCopyRepository.copyOut(startTime, endTime, out);
+            }
+            LocalDateTime compactedUntil = crowdDataChunkService.getCompactedUntil();
+            LocalDateTime split = endTime != null && endTime.isBefore(compactedUntil) ? endTime : compactedUntil;
+            long rows = crowdDataChunkService.exportCsv(startTime, split, out);
+            if (endTime == null || endTime.isAfter(split)) {
+                rows += crowdDataCopyRepository.copyOut(split, endTime, out, false);
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Get the most recent crowd data record from memory (no transaction or connection needed)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<CrowdData> getLatestCrowdData() {
+        return latestReadingCache.get();
+    }
+
+    /**
+     * Get the most recent crowd data record from one device, from the recent buffer when it holds one,
+     * else from crowd_data, else from its newest compacted chunk
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<CrowdData> getLatestCrowdData(String sourceId) {
+        return recentReadingBuffer.latest(sourceId)
+            .or(() -> crowdDataRepository.findFirstBySourceIdOrderByEntryTimeDescIdDesc(sourceId))
+            .or(() -> crowdDataChunkService.findLatest(sourceId).map(CrowdDataChunkService::toEntity));
+    }
+
+    /**
+     * Get whole-table statistics from the running accumulators
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CrowdDataStatistics.Snapshot getCrowdDataStatistics() {
+        return crowdDataStatistics.snapshot();
+    }
+
+    /**
+     * Get count, sum, min, max, mean, stddev and p50/p90/p99 of readings in [startTime, endTime)
+     * from the recent buffer, or else with one database query (merging the value counts of
+     * compacted chunks when the window reaches them); a null bound leaves that side open
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CrowdDataRangeStats getCrowdDataRangeStatistics(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime != null && endTime != null && !endTime.isAfter(startTime)) {
+            throw new InvalidCrowdDataException("'to' must be after 'from'");
+        }
+        return recentReadingBuffer.stats(startTime, endTime)
+            .orElseGet(() -> crowdDataChunkService.inSnapshot(() -> crowdDataChunkService.reaches(startTime)
+                ? crowdDataChunkService.rangeStatistics(startTime, endTime)
+                : crowdDataStatsRepository.getRangeStatistics(startTime, endTime)));
     }
 
     /**
-     * Get crowd data by ID
+     * Recompute the running statistics from the database
+     */
+    @Transactional(readOnly = true)
+    public CrowdDataStatistics.Snapshot rebuildCrowdDataStatistics() {
+        crowdDataStatistics.rebuild();
+        crowdDataVersion.bump();
+        return crowdDataStatistics.snapshot();
+    }
+
+    /**
+     * Get crowd data by ID, from crowd_data or else from the compacted chunks
      */
     @Transactional(readOnly = true)
     public Optional<CrowdData> getCrowdDataById(Long id) {
-        return crowdDataRepository.findById(id);
+        return crowdDataRepository.findById(id)
+            .or(() -> crowdDataChunkService.findById(id).map(CrowdDataChunkService::toEntity));
     }
 
     /**
      * Get crowd data by temperature range
      */
-    @Transactional(readOnly = true)
-    public List<CrowdData> getCrowdDataByTemperatureRange(Double minTemp, Double maxTemp) {
-        return crowdDataRepository.findByTemperatureCelsiusBetween(minTemp, maxTemp);
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<CrowdDataView> getCrowdDataByTemperatureRange(Double minTemp, Double maxTemp) {
+        return withCompacted(crowdDataRepository.findViewsByTemperatureCelsiusBetween(minTemp, maxTemp),
+            crowdDataChunkService.findViewsByTemperature(minTemp, maxTemp, temperatureBetween(minTemp, maxTemp)));
     }
 
     /**
      * Get crowd data by people count range
      */
-    @Transactional(readOnly = true)
-    public List<CrowdData> getCrowdDataByPeopleCountRange(Integer minCount, Integer maxCount) {
-        return crowdDataRepository.findByTotalPeopleCountBetween(minCount, maxCount);
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<CrowdDataView> getCrowdDataByPeopleCountRange(Integer minCount, Integer maxCount) {
+        return withCompacted(crowdDataRepository.findViewsByTotalPeopleCountBetween(minCount, maxCount),
+            crowdDataChunkService.findViewsByPeopleCount(minCount, maxCount, peopleCountBetween(minCount, maxCount)));
     }
 
     /**
-     * Get crowd data within a specific time range
+     * Get crowd data within a specific time range (inclusive, oldest first), from the recent
+     * buffer when the range starts inside it
      */
-    @Transactional(readOnly = true)
-    public List<CrowdData> getCrowdDataByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
-        return crowdDataRepository.findByEntryTimeBetween(startTime, endTime);
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<CrowdDataView> getCrowdDataByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
+        if (endTime.isBefore(startTime)) {
+            throw new InvalidCrowdDataException("'to' must not be before 'from'");
+        }
+        return recentReadingBuffer.range(startTime, endTime).orElseGet(() -> crowdDataChunkService.inSnapshot(() -> {
+            List<CrowdDataView> rows = crowdDataRepository.findViewsByEntryTimeBetween(startTime, endTime);
+            if (!crowdDataChunkService.reaches(startTime)) {
+                return rows;
+            }
+            List<CrowdDataView> merged = new ArrayList<>(crowdDataChunkService.findViews(startTime, endTime));
+            merged.addAll(rows);
+            merged.sort(CrowdDataChunkRepository.OLDEST_FIRST);
+            return merged;
+        }));
     }
 
     /**
      * Get records where people count is greater than specified value
      */
-    @Transactional(readOnly = true)
-    public List<CrowdData> getHighCrowdData(Integer threshold) {
-        return crowdDataRepository.findByTotalPeopleCountGreaterThan(threshold);
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<CrowdDataView> getHighCrowdData(Integer threshold) {
+        return withCompacted(crowdDataRepository.findViewsByTotalPeopleCountGreaterThan(threshold),
+            crowdDataChunkService.findViewsByPeopleCount(threshold, null, row -> row.totalPeopleCount() > threshold));
     }
 
     /**
      * Get records where temperature is greater than specified value
      */
-    @Transactional(readOnly = true)
-    public List<CrowdData> getHighTemperatureData(Double threshold) {
-        return crowdDataRepository.findByTemperatureCelsiusGreaterThan(threshold);
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<CrowdDataView> getHighTemperatureData(Double threshold) {
+        return withCompacted(crowdDataRepository.findViewsByTemperatureCelsiusGreaterThan(threshold),
+            crowdDataChunkService.findViewsByTemperature(threshold, null, row -> row.temperatureCelsius() > threshold));
     }
 
     /**
-     * Get average temperature in a time range
+     * Get average temperature in a time range; time-weighted when the deadband filter is on,
+     * since rows then stand for very different lengths of time
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public Double getAverageTemperature(LocalDateTime startTime, LocalDateTime endTime) {
-        return crowdDataRepository.getAverageTemperatureInTimeRange(startTime, endTime);
+        if (deadbandFilter.isEnabled()) {
+            return getTimeWeightedAverages(startTime, endTime).temperature();
+        }
+        Double average = crowdDataRepository.getAverageTemperatureInTimeRange(startTime, endTime);
+        RollupBucket compacted = crowdDataChunkService.getTotals(startTime, endTime);
+        if (compacted.sampleCount() == 0) {
+            return average;
+        }
+        long count = crowdDataRepository.getRecordsCountInTimeRange(startTime, endTime);
+        double sum = (average != null ? average * count : 0) + compacted.temperatureSum();
+        return sum / (count + compacted.sampleCount());
+    }
+
+    /**
+     * Get temperature and people count averages over [startTime, endTime) weighted by how long
+     * each reading held its value (until the next reading of its source, at most two heartbeats)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public TimeWeightedAverages getTimeWeightedAverages(LocalDateTime startTime, LocalDateTime endTime) {
+        if (!endTime.isAfter(startTime)) {
+            throw new InvalidCrowdDataException("'to' must be after 'from'");
+        }
+        Duration maxHold = deadbandFilter.getMaxHold();
+        return crowdDataChunkService.inSnapshot(() -> crowdDataChunkService.reaches(startTime.minus(maxHold))
+            ? TimeWeightedAverages.of(startTime, endTime,
+                                      crowdDataChunkService.findAllViews(startTime.minus(maxHold), endTime), maxHold)
+            : crowdDataStatsRepository.getTimeWeightedAverages(startTime, endTime, maxHold));
+    }
+
+    public boolean isDeadbandEnabled() {
+        return deadbandFilter.isEnabled();
     }
 
     /**
      * Get total people count in a time range
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public Long getTotalPeopleCount(LocalDateTime startTime, LocalDateTime endTime) {
-        return crowdDataRepository.getTotalPeopleCountInTimeRange(startTime, endTime);
+        Long total = crowdDataRepository.getTotalPeopleCountInTimeRange(startTime, endTime);
+        RollupBucket compacted = crowdDataChunkService.getTotals(startTime, endTime);
+        if (compacted.sampleCount() == 0) {
+            return total;
+        }
+        return (total != null ? total : 0) + compacted.peopleSum();
     }
 
     /**
      * Get record count in a time range
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public Long getRecordCount(LocalDateTime startTime, LocalDateTime endTime) {
-        return crowdDataRepository.getRecordsCountInTimeRange(startTime, endTime);
+        return crowdDataRepository.getRecordsCountInTimeRange(startTime, endTime)
+            + crowdDataChunkService.getTotals(startTime, endTime).sampleCount();
     }
 
     /**
-     * Delete crowd data by ID
+     * Delete crowd data by ID; a compacted reading is removed from its chunk
      */
     public boolean deleteCrowdData(Long id) {
-        if (crowdDataRepository.existsById(id)) {
-            crowdDataRepository.deleteById(id);
+        Optional<CrowdData> existing = crowdDataRepository.findById(id);
+        if (existing.isPresent()) {
+            crowdDataRepository.delete(existing.get());
+            eventPublisher.publishEvent(new CrowdDataDeletedEvent(List.of(existing.get()), false));
+            return true;
+        }
+        Optional<CrowdData> compacted = crowdDataChunkService.delete(id).map(CrowdDataChunkService::toEntity);
+        if (compacted.isPresent()) {
+            eventPublisher.publishEvent(new CrowdDataDeletedEvent(List.of(compacted.get()), false));
             return true;
         }
         return false;
@@ -143,5 +518,77 @@ public class CrowdDataService {
      */
     public void deleteAllCrowdData() {
         crowdDataRepository.deleteAll();
+        crowdDataChunkService.deleteAll();
+        eventPublisher.publishEvent(CrowdDataDeletedEvent.all());
+    }
+
+    private static CrowdDataPage toPage(List<CrowdData> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CrowdDataPage(rows, null);
+        }
+        List<CrowdData> page = rows.subList(0, limit);
+        return new CrowdDataPage(page, PageCursor.of(page.get(limit - 1)).encode());
+    }
+
+    /**
+     * Add compacted readings to a newest-first batch from crowd_data, unless the batch already
+     * holds count rows that are all newer than anything compacted
+     */
+    private List<CrowdData> withCompacted(List<CrowdData> rows, PageCursor after, int count,
+                                          Predicate<CrowdDataView> filter) {
+        LocalDateTime compactedUntil = crowdDataChunkService.getCompactedUntil();
+        if (compactedUntil == null
+            || (rows.size() >= count && !rows.get(count - 1).getEntryTime().isBefore(compactedUntil))) {
+            return rows;
+        }
+        List<CrowdData> merged = new ArrayList<>(rows);
+        crowdDataChunkService.findNewest(after, count, filter)
+            .forEach(row -> merged.add(CrowdDataChunkService.toEntity(row)));
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > count ? merged.subList(0, count) : merged;
+    }
+
+    private static List<CrowdDataView> withCompacted(List<CrowdDataView> rows, List<CrowdDataView> compacted) {
+        if (compacted.isEmpty()) {
+            return rows;
+        }
+        List<CrowdDataView> merged = new ArrayList<>(rows);
+        merged.addAll(compacted);
+        return merged;
+    }
+
+    private static Predicate<CrowdDataView> temperatureBetween(Double minTemp, Double maxTemp) {
+        return row -> row.temperatureCelsius() >= minTemp && row.temperatureCelsius() <= maxTemp;
+    }
+
+    private static Predicate<CrowdDataView> peopleCountBetween(Integer minCount, Integer maxCount) {
+        return row -> row.totalPeopleCount() >= minCount && row.totalPeopleCount() <= maxCount;
+    }
+
+    /**
+     * Hand rows to the consumer newest first, merging the database cursor with compacted readings
+     */
+    private void consume(Stream<CrowdData> rows, Iterator<CrowdDataView> compacted, Consumer<CrowdData> consumer) {
+        try (rows) {
+            Iterator<CrowdData> hot = rows.iterator();
+            CrowdData nextHot = hot.hasNext() ? hot.next() : null;
+            CrowdDataView nextCompacted = compacted.hasNext() ? compacted.next() : null;
+            while (nextHot != null || nextCompacted != null) {
+                if (nextCompacted == null || (nextHot != null && isNewer(nextHot, nextCompacted))) {
+                    consumer.accept(nextHot);
+                    // Keep the persistence context empty so memory stays flat
+                    entityManager.detach(nextHot);
+                    nextHot = hot.hasNext() ? hot.next() : null;
+                } else {
+                    consumer.accept(CrowdDataChunkService.toEntity(nextCompacted));
+                    nextCompacted = compacted.hasNext() ? compacted.next() : null;
+                }
+            }
+        }
+    }
+
+    private static boolean isNewer(CrowdData row, CrowdDataView other) {
+        int byTime = row.getEntryTime().compareTo(other.entryTime());
+        return byTime > 0 || (byTime == 0 && row.getId() > other.id());
     }
 }
@@ -0,0 +1,200 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.dtos.CrowdDataAggregate;
+import com.Cloud.CrowdOracle.dtos.RollupBucket;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.events.CrowdDataDeletedEvent;
+import com.Cloud.CrowdOracle.events.CrowdDataImportedEvent;
+import com.Cloud.CrowdOracle.events.CrowdDataSavedEvent;
+import com.Cloud.CrowdOracle.repository.CrowdDataChunkRepository;
+import com.Cloud.CrowdOracle.repository.CrowdDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running whole-table statistics kept in lock-free accumulators.
+ * Updated after every committed insert and delete, and rebuilt from a single
+ * database aggregate only at startup, on demand, or when a deleted reading
+ * held the current minimum or maximum (which cannot be undone incrementally).
+ * A rebuild racing with concurrent writes may be off by those in-flight readings
+ * until the next rebuild. Compacted readings are included through the chunk totals columns.
+ */
+@Component
+public class CrowdDataStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrowdDataStatistics.class);
+
+    private final CrowdDataRepository crowdDataRepository;
+    private final CrowdDataChunkRepository chunkRepository;
+    private final AtomicReference<Accumulators> current = new AtomicReference<>(new Accumulators());
+
+    private volatile boolean loaded;
+    private volatile boolean extremaStale;
+
+    @Autowired
+    public CrowdDataStatistics(CrowdDataRepository crowdDataRepository,
+                               CrowdDataChunkRepository chunkRepository) {
+        this.crowdDataRepository = crowdDataRepository;
+        this.chunkRepository = chunkRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.warn("Could not load crowd data statistics, will retry on first read - Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the statistics from the database with one aggregate query over crowd_data
+     * and one over the chunk totals
+     */
+    public void rebuild() {
+        CrowdDataAggregate aggregate = crowdDataRepository.getAggregateStatistics();
+        Accumulators accumulators = Accumulators.from(aggregate);
+        accumulators.add(chunkRepository.getTotals());
+        current.set(accumulators);
+        extremaStale = false;
+        loaded = true;
+        logger.debug("Rebuilt crowd data statistics over {} records", accumulators.count.sum());
+    }
+
+    /**
+     * Get a consistent-enough view of the current statistics without touching the database
+     */
+    public Snapshot snapshot() {
+        if (!loaded || extremaStale) {
+            rebuild();
+        }
+        return current.get().snapshot();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaved(CrowdDataSavedEvent event) {
+        Accumulators accumulators = current.get();
+        for (CrowdData saved : event.getSavedData()) {
+            accumulators.add(saved.getTotalPeopleCount(), saved.getTemperatureCelsius());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(CrowdDataDeletedEvent event) {
+        if (event.isAllDeleted()) {
+            current.set(new Accumulators());
+            extremaStale = false;
+            return;
+        }
+
+        Accumulators accumulators = current.get();
+        for (CrowdData deleted : event.getDeletedData()) {
+            if (accumulators.remove(deleted.getTotalPeopleCount(), deleted.getTemperatureCelsius())) {
+                extremaStale = true;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImported(CrowdDataImportedEvent event) {
+        // Bulk imports do not hand over their rows, one aggregate query is cheaper than re-reading them
+        rebuild();
+    }
+
+    /**
+     * Immutable point-in-time view of the statistics
+     */
+    public record Snapshot(long recordCount,
+                           long peopleSum, int peopleMin, int peopleMax, double peopleMean,
+                           double temperatureSum, double temperatureMin, double temperatureMax,
+                           double temperatureMean) {
+
+        public boolean isEmpty() {
+            return recordCount == 0;
+        }
+    }
+
+    private static final class Accumulators {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder peopleSum = new LongAdder();
+        private final LongAccumulator peopleMin = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator peopleMax = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final DoubleAdder temperatureSum = new DoubleAdder();
+        private final DoubleAccumulator temperatureMin = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        private final DoubleAccumulator temperatureMax = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+
+        static Accumulators from(CrowdDataAggregate aggregate) {
+            Accumulators accumulators = new Accumulators();
+            if (aggregate.getRecordCount() == null || aggregate.getRecordCount() == 0) {
+                return accumulators;
+            }
+            accumulators.count.add(aggregate.getRecordCount());
+            accumulators.peopleSum.add(aggregate.getPeopleSum());
+            accumulators.peopleMin.accumulate(aggregate.getPeopleMin());
+            accumulators.peopleMax.accumulate(aggregate.getPeopleMax());
+            accumulators.temperatureSum.add(aggregate.getTemperatureSum());
+            accumulators.temperatureMin.accumulate(aggregate.getTemperatureMin());
+            accumulators.temperatureMax.accumulate(aggregate.getTemperatureMax());
+            return accumulators;
+        }
+
+        void add(int people, double temperature) {
+            count.increment();
+            peopleSum.add(people);
+            peopleMin.accumulate(people);
+            peopleMax.accumulate(people);
+            temperatureSum.add(temperature);
+            temperatureMin.accumulate(temperature);
+            temperatureMax.accumulate(temperature);
+        }
+
+        void add(RollupBucket totals) {
+            if (totals.sampleCount() == 0) {
+                return;
+            }
+            count.add(totals.sampleCount());
+            peopleSum.add(totals.peopleSum());
+            peopleMin.accumulate(totals.peopleMin());
+            peopleMax.accumulate(totals.peopleMax());
+            temperatureSum.add(totals.temperatureSum());
+            temperatureMin.accumulate(totals.temperatureMin());
+            temperatureMax.accumulate(totals.temperatureMax());
+        }
+
+        /**
+         * Remove a reading from count and sums.
+         * Returns true when it sat on an extreme, meaning min/max need a rebuild.
+         */
+        boolean remove(int people, double temperature) {
+            count.decrement();
+            peopleSum.add(-people);
+            temperatureSum.add(-temperature);
+            return people <= peopleMin.get() || people >= peopleMax.get()
+                || temperature <= temperatureMin.get() || temperature >= temperatureMax.get();
+        }
+
+        Snapshot snapshot() {
+            long records = count.sum();
+            if (records <= 0) {
+                return new Snapshot(0, 0, 0, 0, 0, 0, 0, 0, 0);
+            }
+            long people = peopleSum.sum();
+            double temperature = temperatureSum.sum();
+            return new Snapshot(records,
+                people, (int) peopleMin.get(), (int) peopleMax.get(), (double) people / records,
+                temperature, temperatureMin.get(), temperatureMax.get(), temperature / records);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.events.CrowdDataDeletedEvent;
+import com.Cloud.CrowdOracle.events.CrowdDataImportedEvent;
+import com.Cloud.CrowdOracle.events.CrowdDataSavedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version of everything the read endpoints can return, bumped after every change to the
+ * readings, the statistics or the rollups. Cached responses are only served while the version
+ * they were built at is current.
+ * <p>
+ * Writes bump it once their transaction has committed, after every after-commit listener has
+ * updated the in-memory views, so a response built at the new version always sees the new data;
+ * a rolled back write changes nothing and leaves the version alone. Work
+ * that changes the data outside those events (rollup flushes, partition drops, compaction)
+ * calls {@link #bump()} itself once it is done.
+ */
+@Component
+public class CrowdDataVersion {
+
+    private final AtomicReference<Version> current = new AtomicReference<>(new Version(0, Instant.now()));
+
+    public Version current() {
+        return current.get();
+    }
+
+    public Version bump() {
+        Instant now = Instant.now();
+        return current.updateAndGet(version -> new Version(version.number() + 1, now));
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener
+    public void onSaved(CrowdDataSavedEvent event) {
+        bumpOnCommit();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener
+    public void onDeleted(CrowdDataDeletedEvent event) {
+        bumpOnCommit();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener
+    public void onImported(CrowdDataImportedEvent event) {
+        bumpOnCommit();
+    }
+
+    // Once per transaction: afterCompletion runs after every afterCommit callback and tells commit from rollback
+    private void bumpOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CrowdDataVersion.this);
+                if (status == STATUS_COMMITTED) {
+                    bump();
+                }
+            }
+        });
+    }
+
+    /**
+     * Version number and the time of the change that produced it
+     */
+    public record Version(long number, Instant modifiedAt) {}
+}
@@ -0,0 +1,143 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.config.DeadbandConfig;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Change-only storage: a reading is stored when temperature or people count moved past the
+ * deadband since the last stored reading of the same source, or when the heartbeat is due.
+ * A stored row therefore stands for its value until the next row of its source, which is how
+ * the time-weighted aggregates read it. Only averages have a time-weighted form: counts, totals,
+ * percentiles and the rollups weigh every stored row alike, so with the filter on they lean
+ * towards periods of change.
+ * <p>
+ * A reference moved inside a transaction is put back if the transaction does not commit, so a
+ * reading that was never stored cannot suppress the ones after it.
+ */
+@Component
+public class DeadbandFilter {
+
+    // Key for readings posted without a source id
+    private static final String NO_SOURCE = "";
+
+    private final DeadbandConfig deadbandConfig;
+    private final Map<String, Reference> lastStored = new ConcurrentHashMap<>();
+    private final Counter stored;
+    private final Counter suppressed;
+
+    @Autowired
+    public DeadbandFilter(DeadbandConfig deadbandConfig, MeterRegistry meterRegistry) {
+        this.deadbandConfig = deadbandConfig;
+        this.stored = Counter.builder("crowd.data.deadband")
+            .description("Readings passed (stored) or suppressed by the deadband filter")
+            .tag("result", "stored")
+            .register(meterRegistry);
+        this.suppressed = Counter.builder("crowd.data.deadband")
+            .description("Readings passed (stored) or suppressed by the deadband filter")
+            .tag("result", "suppressed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Whether the reading should be stored; an accepted reading becomes the new reference for its source.
+     * The first reading of each source after startup is always stored.
+     */
+    public boolean accept(CrowdData reading) {
+        if (!deadbandConfig.isEnabled()) {
+            return true;
+        }
+
+        String source = reading.getSourceId() != null ? reading.getSourceId() : NO_SOURCE;
+        Reference candidate = new Reference(reading.getTemperatureCelsius(), reading.getTotalPeopleCount(),
+                                            reading.getEntryTime());
+        Reference[] previous = new Reference[1];
+        Reference kept = lastStored.compute(source, (key, last) -> {
+            previous[0] = last;
+            return last == null || isOutside(last, candidate) ? candidate : last;
+        });
+        if (kept != candidate) {
+            suppressed.increment();
+            return false;
+        }
+        stored.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            changes().moved(source, previous[0], candidate);
+        }
+        return true;
+    }
+
+    /**
+     * Longest time one stored reading is taken to hold its value. Past it the source is treated
+     * as silent rather than unchanged; two heartbeats leave room for a late reading.
+     */
+    public Duration getMaxHold() {
+        return Duration.ofSeconds(2 * Math.max(1, deadbandConfig.getHeartbeatSeconds()));
+    }
+
+    public boolean isEnabled() {
+        return deadbandConfig.isEnabled();
+    }
+
+    private Changes changes() {
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new Changes();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        return changes;
+    }
+
+    private boolean isOutside(Reference last, Reference next) {
+        return Math.abs(next.temperatureCelsius() - last.temperatureCelsius()) > deadbandConfig.getTemperatureDelta()
+            || Math.abs(next.totalPeopleCount() - last.totalPeopleCount()) > deadbandConfig.getPeopleDelta()
+            || !next.entryTime().isBefore(last.entryTime().plusSeconds(deadbandConfig.getHeartbeatSeconds()));
+    }
+
+    /**
+     * References moved by the current transaction, restored unless it commits
+     */
+    private final class Changes implements TransactionSynchronization {
+        // Per source: the reference before the transaction (absent value = none) and the last one it set
+        private final Map<String, Reference> before = new HashMap<>();
+        private final Map<String, Reference> after = new HashMap<>();
+
+        void moved(String source, Reference previous, Reference current) {
+            if (!after.containsKey(source)) {
+                before.put(source, previous);
+            }
+            after.put(source, current);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DeadbandFilter.this);
+            if (status == STATUS_COMMITTED) {
+                return;
+            }
+            // Left alone if another transaction has moved the reference since
+            after.forEach((source, current) -> {
+                Reference previous = before.get(source);
+                if (previous == null) {
+                    lastStored.remove(source, current);
+                } else {
+                    lastStored.replace(source, current, previous);
+                }
+            });
+        }
+    }
+
+    private record Reference(double temperatureCelsius, int totalPeopleCount, LocalDateTime entryTime) {}
+}
@@ -0,0 +1,195 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.config.IngestRateLimitConfig;
+import com.Cloud.CrowdOracle.customExceptions.IngestRateLimitedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for the REST write endpoints. Each request spends one token per reading from
+ * its client's bucket and from a global bucket, then waits (FIFO, bounded queue, bounded time) for
+ * one of a few write slots, so ingest storms cannot take every pooled connection away from reads.
+ * Rejections carry the time after which a retry would succeed.
+ * In write-behind mode a slot is only held while the reading is queued, so the limit bounds the
+ * enqueue and not the database write; those are bounded by the single flusher thread instead.
+ * The serial listener submits to CrowdDataIngestService directly and never passes through here.
+ */
+@Service
+public class IngestRateLimiter {
+
+    /**
+     * Held while the request writes (or, in write-behind mode, queues) its readings; closing it frees the write slot
+     */
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        Permit NONE = () -> {};
+
+        @Override
+        void close();
+    }
+
+    private final IngestRateLimitConfig rateLimitConfig;
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final TokenBucket globalBucket;
+    private final Semaphore writeSlots;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter clientRejections;
+    private final Counter globalRejections;
+    private final Counter overloadRejections;
+
+    @Autowired
+    public IngestRateLimiter(IngestRateLimitConfig rateLimitConfig, MeterRegistry meterRegistry) {
+        this.rateLimitConfig = rateLimitConfig;
+        this.globalBucket = new TokenBucket(rateLimitConfig.getGlobalRate(), rateLimitConfig.getGlobalBurst(),
+                                            System.nanoTime());
+        this.writeSlots = new Semaphore(Math.max(1, rateLimitConfig.getMaxConcurrentWrites()), true);
+
+        this.clientRejections = rejections(meterRegistry, "client");
+        this.globalRejections = rejections(meterRegistry, "global");
+        this.overloadRejections = rejections(meterRegistry, "overload");
+        Gauge.builder("crowd.data.ingest.admission.waiting", waiting, AtomicInteger::get)
+            .description("Write requests waiting for a write slot")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Admit a request carrying the given number of readings, waiting for a write slot if needed.
+     *
+     * @throws IngestRateLimitedException if a bucket is empty or the admission queue is full or too slow
+     */
+    public Permit admit(String clientId, int readings) {
+        if (!rateLimitConfig.isEnabled()) {
+            return Permit.NONE;
+        }
+
+        long now = System.nanoTime();
+        TokenBucket clientBucket = clientBuckets.computeIfAbsent(clientId, id ->
+            new TokenBucket(rateLimitConfig.getPerClientRate(), rateLimitConfig.getPerClientBurst(), now));
+
+        long waitNanos = clientBucket.tryConsume(readings, now);
+        if (waitNanos > 0) {
+            clientRejections.increment();
+            throw new IngestRateLimitedException(
+                "Rate limit exceeded for " + clientId + " (" + rateLimitConfig.getPerClientRate() +
+                " readings/s), try again later", retryAfterSeconds(waitNanos));
+        }
+
+        waitNanos = globalBucket.tryConsume(readings, now);
+        if (waitNanos > 0) {
+            clientBucket.refund(readings);
+            globalRejections.increment();
+            throw new IngestRateLimitedException(
+                "Server ingest limit reached, try again later", retryAfterSeconds(waitNanos));
+        }
+
+        if (!acquireWriteSlot()) {
+            // Not served, so the tokens go back
+            clientBucket.refund(readings);
+            globalBucket.refund(readings);
+            overloadRejections.increment();
+            throw new IngestRateLimitedException(
+                "Too many writes in progress, try again later",
+                retryAfterSeconds(TimeUnit.MILLISECONDS.toNanos(rateLimitConfig.getAdmissionTimeoutMs())));
+        }
+        return writeSlots::release;
+    }
+
+    /**
+     * Forget clients whose bucket has refilled; they start again with a full burst anyway
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleClients() {
+        long now = System.nanoTime();
+        clientBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    public int getTrackedClientCount() {
+        return clientBuckets.size();
+    }
+
+    private boolean acquireWriteSlot() {
+        if (writeSlots.tryAcquire()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > rateLimitConfig.getAdmissionQueueSize()) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        try {
+            return writeSlots.tryAcquire(rateLimitConfig.getAdmissionTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("crowd.data.ingest.rejected")
+            .description("Write requests answered with 429 by the ingest rate limiter")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Refilled lazily from the elapsed time. A batch larger than the burst is let through once
+     * the bucket is full and leaves it in debt, so large batches are slowed down, not refused forever.
+     */
+    private static final class TokenBucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(double ratePerSecond, int burst, long now) {
+            this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, burst);
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        /**
+         * Take the tokens and return 0, or return how long until enough are available
+         */
+        synchronized long tryConsume(int count, long now) {
+            refill(now);
+            double needed = Math.min(count, capacity);
+            if (tokens >= needed) {
+                tokens -= count;
+                return 0;
+            }
+            return (long) Math.ceil((needed - tokens) / tokensPerNano);
+        }
+
+        synchronized void refund(int count) {
+            tokens = Math.min(capacity, tokens + count);
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+                refilledAt = now;
+            }
+        }
+    }
+}
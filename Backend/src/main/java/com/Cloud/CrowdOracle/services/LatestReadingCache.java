@@ -0,0 +1,104 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.events.CrowdDataDeletedEvent;
+import com.Cloud.CrowdOracle.events.CrowdDataImportedEvent;
+import com.Cloud.CrowdOracle.events.CrowdDataSavedEvent;
+import com.Cloud.CrowdOracle.repository.CrowdDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the most recent reading in memory so /latest never touches the database.
+ * Seeded with a single-row query and updated after every committed save,
+ * whichever path (serial listener, REST, write-behind flush) the reading came from.
+ */
+@Component
+public class LatestReadingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatestReadingCache.class);
+
+    private static final Comparator<CrowdData> NEWEST_LAST = Comparator
+        .comparing(CrowdData::getEntryTime)
+        .thenComparing(CrowdData::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final CrowdDataRepository crowdDataRepository;
+    private final AtomicReference<CrowdData> latest = new AtomicReference<>();
+
+    private volatile boolean seeded;
+
+    @Autowired
+    public LatestReadingCache(CrowdDataRepository crowdDataRepository) {
+        this.crowdDataRepository = crowdDataRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.warn("Could not seed latest reading cache, will retry on first read - Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Get the most recent reading, if any
+     */
+    public Optional<CrowdData> get() {
+        if (!seeded) {
+            reload();
+        }
+        return Optional.ofNullable(latest.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaved(CrowdDataSavedEvent event) {
+        for (CrowdData saved : event.getSavedData()) {
+            offer(saved);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(CrowdDataDeletedEvent event) {
+        if (event.isAllDeleted()) {
+            latest.set(null);
+            return;
+        }
+
+        CrowdData current = latest.get();
+        if (current != null && event.getDeletedData().stream()
+                .anyMatch(deleted -> current.getId().equals(deleted.getId()))) {
+            // The cached reading is gone, fall back to the next newest row
+            latest.compareAndSet(current, null);
+            reload();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImported(CrowdDataImportedEvent event) {
+        // Imported rows carry no ids here, so re-read the newest row if the import reached past the cached one
+        CrowdData current = latest.get();
+        if (current == null || !event.getLatestEntryTime().isBefore(current.getEntryTime())) {
+            reload();
+        }
+    }
+
+    private void reload() {
+        crowdDataRepository.findFirstByOrderByEntryTimeDescIdDesc().ifPresent(this::offer);
+        seeded = true;
+    }
+
+    private void offer(CrowdData candidate) {
+        latest.accumulateAndGet(candidate,
+            (current, next) -> current == null || NEWEST_LAST.compare(next, current) >= 0 ? next : current);
+    }
+}
@@ -0,0 +1,219 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.config.LiveFeedConfig;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.events.CrowdDataSavedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes every committed reading to connected displays (SSE or WebSocket).
+ * Each reading is serialized once and offered to every subscriber's bounded buffer,
+ * which drops its oldest entry when full, so a slow client never holds up ingest.
+ * Every subscriber is drained by its own virtual thread that may block on network I/O.
+ */
+@Service
+public class LiveFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveFeedService.class);
+
+    /**
+     * Transport-specific delivery to one client, called only from that client's thread
+     */
+    public interface Sink {
+        void send(String readingJson) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    private final LiveFeedConfig liveFeedConfig;
+    private final ObjectMapper objectMapper;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong subscriberIds = new AtomicLong();
+
+    @Autowired
+    public LiveFeedService(LiveFeedConfig liveFeedConfig, ObjectMapper objectMapper) {
+        this.liveFeedConfig = liveFeedConfig;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Register a client; the returned handle unsubscribes it when closed
+     *
+     * @throws IllegalStateException if the subscriber limit is reached
+     */
+    public Subscription subscribe(Sink sink) {
+        if (subscribers.size() >= liveFeedConfig.getMaxSubscribers()) {
+            throw new IllegalStateException("Too many live feed subscribers (limit " +
+                                            liveFeedConfig.getMaxSubscribers() + ")");
+        }
+
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), sink, liveFeedConfig.getBufferSize());
+        subscribers.add(subscriber);
+        Thread.ofVirtual().name("live-feed-" + subscriber.id).start(subscriber::run);
+
+        logger.debug("Live feed subscriber {} connected ({} active)", subscriber.id, subscribers.size());
+        return subscriber;
+    }
+
+    /**
+     * Queue a reading for one subscription only (e.g. the current value on connect)
+     */
+    public void sendTo(Subscription subscription, CrowdData crowdData) {
+        String json = toJson(crowdData);
+        if (json != null && subscription instanceof Subscriber subscriber) {
+            subscriber.offer(json);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaved(CrowdDataSavedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (CrowdData saved : event.getSavedData()) {
+            String json = toJson(saved);
+            if (json != null) {
+                subscribers.forEach(subscriber -> subscriber.offer(json));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::stop);
+    }
+
+    private String toJson(CrowdData crowdData) {
+        try {
+            return objectMapper.writeValueAsString(crowdData);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize reading for live feed - Error: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Handle returned to transports so they can end a subscription
+     */
+    @FunctionalInterface
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final class Subscriber implements Subscription {
+
+        private final long id;
+        private final Sink sink;
+        private final int capacity;
+        private final ArrayDeque<String> buffer;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+
+        private boolean stopped;
+        private long dropped;
+
+        Subscriber(long id, Sink sink, int capacity) {
+            this.id = id;
+            this.sink = sink;
+            this.capacity = capacity;
+            this.buffer = new ArrayDeque<>(capacity);
+        }
+
+        void offer(String json) {
+            lock.lock();
+            try {
+                if (stopped) {
+                    return;
+                }
+                if (buffer.size() == capacity) {
+                    buffer.pollFirst();
+                    dropped++;
+                }
+                buffer.addLast(json);
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void run() {
+            long heartbeatNanos = TimeUnit.SECONDS.toNanos(liveFeedConfig.getHeartbeatSeconds());
+            try {
+                while (true) {
+                    String next;
+                    lock.lock();
+                    try {
+                        long remaining = heartbeatNanos;
+                        while (buffer.isEmpty() && !stopped && remaining > 0) {
+                            remaining = notEmpty.awaitNanos(remaining);
+                        }
+                        if (stopped) {
+                            return;
+                        }
+                        next = buffer.pollFirst();
+                    } finally {
+                        lock.unlock();
+                    }
+
+                    if (next != null) {
+                        sink.send(next);
+                    } else {
+                        sink.heartbeat();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Live feed subscriber {} disconnected - {}", id, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stop();
+                sink.close();
+            }
+        }
+
+        void stop() {
+            lock.lock();
+            try {
+                if (stopped) {
+                    return;
+                }
+                stopped = true;
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+            subscribers.remove(this);
+            if (dropped > 0) {
+                logger.debug("Live feed subscriber {} dropped {} readings while behind", id, dropped);
+            }
+        }
+
+        @Override
+        public void close() {
+            stop();
+        }
+    }
+}
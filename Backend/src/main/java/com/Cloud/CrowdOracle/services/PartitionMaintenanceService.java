@@ -0,0 +1,167 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.config.PartitionConfig;
+import com.Cloud.CrowdOracle.events.CrowdDataImportedEvent;
+import com.Cloud.CrowdOracle.repository.CrowdDataPartitionRepository;
+import com.Cloud.CrowdOracle.repository.CrowdDataPartitionRepository.Partition;
+import com.Cloud.CrowdOracle.repository.PartitionInterval;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps crowd_data range-partitioned on entry_time: converts an unpartitioned table on first start,
+ * creates the current and upcoming partitions ahead of time, and enforces retention by dropping
+ * whole partitions. Runs before CrowdDataService is created and then daily.
+ */
+@Service
+public class PartitionMaintenanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+
+    private final PartitionConfig partitionConfig;
+    private final CrowdDataPartitionRepository partitionRepository;
+    private final CrowdDataStatistics crowdDataStatistics;
+    private final RecentReadingBuffer recentReadingBuffer;
+    private final CrowdDataChunkService crowdDataChunkService;
+    private final CrowdDataVersion crowdDataVersion;
+    private final DataSource dataSource;
+
+    @Autowired
+    public PartitionMaintenanceService(PartitionConfig partitionConfig,
+                                       CrowdDataPartitionRepository partitionRepository,
+                                       CrowdDataStatistics crowdDataStatistics,
+                                       RecentReadingBuffer recentReadingBuffer,
+                                       CrowdDataChunkService crowdDataChunkService,
+                                       CrowdDataVersion crowdDataVersion,
+                                       DataSource dataSource) {
+        this.partitionConfig = partitionConfig;
+        this.partitionRepository = partitionRepository;
+        this.crowdDataStatistics = crowdDataStatistics;
+        this.recentReadingBuffer = recentReadingBuffer;
+        this.crowdDataChunkService = crowdDataChunkService;
+        this.crowdDataVersion = crowdDataVersion;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Convert and prepare crowd_data before anything writes to it. Failing here stops startup:
+     * without the default partition every insert outside a premade range would be rejected.
+     * Creating the upcoming partitions may still fail, the default partition takes those rows.
+     */
+    @PostConstruct
+    public void initialize() {
+        try {
+            if (!partitionRepository.isPartitioned()) {
+                LocalDateTime boundary = PartitionInterval.MONTH.truncate(LocalDateTime.now());
+                logger.info("Converting crowd_data to a partitioned table; existing rows before {} become {}",
+                           boundary, CrowdDataPartitionRepository.LEGACY_PARTITION);
+                partitionRepository.convertToPartitioned(boundary);
+
+                // Recreate the indexes from schema.sql on the new partitioned table
+                new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+            }
+            partitionRepository.createDefaultPartition();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not prepare crowd_data partitions: " + e.getMessage(), e);
+        }
+        maintain();
+    }
+
+    /**
+     * Create missing partitions up to `premake` intervals ahead and drop expired ones
+     */
+    @Scheduled(cron = "${partitioning.maintenance-cron:0 5 0 * * *}")
+    public void maintain() {
+        if (!partitionConfig.isEnabled()) {
+            return;
+        }
+
+        try {
+            createUpcomingPartitions();
+            dropExpiredPartitions();
+        } catch (Exception e) {
+            logger.error("Partition maintenance failed - Error: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImported(CrowdDataImportedEvent event) {
+        // Backfilled history lands in the default partition; give it partitions of its own
+        maintain();
+    }
+
+    private void createUpcomingPartitions() {
+        PartitionInterval interval = partitionConfig.getInterval();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Also cover rows that fell into the default partition (e.g. this month's rows after conversion)
+        LocalDateTime oldestUnpartitioned = partitionRepository.findOldestUnpartitionedEntry();
+        LocalDateTime start = interval.truncate(
+            oldestUnpartitioned != null && oldestUnpartitioned.isBefore(now) ? oldestUnpartitioned : now);
+
+        LocalDateTime end = interval.truncate(now);
+        for (int i = 0; i <= partitionConfig.getPremake(); i++) {
+            end = interval.next(end);
+        }
+
+        List<Partition> partitions = new ArrayList<>(partitionRepository.findPartitions());
+        for (LocalDateTime from = start; from.isBefore(end); from = interval.next(from)) {
+            LocalDateTime to = interval.next(from);
+            LocalDateTime rangeStart = from;
+            if (partitions.stream().anyMatch(partition -> partition.overlaps(rangeStart, to))) {
+                continue;
+            }
+
+            String name = interval.partitionName(from);
+            partitionRepository.createPartition(name, from, to);
+            partitions.add(new Partition(name, from, to, false));
+            logger.info("Created partition {} for [{}, {})", name, from, to);
+        }
+    }
+
+    private void dropExpiredPartitions() {
+        if (partitionConfig.getRetentionDays() <= 0) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(partitionConfig.getRetentionDays());
+        int dropped = 0;
+        LocalDateTime droppedUntil = null;
+        for (Partition partition : partitionRepository.findPartitions()) {
+            if (!partition.isDefault() && partition.to() != null && !partition.to().isAfter(cutoff)) {
+                partitionRepository.dropPartition(partition.name());
+                dropped++;
+                if (droppedUntil == null || partition.to().isAfter(droppedUntil)) {
+                    droppedUntil = partition.to();
+                }
+                logger.info("Dropped partition {} (data before {} is past the {}-day retention)",
+                           partition.name(), partition.to(), partitionConfig.getRetentionDays());
+            }
+        }
+
+        // Whole partitions vanished without delete events, so recompute the running totals
+        // and drop any expired readings still held in memory
+        if (dropped > 0) {
+            // Compacted readings of the dropped ranges go with them
+            int chunks = crowdDataChunkService.deleteBefore(droppedUntil);
+            if (chunks > 0) {
+                logger.info("Dropped {} compacted chunks before {}", chunks, droppedUntil);
+            }
+            crowdDataStatistics.rebuild();
+            recentReadingBuffer.reload();
+            crowdDataVersion.bump();
+        }
+    }
+}
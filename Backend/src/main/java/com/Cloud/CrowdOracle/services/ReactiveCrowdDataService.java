@@ -0,0 +1,105 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.dtos.CrowdDataPage;
+import com.Cloud.CrowdOracle.dtos.PageCursor;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.repository.ReactiveCrowdDataRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Reads behind the v2 API. Rows newer than anything compacted stream straight from R2DBC; once a
+ * page reaches below the compacted range, the rest of it comes from CrowdDataService, which merges
+ * the older rows of crowd_data with decoded chunks at one snapshot. That part runs over JDBC on the
+ * bounded elastic scheduler, so only pages that reach compacted data take a pooled JDBC connection.
+ */
+@Service
+public class ReactiveCrowdDataService {
+
+    private final ReactiveCrowdDataRepository reactiveCrowdDataRepository;
+    private final CrowdDataService crowdDataService;
+    private final CrowdDataChunkService crowdDataChunkService;
+
+    @Autowired
+    public ReactiveCrowdDataService(ReactiveCrowdDataRepository reactiveCrowdDataRepository,
+                                    CrowdDataService crowdDataService,
+                                    CrowdDataChunkService crowdDataChunkService) {
+        this.reactiveCrowdDataRepository = reactiveCrowdDataRepository;
+        this.crowdDataService = crowdDataService;
+        this.crowdDataChunkService = crowdDataChunkService;
+    }
+
+    /**
+     * Newest readings first, starting after the cursor when one is given
+     */
+    public Flux<CrowdData> findPage(PageCursor after, int limit) {
+        return page(reactiveCrowdDataRepository::findPage,
+                    (cursor, count) -> crowdDataService.getCrowdDataPage(cursor.encode(), count), after, limit);
+    }
+
+    public Flux<CrowdData> findByTemperatureRange(Double minTemp, Double maxTemp, PageCursor after, int limit) {
+        return page((cursor, count) -> reactiveCrowdDataRepository.findByTemperatureRange(minTemp, maxTemp, cursor, count),
+                    (cursor, count) -> crowdDataService.getCrowdDataPageByTemperatureRange(minTemp, maxTemp,
+                                                                                          cursor.encode(), count),
+                    after, limit);
+    }
+
+    public Flux<CrowdData> findByPeopleCountRange(Integer minCount, Integer maxCount, PageCursor after, int limit) {
+        return page((cursor, count) -> reactiveCrowdDataRepository.findByPeopleCountRange(minCount, maxCount, cursor, count),
+                    (cursor, count) -> crowdDataService.getCrowdDataPageByPeopleCountRange(minCount, maxCount,
+                                                                                          cursor.encode(), count),
+                    after, limit);
+    }
+
+    /**
+     * Reading by id, from crowd_data or else from the compacted chunks
+     */
+    public Mono<CrowdData> findById(Long id) {
+        return reactiveCrowdDataRepository.findById(id)
+            .switchIfEmpty(blocking(() -> crowdDataChunkService.findById(id).map(CrowdDataChunkService::toEntity)
+                .orElse(null)));
+    }
+
+    public Mono<CrowdData> findLatest() {
+        return findPage(null, 1).next();
+    }
+
+    private Flux<CrowdData> page(BiFunction<PageCursor, Integer, Flux<CrowdData>> query,
+                                 BiFunction<PageCursor, Integer, CrowdDataPage> older, PageCursor after, int limit) {
+        LocalDateTime compactedUntil = crowdDataChunkService.getCompactedUntil();
+        if (compactedUntil == null) {
+            return query.apply(after, limit);
+        }
+
+        // Every compacted reading sorts after this cursor, so rows before it need no merging
+        PageCursor boundary = new PageCursor(compactedUntil, Long.MIN_VALUE);
+        if (after != null && after.entryTime().isBefore(compactedUntil)) {
+            return olderPage(older, after, limit);
+        }
+        AtomicInteger streamed = new AtomicInteger();
+        // The first older row ends the stream; the merged part below fetches it again
+        Flux<CrowdData> newer = query.apply(after, limit)
+            .takeWhile(row -> !row.getEntryTime().isBefore(compactedUntil))
+            .doOnNext(row -> streamed.incrementAndGet());
+        return newer.concatWith(Flux.defer(() -> streamed.get() < limit
+            ? olderPage(older, boundary, limit - streamed.get())
+            : Flux.empty()));
+    }
+
+    private static Flux<CrowdData> olderPage(BiFunction<PageCursor, Integer, CrowdDataPage> older, PageCursor after,
+                                             int limit) {
+        return blocking(() -> older.apply(after, limit).data()).flatMapIterable(rows -> rows);
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> read) {
+        return Mono.fromCallable(read).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,247 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.config.SpoolConfig;
+import com.Cloud.CrowdOracle.dtos.CrowdDataDTO;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.spool.ReadingSpool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Durable hand-off between the serial listener and the database. Readings are appended to
+ * the on-disk spool, which only costs a memory copy, and a replayer thread stores them in
+ * batches whenever the database is reachable, so a database outage or slowdown neither
+ * loses readings nor holds up the serial ports. Replayed batches go through the same deadband
+ * filter and save metrics as the write-behind flusher.
+ */
+@Service
+public class ReadingSpoolService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadingSpoolService.class);
+
+    private final SpoolConfig spoolConfig;
+    private final CrowdDataIngestService crowdDataIngestService;
+    private final MeterRegistry meterRegistry;
+    private final Counter appended;
+    private final Counter replayed;
+    private final Counter quarantined;
+    private final Counter replayFailures;
+
+    private ReadingSpool spool;
+    private Thread replayer;
+    private volatile boolean running;
+
+    @Autowired
+    public ReadingSpoolService(SpoolConfig spoolConfig,
+                               CrowdDataIngestService crowdDataIngestService,
+                               MeterRegistry meterRegistry) {
+        this.spoolConfig = spoolConfig;
+        this.crowdDataIngestService = crowdDataIngestService;
+        this.appended = Counter.builder("crowd.data.spool")
+            .description("Readings written to or replayed from the durable spool")
+            .tag("result", "appended")
+            .register(meterRegistry);
+        this.replayed = Counter.builder("crowd.data.spool")
+            .description("Readings written to or replayed from the durable spool")
+            .tag("result", "replayed")
+            .register(meterRegistry);
+        this.quarantined = Counter.builder("crowd.data.spool")
+            .description("Readings written to or replayed from the durable spool")
+            .tag("result", "quarantined")
+            .register(meterRegistry);
+        this.replayFailures = Counter.builder("crowd.data.spool.replay.failures")
+            .description("Replay batches that could not be stored and will be retried")
+            .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("crowd.data.spool.pending", this, ReadingSpoolService::getPendingCount)
+            .description("Readings in the spool waiting to be stored")
+            .register(meterRegistry);
+
+        if (!spoolConfig.isEnabled()) {
+            logger.info("Reading spool disabled, serial readings are submitted directly");
+            return;
+        }
+
+        Path directory = Path.of(spoolConfig.getDirectory()).toAbsolutePath();
+        try {
+            spool = ReadingSpool.open(directory, spoolConfig.getSegmentBytes());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Cannot open the reading spool in {}, serial readings are submitted directly - Error: {}",
+                        directory, e.getMessage());
+            return;
+        }
+        logger.info("Reading spool open in {} - {} readings waiting to be replayed", directory, spool.getPendingCount());
+    }
+
+    /**
+     * Replay once the application is up; readings spooled during startup wait until then
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startReplayer() {
+        if (spool == null || replayer != null) {
+            return;
+        }
+        running = true;
+        replayer = new Thread(this::runReplayer, "crowd-data-spool-replayer");
+        replayer.setDaemon(true);
+        replayer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (spool == null) {
+            return;
+        }
+        if (replayer != null) {
+            running = false;
+            LockSupport.unpark(replayer);
+            try {
+                replayer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (spool.getPendingCount() > 0) {
+            logger.info("Reading spool closed with {} readings left for the next start", spool.getPendingCount());
+        }
+        spool.close();
+    }
+
+    public boolean isEnabled() {
+        return spool != null;
+    }
+
+    /**
+     * Spool a reading, stamped with the current time; it is stored by the replayer
+     *
+     * @throws IOException if the reading could not be written to the spool
+     */
+    public void append(CrowdDataDTO crowdDataDTO) throws IOException {
+        CrowdData crowdData = CrowdDataService.toEntity(crowdDataDTO);
+        spool.append(new ReadingSpool.Reading(crowdData.getEntryTime(), crowdData.getTemperatureCelsius(),
+                                              crowdData.getTotalPeopleCount(), crowdData.getSourceId()));
+        appended.increment();
+    }
+
+    public double getPendingCount() {
+        return spool != null ? spool.getPendingCount() : 0;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", isEnabled());
+        if (spool != null) {
+            statistics.put("pending", spool.getPendingCount());
+            statistics.put("segments", spool.getSegmentCount());
+        }
+        statistics.put("appended", (long) appended.count());
+        statistics.put("replayed", (long) replayed.count());
+        statistics.put("quarantined", (long) quarantined.count());
+        statistics.put("replayFailures", (long) replayFailures.count());
+        return statistics;
+    }
+
+    private void runReplayer() {
+        long drainIntervalNanos = TimeUnit.MILLISECONDS.toNanos(spoolConfig.getDrainIntervalMs());
+        long retryMs = 0;
+        // The part of a batch not stored yet survives a failed attempt; the deadband filter runs in
+        // each save's transaction and is undone when the save fails, so a retry filters the same way
+        List<ReadingSpool.Reading> batch = null;
+        List<CrowdData> toStore = List.of();
+
+        while (running) {
+            try {
+                if (batch == null) {
+                    batch = spool.peek(spoolConfig.getBatchSize());
+                    if (batch.isEmpty()) {
+                        batch = null;
+                        spool.force();
+                        LockSupport.parkNanos(this, drainIntervalNanos);
+                        continue;
+                    }
+                    toStore = batch.stream().map(ReadingSpoolService::toEntity).toList();
+                }
+                while (!toStore.isEmpty()) {
+                    toStore = toStore.subList(storeLeading(toStore), toStore.size());
+                }
+                spool.commit();
+                boolean drained = batch.size() < spoolConfig.getBatchSize();
+                batch = null;
+
+                if (retryMs > 0) {
+                    logger.info("Database reachable again, replaying {} spooled readings", spool.getPendingCount());
+                    retryMs = 0;
+                }
+                // Caught up: let the next batch collect instead of committing reading by reading
+                if (drained) {
+                    spool.force();
+                    LockSupport.parkNanos(this, drainIntervalNanos);
+                }
+            } catch (Exception e) {
+                replayFailures.increment();
+                if (retryMs == 0) {
+                    logger.warn("Cannot replay spooled readings, retrying with backoff - Error: {}", e.getMessage());
+                    retryMs = spoolConfig.getRetryInitialMs();
+                } else {
+                    logger.debug("Spool replay failed again - Error: {}", e.getMessage());
+                    retryMs = Math.min(retryMs * 2, spoolConfig.getRetryMaxMs());
+                }
+                spool.force();
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(retryMs));
+            }
+        }
+    }
+
+    /**
+     * Store a leading part of the readings and return its length. When the database rejects the
+     * readings themselves, the part tried is halved until the reading it rejects is found; that one is
+     * quarantined (logged and skipped) so the spool moves past it. Transient failures are thrown.
+     */
+    private int storeLeading(List<CrowdData> readings) {
+        try {
+            // Fresh entities on every attempt; a failed save may have assigned ids already
+            crowdDataIngestService.saveBatch(readings.stream().map(CrowdDataService::copyOf).toList());
+            replayed.increment(readings.size());
+            return readings.size();
+        } catch (RuntimeException e) {
+            if (CrowdDataService.isTransientFailure(e)) {
+                throw e;
+            }
+            if (readings.size() == 1) {
+                quarantined.increment();
+                logger.error("Quarantined spooled reading {} rejected by the database - Error: {}",
+                            readings.get(0), e.getMessage());
+                return 1;
+            }
+            return storeLeading(readings.subList(0, readings.size() / 2));
+        }
+    }
+
+    private static CrowdData toEntity(ReadingSpool.Reading reading) {
+        CrowdData crowdData = new CrowdData(null, reading.temperatureCelsius(), reading.totalPeopleCount(),
+                                            reading.entryTime());
+        crowdData.setSourceId(reading.sourceId());
+        return crowdData;
+    }
+}
@@ -0,0 +1,445 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.config.RecentBufferConfig;
+import com.Cloud.CrowdOracle.dtos.CrowdDataRangeStats;
+import com.Cloud.CrowdOracle.dtos.CrowdDataRangeStats.Distribution;
+import com.Cloud.CrowdOracle.dtos.CrowdDataView;
+import com.Cloud.CrowdOracle.dtos.PageCursor;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.events.CrowdDataDeletedEvent;
+import com.Cloud.CrowdOracle.events.CrowdDataImportedEvent;
+import com.Cloud.CrowdOracle.events.CrowdDataSavedEvent;
+import com.Cloud.CrowdOracle.repository.CrowdDataRepository;
+import com.Cloud.CrowdOracle.util.EpochMicros;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Recent-data tier: the newest readings kept in parallel primitive arrays that form one ring,
+ * sorted by (entry time, id). Entry times are epoch microseconds (the precision PostgreSQL stores),
+ * temperatures floats and source ids indexes into a small dictionary, so the window costs about
+ * 24 bytes per reading and no objects. Filled from the database at startup and fed after every
+ * committed save. Reads inside the buffered window are answered by binary search on time; reads
+ * reaching further back return empty and the caller falls through to the repository.
+ */
+@Component
+public class RecentReadingBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecentReadingBuffer.class);
+
+    // completeAfter value once every reading in the table is buffered
+    private static final long EVERYTHING = Long.MIN_VALUE;
+
+    private static final int NO_SOURCE = -1;
+
+    private final RecentBufferConfig recentBufferConfig;
+    private final CrowdDataRepository crowdDataRepository;
+    private final CrowdDataChunkService crowdDataChunkService;
+    private final MeterRegistry meterRegistry;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Counter hits;
+    private final Counter misses;
+
+    private final int capacity;
+    private final long[] entryTimes;
+    private final long[] ids;
+    private final float[] temperatures;
+    private final int[] peopleCounts;
+    private final int[] sources;
+    private final List<String> sourceNames = new ArrayList<>();
+    private final Map<String, Integer> sourceIndexes = new HashMap<>();
+
+    // Ring layout: logical index i lives at (head + i) % capacity, 0 is the oldest reading
+    private int head;
+    private int size;
+
+    // Every reading with an entry time after this (epoch micros) is in the buffer
+    private long completeAfter = Long.MAX_VALUE;
+
+    private volatile boolean ready;
+
+    @Autowired
+    public RecentReadingBuffer(RecentBufferConfig recentBufferConfig,
+                               CrowdDataRepository crowdDataRepository,
+                               CrowdDataChunkService crowdDataChunkService,
+                               MeterRegistry meterRegistry) {
+        this.recentBufferConfig = recentBufferConfig;
+        this.crowdDataRepository = crowdDataRepository;
+        this.crowdDataChunkService = crowdDataChunkService;
+        this.capacity = recentBufferConfig.isEnabled() ? Math.max(1, recentBufferConfig.getCapacity()) : 0;
+        this.entryTimes = new long[capacity];
+        this.ids = new long[capacity];
+        this.temperatures = new float[capacity];
+        this.peopleCounts = new int[capacity];
+        this.sources = new int[capacity];
+
+        this.hits = Counter.builder("crowd.data.recent.reads")
+            .description("Reads answered by the in-memory recent tier, or passed on to the database")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("crowd.data.recent.reads")
+            .description("Reads answered by the in-memory recent tier, or passed on to the database")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("crowd.data.recent.buffered", this, RecentReadingBuffer::getBufferedCount)
+            .description("Readings held by the in-memory recent tier")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reload();
+    }
+
+    /**
+     * Refill the buffer with the newest readings from the database; reads fall through meanwhile
+     */
+    public void reload() {
+        if (capacity == 0) {
+            return;
+        }
+
+        ready = false;
+        lock.writeLock().lock();
+        try {
+            head = 0;
+            size = 0;
+            List<CrowdDataView> newest = crowdDataRepository.findNewestViews(Limit.of(capacity));
+            for (int i = newest.size() - 1; i >= 0; i--) {
+                CrowdDataView row = newest.get(i);
+                insert(EpochMicros.of(row.entryTime()), row.id(), row.temperatureCelsius(), row.totalPeopleCount(),
+                       row.sourceId());
+            }
+            completeAfter = newest.size() < capacity
+                ? EVERYTHING
+                : EpochMicros.of(newest.get(newest.size() - 1).entryTime());
+            // Compacted readings are not loaded, so only the window after them is complete
+            LocalDateTime compactedUntil = crowdDataChunkService.getCompactedUntil();
+            if (compactedUntil != null) {
+                completeAfter = Math.max(completeAfter, EpochMicros.of(compactedUntil) - 1);
+            }
+            ready = true;
+            logger.info("Recent reading buffer loaded with {} readings", size);
+        } catch (Exception e) {
+            logger.warn("Could not load recent reading buffer, reads go to the database - Error: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaved(CrowdDataSavedEvent event) {
+        if (capacity == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (CrowdData saved : event.getSavedData()) {
+                insert(EpochMicros.of(saved.getEntryTime()), saved.getId(), saved.getTemperatureCelsius(),
+                       saved.getTotalPeopleCount(), saved.getSourceId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(CrowdDataDeletedEvent event) {
+        if (capacity == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.isAllDeleted()) {
+                head = 0;
+                size = 0;
+                completeAfter = EVERYTHING;
+                return;
+            }
+            for (CrowdData deleted : event.getDeletedData()) {
+                remove(EpochMicros.of(deleted.getEntryTime()), deleted.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImported(CrowdDataImportedEvent event) {
+        // Imported rows have no ids here; reload if any of them fall inside the buffered window
+        if (capacity > 0 && EpochMicros.of(event.getLatestEntryTime()) > completeAfter) {
+            reload();
+        }
+    }
+
+    /**
+     * Most recent reading from one source, if it is in the buffer
+     */
+    public Optional<CrowdData> latest(String sourceId) {
+        if (!ready) {
+            return miss();
+        }
+        lock.readLock().lock();
+        try {
+            Integer source = sourceIndexes.get(sourceId);
+            if (source != null) {
+                for (int i = size - 1; i >= 0; i--) {
+                    int slot = slot(i);
+                    if (sources[slot] == source) {
+                        return hit(toEntity(slot));
+                    }
+                }
+            }
+            return miss();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to count readings strictly before the cursor (or the newest when null), newest first.
+     * Empty unless the buffer is known to hold all of them.
+     */
+    public Optional<List<CrowdData>> newest(PageCursor after, int count) {
+        if (!ready) {
+            return miss();
+        }
+        lock.readLock().lock();
+        try {
+            int end = after == null ? size : lowerBound(EpochMicros.of(after.entryTime()), after.id());
+            List<CrowdData> page = new ArrayList<>(Math.min(count, end));
+            for (int i = end - 1; i >= 0 && page.size() < count; i--) {
+                int slot = slot(i);
+                if (entryTimes[slot] <= completeAfter) {
+                    return miss();
+                }
+                page.add(toEntity(slot));
+            }
+            if (page.size() < count && completeAfter != EVERYTHING) {
+                return miss();
+            }
+            return hit(page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Readings with entry time in [startTime, endTime] (inclusive, like BETWEEN), oldest first
+     */
+    public Optional<List<CrowdDataView>> range(LocalDateTime startTime, LocalDateTime endTime) {
+        if (!ready) {
+            return miss();
+        }
+        lock.readLock().lock();
+        try {
+            long from = EpochMicros.of(startTime);
+            if (!covers(from)) {
+                return miss();
+            }
+            int lo = lowerBound(from, Long.MIN_VALUE);
+            int hi = lowerBound(EpochMicros.of(endTime), Long.MAX_VALUE);
+            List<CrowdDataView> rows = new ArrayList<>(Math.max(0, hi - lo));
+            for (int i = lo; i < hi; i++) {
+                int slot = slot(i);
+                rows.add(new CrowdDataView(ids[slot], temperature(slot), peopleCounts[slot],
+                                           EpochMicros.toLocalDateTime(entryTimes[slot]), sourceName(slot)));
+            }
+            return hit(rows);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Same figures as CrowdDataStatsRepository for [startTime, endTime); a null end is open,
+     * a null start is only served when the whole table is buffered
+     */
+    public Optional<CrowdDataRangeStats> stats(LocalDateTime startTime, LocalDateTime endTime) {
+        if (!ready) {
+            return miss();
+        }
+        int[] people;
+        double[] temperature;
+        lock.readLock().lock();
+        try {
+            long from = startTime != null ? EpochMicros.of(startTime) : Long.MIN_VALUE;
+            if (startTime == null ? completeAfter != EVERYTHING : !covers(from)) {
+                return miss();
+            }
+            int lo = lowerBound(from, Long.MIN_VALUE);
+            int hi = endTime != null ? lowerBound(EpochMicros.of(endTime), Long.MIN_VALUE) : size;
+            int n = Math.max(0, hi - lo);
+            people = new int[n];
+            temperature = new double[n];
+            for (int i = 0; i < n; i++) {
+                int slot = slot(lo + i);
+                people[i] = peopleCounts[slot];
+                temperature[i] = temperature(slot);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (people.length == 0) {
+            return hit(new CrowdDataRangeStats(startTime, endTime, 0, null, null));
+        }
+        double[] peopleValues = new double[people.length];
+        for (int i = 0; i < people.length; i++) {
+            peopleValues[i] = people[i];
+        }
+        return hit(new CrowdDataRangeStats(startTime, endTime, people.length,
+                                           Distribution.of(peopleValues, 1), Distribution.of(temperature, 100)));
+    }
+
+    public int getBufferedCount() {
+        return size;
+    }
+
+    /**
+     * Place a reading by (entry time, id); must hold the write lock
+     */
+    private void insert(long entryTime, Long id, Double temperature, Integer peopleCount, String sourceId) {
+        long key = id != null ? id : Long.MAX_VALUE;
+        int position = lowerBound(entryTime, key);
+        if (position < size) {
+            int slot = slot(position);
+            if (entryTimes[slot] == entryTime && ids[slot] == key) {
+                return; // already buffered (a save racing with reload)
+            }
+        }
+
+        if (size == capacity) {
+            if (position == 0) {
+                // Older than everything kept: it stays in the database only
+                completeAfter = Math.max(completeAfter, entryTime);
+                return;
+            }
+            completeAfter = Math.max(completeAfter, entryTimes[head]);
+            head = (head + 1) % capacity;
+            size--;
+            position--;
+        }
+
+        // Usually an append; late commits shift the few newer readings up by one
+        for (int i = size; i > position; i--) {
+            copy(slot(i - 1), slot(i));
+        }
+        int slot = slot(position);
+        entryTimes[slot] = entryTime;
+        ids[slot] = key;
+        temperatures[slot] = temperature.floatValue();
+        peopleCounts[slot] = peopleCount;
+        sources[slot] = sourceIndex(sourceId);
+        size++;
+    }
+
+    private void remove(long entryTime, Long id) {
+        int position = lowerBound(entryTime, id);
+        if (position >= size) {
+            return;
+        }
+        int slot = slot(position);
+        if (entryTimes[slot] != entryTime || ids[slot] != id) {
+            return;
+        }
+        for (int i = position; i < size - 1; i++) {
+            copy(slot(i + 1), slot(i));
+        }
+        size--;
+    }
+
+    /**
+     * First logical index whose (entry time, id) is not less than the key
+     */
+    private int lowerBound(long entryTime, long id) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int slot = slot(mid);
+            if (entryTimes[slot] < entryTime || (entryTimes[slot] == entryTime && ids[slot] < id)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private boolean covers(long from) {
+        return completeAfter == EVERYTHING || from > completeAfter;
+    }
+
+    private int slot(int index) {
+        int slot = head + index;
+        return slot >= capacity ? slot - capacity : slot;
+    }
+
+    private void copy(int from, int to) {
+        entryTimes[to] = entryTimes[from];
+        ids[to] = ids[from];
+        temperatures[to] = temperatures[from];
+        peopleCounts[to] = peopleCounts[from];
+        sources[to] = sources[from];
+    }
+
+    private int sourceIndex(String sourceId) {
+        if (sourceId == null) {
+            return NO_SOURCE;
+        }
+        return sourceIndexes.computeIfAbsent(sourceId, name -> {
+            sourceNames.add(name);
+            return sourceNames.size() - 1;
+        });
+    }
+
+    private String sourceName(int slot) {
+        return sources[slot] == NO_SOURCE ? null : sourceNames.get(sources[slot]);
+    }
+
+    // Stored as DECIMAL(5,2), so rounding the float back to 2 decimals gives the exact column value
+    private double temperature(int slot) {
+        return Math.round(temperatures[slot] * 100.0) / 100.0;
+    }
+
+    private CrowdData toEntity(int slot) {
+        CrowdData crowdData = new CrowdData(ids[slot], temperature(slot), peopleCounts[slot],
+                                            EpochMicros.toLocalDateTime(entryTimes[slot]));
+        crowdData.setSourceId(sourceName(slot));
+        return crowdData;
+    }
+
+    private <T> Optional<T> hit(T value) {
+        hits.increment();
+        return Optional.of(value);
+    }
+
+    private <T> Optional<T> miss() {
+        misses.increment();
+        return Optional.empty();
+    }
+}
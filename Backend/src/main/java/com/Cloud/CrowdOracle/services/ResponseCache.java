@@ -0,0 +1,142 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.config.ResponseCacheConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches serialized JSON responses of the read endpoints, keyed by path and query parameters.
+ * An entry is only served while the {@link CrowdDataVersion} it was built at is current, so any
+ * write makes every cached response stale at once without tracking which ones it touched.
+ * Responses carry a strong ETag (a hash of the body) and Last-Modified (the time of the last
+ * change); Spring answers a matching If-None-Match or If-Modified-Since with 304 before
+ * writing the body, so a dashboard polling an unchanged table costs neither a query nor
+ * any serialization. A cached body keeps the timestamp of when it was built; Last-Modified is
+ * what tells a client how current the data is.
+ */
+@Service
+public class ResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    // ETags are the first 128 bits of the SHA-256 of the body
+    private static final int ETAG_BYTES = 16;
+
+    private final ResponseCacheConfig responseCacheConfig;
+    private final CrowdDataVersion crowdDataVersion;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public ResponseCache(ResponseCacheConfig responseCacheConfig,
+                         CrowdDataVersion crowdDataVersion,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        this.responseCacheConfig = responseCacheConfig;
+        this.crowdDataVersion = crowdDataVersion;
+        this.objectMapper = objectMapper;
+        this.entries = Caffeine.newBuilder()
+            .maximumWeight(responseCacheConfig.getMaxBytes())
+            .weigher((String key, Entry entry) -> key.length() + entry.body().length)
+            .expireAfterAccess(Duration.ofSeconds(responseCacheConfig.getIdleSeconds()))
+            .build();
+        this.hits = Counter.builder("crowd.data.response.cache")
+            .description("Read requests answered from or added to the response cache")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("crowd.data.response.cache")
+            .description("Read requests answered from or added to the response cache")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("crowd.data.response.cache.entries", entries, Cache::estimatedSize)
+            .description("Responses held in the response cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Return the cached response for this request if the data has not changed since it was built,
+     * otherwise build it with the loader. Only 200 responses are cached; anything else is returned as is.
+     */
+    public ResponseEntity<?> get(HttpServletRequest request, Supplier<? extends ResponseEntity<?>> loader) {
+        if (!responseCacheConfig.isEnabled()) {
+            return loader.get();
+        }
+
+        // Read the version before the data: a write racing with the loader leaves the entry
+        // under the old version, so the next request rebuilds it instead of serving it
+        CrowdDataVersion.Version version = crowdDataVersion.current();
+        String key = key(request);
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null && entry.version() == version.number()) {
+            hits.increment();
+            return response(entry);
+        }
+
+        misses.increment();
+        ResponseEntity<?> response = loader.get();
+        if (response.getStatusCode().value() != 200 || response.getBody() == null) {
+            return response;
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(response.getBody());
+            entry = new Entry(version.number(), body, etag(body), version.modifiedAt());
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not cache response for {} - Error: {}", key, e.getMessage());
+            return response;
+        }
+        entries.put(key, entry);
+        return response(entry);
+    }
+
+    private static ResponseEntity<byte[]> response(Entry entry) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(entry.etag())
+            .lastModified(entry.lastModified())
+            .cacheControl(CacheControl.noCache())
+            .body(entry.body());
+    }
+
+    private static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        parameters.forEach((name, values) -> key.append('\n').append(name).append('=').append(Arrays.toString(values)));
+        return key.toString();
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + HexFormat.of().formatHex(digest, 0, ETAG_BYTES) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Entry(long version, byte[] body, String etag, Instant lastModified) {}
+}
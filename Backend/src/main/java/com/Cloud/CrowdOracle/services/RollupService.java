@@ -0,0 +1,357 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.customExceptions.InvalidCrowdDataException;
+import com.Cloud.CrowdOracle.dtos.RollupBucket;
+import com.Cloud.CrowdOracle.dtos.SeriesPoint;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import com.Cloud.CrowdOracle.events.CrowdDataDeletedEvent;
+import com.Cloud.CrowdOracle.events.CrowdDataImportedEvent;
+import com.Cloud.CrowdOracle.events.CrowdDataSavedEvent;
+import com.Cloud.CrowdOracle.repository.CrowdDataRepository;
+import com.Cloud.CrowdOracle.repository.CrowdDataRollupRepository;
+import com.Cloud.CrowdOracle.repository.RollupGranularity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Maintains the minute/hour/day rollup tables and serves downsampled series from them.
+ * Committed readings are pre-aggregated in memory and upserted every few seconds, so
+ * the rollups trail the raw table by at most one flush interval. On startup the current
+ * day is recomputed from raw rows to cover deltas lost by an unclean shutdown.
+ * <p>
+ * A rebuild replaces buckets with a snapshot of the raw rows in one transaction while flushes
+ * wait. Pending deltas of the rebuilt buckets are dropped when it starts, and readings committed
+ * while it runs are held back and only added as deltas if the snapshot did not see them, so
+ * every reading is counted exactly once.
+ */
+@Service
+public class RollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupService.class);
+
+    // Upper bound on points in one series response
+    public static final int MAX_POINTS = 2000;
+
+    // Target when the caller lets us pick the bucket size
+    private static final int AUTO_TARGET_POINTS = 1000;
+
+    private final CrowdDataRollupRepository rollupRepository;
+    private final CrowdDataRepository crowdDataRepository;
+    private final CrowdDataChunkService crowdDataChunkService;
+    private final CrowdDataVersion crowdDataVersion;
+    // Both start their own transaction: the after-commit listeners would otherwise join the finished one
+    private final TransactionTemplate snapshotTransaction;
+    private final TransactionTemplate clearTransaction;
+    private final Map<BucketKey, RollupBucket> pending = new ConcurrentHashMap<>();
+
+    // Held by flushes and rebuilds, which both write the rollup tables
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Read side taken by committed saves adding deltas, write side while a rebuild starts or ends
+    private final ReadWriteLock deltaLock = new ReentrantReadWriteLock();
+    private Rebuild rebuilding;
+
+    @Autowired
+    public RollupService(CrowdDataRollupRepository rollupRepository,
+                         CrowdDataRepository crowdDataRepository,
+                         CrowdDataChunkService crowdDataChunkService,
+                         CrowdDataVersion crowdDataVersion,
+                         PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.crowdDataRepository = crowdDataRepository;
+        this.crowdDataChunkService = crowdDataChunkService;
+        this.crowdDataVersion = crowdDataVersion;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.clearTransaction = new TransactionTemplate(transactionManager);
+        this.clearTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            LocalDateTime latestBucket = rollupRepository.findLatestBucketStart(RollupGranularity.MINUTE);
+            LocalDateTime from = latestBucket != null
+                ? RollupGranularity.DAY.truncate(latestBucket)
+                : crowdDataRepository.findEarliestEntryTime();
+            if (from != null) {
+                rebuild(from, LocalDateTime.now());
+                logger.info("Rollup tables recomputed from {}", from);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not initialize rollup tables - Error: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaved(CrowdDataSavedEvent event) {
+        deltaLock.readLock().lock();
+        try {
+            for (CrowdData saved : event.getSavedData()) {
+                if (rebuilding != null && rebuilding.covers(saved.getEntryTime())) {
+                    rebuilding.committed().add(saved);
+                } else {
+                    addDelta(saved, null);
+                }
+            }
+        } finally {
+            deltaLock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(CrowdDataDeletedEvent event) {
+        if (event.isAllDeleted()) {
+            writeLock.lock();
+            try {
+                pending.clear();
+                clearTransaction.executeWithoutResult(status -> {
+                    for (RollupGranularity granularity : RollupGranularity.values()) {
+                        rollupRepository.deleteAll(granularity);
+                    }
+                });
+            } finally {
+                writeLock.unlock();
+            }
+            crowdDataVersion.bump();
+            return;
+        }
+
+        // Min/max cannot be decremented, so recompute the affected buckets from raw rows
+        for (CrowdData deleted : event.getDeletedData()) {
+            rebuild(deleted.getEntryTime(), deleted.getEntryTime());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImported(CrowdDataImportedEvent event) {
+        rebuild(event.getEarliestEntryTime(), event.getLatestEntryTime());
+    }
+
+    /**
+     * Write pending deltas to the rollup tables
+     */
+    @Scheduled(fixedDelayString = "${rollup.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            Map<RollupGranularity, List<RollupBucket>> batches = new EnumMap<>(RollupGranularity.class);
+            for (BucketKey key : new ArrayList<>(pending.keySet())) {
+                RollupBucket bucket = pending.remove(key);
+                if (bucket != null) {
+                    batches.computeIfAbsent(key.granularity(), g -> new ArrayList<>()).add(bucket);
+                }
+            }
+
+            batches.forEach((granularity, buckets) -> {
+                try {
+                    rollupRepository.upsert(granularity, buckets);
+                } catch (Exception e) {
+                    logger.error("Failed to flush {} {} rollup buckets, will retry - Error: {}",
+                                buckets.size(), granularity, e.getMessage());
+                    buckets.forEach(bucket -> pending.merge(new BucketKey(granularity, bucket.bucketStart()),
+                                                            bucket, RollupBucket::merge));
+                }
+            });
+        } finally {
+            writeLock.unlock();
+        }
+        // Series responses read the rollup tables, which only change here
+        crowdDataVersion.bump();
+    }
+
+    /**
+     * Recompute all rollups covering [startTime, endTime] from raw rows and compacted chunks,
+     * in one repeatable-read transaction so both are read at the same snapshot
+     */
+    public void rebuild(LocalDateTime startTime, LocalDateTime endTime) {
+        Rebuild rebuild = new Rebuild(startTime, endTime, new ConcurrentLinkedQueue<>());
+        writeLock.lock();
+        try {
+            // Deltas already pending were committed before the snapshot, which counts them
+            deltaLock.writeLock().lock();
+            try {
+                pending.keySet().removeIf(key -> rebuild.covers(key.granularity(), key.bucketStart()));
+                rebuilding = rebuild;
+            } finally {
+                deltaLock.writeLock().unlock();
+            }
+
+            try {
+                snapshotTransaction.executeWithoutResult(status -> {
+                    for (RollupGranularity granularity : RollupGranularity.values()) {
+                        LocalDateTime from = granularity.truncate(startTime);
+                        LocalDateTime to = granularity.truncate(endTime).plus(granularity.getDuration());
+                        rollupRepository.rebuild(granularity, from, to);
+
+                        List<RollupBucket> compacted = crowdDataChunkService.rollup(granularity, from, to);
+                        if (!compacted.isEmpty()) {
+                            rollupRepository.upsert(granularity, compacted);
+                        }
+                    }
+                    // Still inside the snapshot: readings it did not see become deltas
+                    deltaLock.writeLock().lock();
+                    try {
+                        releaseCommitted(rebuild, true);
+                    } finally {
+                        deltaLock.writeLock().unlock();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Nothing was replaced; keep every held-back reading as a delta
+                deltaLock.writeLock().lock();
+                try {
+                    releaseCommitted(rebuild, false);
+                } finally {
+                    deltaLock.writeLock().unlock();
+                }
+                throw e;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        crowdDataVersion.bump();
+    }
+
+    private void releaseCommitted(Rebuild rebuild, boolean replaced) {
+        if (rebuilding != rebuild) {
+            return;
+        }
+        rebuilding = null;
+        List<CrowdData> committed = new ArrayList<>(rebuild.committed());
+        if (committed.isEmpty()) {
+            return;
+        }
+        Set<Long> seen = replaced
+            ? rollupRepository.findExistingIds(committed.stream().map(CrowdData::getId).toList())
+            : Set.of();
+        for (CrowdData saved : committed) {
+            addDelta(saved, seen.contains(saved.getId()) ? rebuild : null);
+        }
+    }
+
+    /**
+     * Add a reading to the pending deltas, except for granularities whose buckets the given rebuild
+     * already counted it in
+     */
+    private void addDelta(CrowdData saved, Rebuild countedBy) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDateTime bucketStart = granularity.truncate(saved.getEntryTime());
+            if (countedBy == null || !countedBy.covers(granularity, bucketStart)) {
+                pending.merge(new BucketKey(granularity, bucketStart),
+                              RollupBucket.of(saved, bucketStart), RollupBucket::merge);
+            }
+        }
+    }
+
+    /**
+     * Get a downsampled series for [startTime, endTime).
+     * When bucketWidth is null the width is chosen to give at most about 1000 points.
+     * Data is read from the coarsest rollup whose bucket size divides the requested width.
+     */
+    public Series getSeries(LocalDateTime startTime, LocalDateTime endTime, Duration bucketWidth) {
+        if (!endTime.isAfter(startTime)) {
+            throw new InvalidCrowdDataException("'to' must be after 'from'");
+        }
+        Duration range = Duration.between(startTime, endTime);
+        Duration width = bucketWidth != null ? bucketWidth : autoWidth(range);
+
+        RollupGranularity source = coarsestDividing(width);
+        if (source == null) {
+            throw new InvalidCrowdDataException("Bucket size must be a whole number of minutes: " + width);
+        }
+        if (range.dividedBy(width) > MAX_POINTS) {
+            throw new InvalidCrowdDataException("Bucket size " + width + " gives more than " + MAX_POINTS +
+                                                " points for the requested range");
+        }
+
+        List<RollupBucket> rows = rollupRepository.findBuckets(source, source.truncate(startTime), endTime);
+
+        // Re-aggregate into the requested width (rows are ordered, so buckets stay ordered)
+        long widthSeconds = width.toSeconds();
+        Map<LocalDateTime, RollupBucket> merged = new LinkedHashMap<>();
+        for (RollupBucket row : rows) {
+            long epochSeconds = row.bucketStart().toEpochSecond(ZoneOffset.UTC);
+            LocalDateTime start = LocalDateTime.ofEpochSecond(
+                Math.floorDiv(epochSeconds, widthSeconds) * widthSeconds, 0, ZoneOffset.UTC);
+            merged.merge(start, row.withBucketStart(start), RollupBucket::merge);
+        }
+
+        List<SeriesPoint> points = merged.values().stream().map(SeriesPoint::from).toList();
+        return new Series(source, width, points);
+    }
+
+    private static Duration autoWidth(Duration range) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            if (range.dividedBy(granularity.getDuration()) <= AUTO_TARGET_POINTS) {
+                return granularity.getDuration();
+            }
+        }
+        // Longer than ~2.7 years: use multi-day buckets
+        long days = range.toDays() / AUTO_TARGET_POINTS + 1;
+        return Duration.ofDays(days);
+    }
+
+    private static RollupGranularity coarsestDividing(Duration width) {
+        RollupGranularity best = null;
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            Duration size = granularity.getDuration();
+            if (width.compareTo(size) >= 0 && width.toSeconds() % size.toSeconds() == 0) {
+                best = granularity;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Downsampled series together with the rollup it was read from
+     */
+    public record Series(RollupGranularity source, Duration bucketWidth, List<SeriesPoint> points) {}
+
+    private record BucketKey(RollupGranularity granularity, LocalDateTime bucketStart) {}
+
+    /**
+     * Range being rebuilt, with the readings committed into it meanwhile
+     */
+    private record Rebuild(LocalDateTime startTime, LocalDateTime endTime, Queue<CrowdData> committed) {
+
+        boolean covers(RollupGranularity granularity, LocalDateTime bucketStart) {
+            return !bucketStart.isBefore(granularity.truncate(startTime))
+                && !bucketStart.isAfter(granularity.truncate(endTime));
+        }
+
+        // Whether any granularity's rebuilt buckets hold this time; days are the widest
+        boolean covers(LocalDateTime entryTime) {
+            return covers(RollupGranularity.DAY, RollupGranularity.DAY.truncate(entryTime));
+        }
+    }
+}
@@ -2,20 +2,54 @@ package com.Cloud.CrowdOracle.services;
 
 import com.Cloud.CrowdOracle.config.SerialPortConfig;
 import com.Cloud.CrowdOracle.dtos.CrowdDataDTO;
+import com.Cloud.CrowdOracle.serial.BinaryReadingDecoder;
+import com.Cloud.CrowdOracle.serial.CobsFrameDecoder;
+import com.Cloud.CrowdOracle.serial.DeviceIdentity;
+import com.Cloud.CrowdOracle.serial.ReconnectBackoff;
+import com.Cloud.CrowdOracle.serial.SerialLineFramer;
+import com.Cloud.CrowdOracle.serial.SerialReadingParser;
 import com.fazecast.jSerialComm.SerialPort;
 import com.fazecast.jSerialComm.SerialPortDataListener;
 import com.fazecast.jSerialComm.SerialPortEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
 
+/**
+ * Reads sensor data from one or more Arduinos, one virtual thread per port, while a
+ * supervisor thread reconnects ports that are lost, re-plugged or renamed by the OS.
+ * Every reading is tagged with the port it came from, checked against the same rules as
+ * readings posted over REST and written to the durable spool, or handed to the shared
+ * ingest pipeline when the spool is disabled.
+ */
 @Service
 @ConditionalOnProperty(name = "serial.enabled", havingValue = "true", matchIfMissing = false)
 public class SerialCommunicationService {
@@ -23,178 +57,782 @@ public class SerialCommunicationService {
     private static final Logger logger = LoggerFactory.getLogger(SerialCommunicationService.class);
 
     private final SerialPortConfig serialPortConfig;
-    private final CrowdDataService crowdDataService;
-    private final ObjectMapper objectMapper;
+    private final CrowdDataIngestService crowdDataIngestService;
+    private final ReadingSpoolService readingSpoolService;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
 
-    private SerialPort comPort;
-    private StringBuilder dataBuffer = new StringBuilder();
+    // Keyed by the port name a device was first seen under; kept across reconnects and renames
+    // so counters, gap history and the source id of its readings stay the same
+    private final Map<String, PortReader> readers = new ConcurrentHashMap<>();
+
+    // Last enumeration, refreshed by the supervisor so request threads never touch the ports
+    private volatile String[] availablePorts = new String[0];
+    private volatile boolean reconnectRequested;
+    private volatile boolean running;
+    private volatile Thread supervisor;
+
+    // Only touched by the supervisor thread
+    private Map<String, SerialPort> lastScan;
 
     @Autowired
-    public SerialCommunicationService(SerialPortConfig serialPortConfig, 
-                                       CrowdDataService crowdDataService) {
+    public SerialCommunicationService(SerialPortConfig serialPortConfig,
+                                       CrowdDataIngestService crowdDataIngestService,
+                                       ReadingSpoolService readingSpoolService,
+                                       Validator validator,
+                                       MeterRegistry meterRegistry) {
         this.serialPortConfig = serialPortConfig;
-        this.crowdDataService = crowdDataService;
-        this.objectMapper = new ObjectMapper();
+        this.crowdDataIngestService = crowdDataIngestService;
+        this.readingSpoolService = readingSpoolService;
+        this.validator = validator;
+        this.meterRegistry = meterRegistry;
     }
 
     @PostConstruct
     public void init() {
         logger.info("Initializing Serial Communication Service...");
-        
-        String portName = serialPortConfig.getPort().getName();
-        int baudRate = serialPortConfig.getPort().getBaudrate();
-        
-        logger.info("Attempting to connect to port: {} with baud rate: {}", portName, baudRate);
-        
-        // List available ports for debugging
-        listAvailablePorts();
-        
-        // Try to find and open the configured port
-        comPort = SerialPort.getCommPort(portName);
-        
-        if (comPort == null) {
-            logger.error("Serial port {} not found!", portName);
-            return;
-        }
-        
-        // Configure port settings
-        comPort.setBaudRate(baudRate);
-        comPort.setNumDataBits(8);
-        comPort.setNumStopBits(SerialPort.ONE_STOP_BIT);
-        comPort.setParity(SerialPort.NO_PARITY);
-        comPort.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, 0, 0);
-        
-        // Open the port
-        if (comPort.openPort()) {
-            logger.info("Successfully opened serial port: {}", portName);
-            startListening();
-        } else {
-            logger.error("Failed to open serial port: {}. Check if another application is using it.", portName);
+
+        running = true;
+        supervisor = new Thread(this::supervise, "serial-supervisor");
+        supervisor.setDaemon(true);
+        supervisor.start();
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        running = false;
+        Thread thread = supervisor;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
+        readers.values().forEach(reader -> reader.close(LinkState.CLOSED, "shutdown"));
     }
 
-    private void listAvailablePorts() {
+    /**
+     * Keeps the configured devices connected: notices lost ports (disconnect events, read
+     * failures, ports gone from the enumeration), reopens them when they come back, under a
+     * new name if their USB identity says so, and picks up newly plugged devices that match
+     * the configuration. Woken early by disconnect events and reconnect requests.
+     */
+    private void supervise() {
+        long scanIntervalNanos = TimeUnit.MILLISECONDS.toNanos(serialPortConfig.getReconnect().getScanIntervalMs());
+        while (running) {
+            long waitNanos = scanIntervalNanos;
+            try {
+                waitNanos = Math.min(waitNanos, supervisePass());
+            } catch (Exception e) {
+                logger.error("Serial supervisor pass failed - Error: {}", e.getMessage());
+            }
+            if (running) {
+                LockSupport.parkNanos(this, Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(10)));
+            }
+        }
+    }
+
+    /**
+     * One supervisor pass; returns how long until the next reopen attempt is due
+     */
+    private long supervisePass() {
+        boolean firstPass = lastScan == null;
         SerialPort[] ports = SerialPort.getCommPorts();
-        logger.info("Available serial ports:");
+        Map<String, SerialPort> present = new LinkedHashMap<>();
         for (SerialPort port : ports) {
-            logger.info("  - {} ({})", port.getSystemPortName(), port.getDescriptivePortName());
+            present.put(port.getSystemPortName(), port);
         }
-        if (ports.length == 0) {
-            logger.warn("No serial ports found on this system!");
+        if (lastScan == null) {
+            listAvailablePorts(ports);
+        } else {
+            logPortChanges(lastScan, present);
         }
-    }
+        lastScan = present;
+        availablePorts = describe(ports);
 
-    private void startListening() {
-        comPort.addDataListener(new SerialPortDataListener() {
-            @Override
-            public int getListeningEvents() {
-                return SerialPort.LISTENING_EVENT_DATA_RECEIVED;
+        if (reconnectRequested) {
+            reconnectRequested = false;
+            for (PortReader reader : readers.values()) {
+                reader.close(LinkState.DISCONNECTED, "reconnect requested");
+                reader.resetBackoff();
             }
+        }
 
-            @Override
-            public void serialEvent(SerialPortEvent event) {
-                if (event.getEventType() != SerialPort.LISTENING_EVENT_DATA_RECEIVED) {
-                    return;
+        // Connected readers whose device went away
+        for (PortReader reader : readers.values()) {
+            String lost = reader.checkLost(present);
+            if (lost != null) {
+                logger.warn("Serial port {} lost: {}", reader.getName(), lost);
+                reader.close(LinkState.DISCONNECTED, lost);
+            }
+        }
+
+        Set<String> claimed = new HashSet<>();
+        readers.values().stream().filter(PortReader::isConnected).forEach(reader -> claimed.add(reader.getBoundPort()));
+
+        // Disconnected readers whose device is back, possibly under another name
+        long now = System.nanoTime();
+        long nextAttempt = Long.MAX_VALUE;
+        for (PortReader reader : sortedReaders()) {
+            if (reader.isConnected()) {
+                continue;
+            }
+            if (!reader.isDue(now)) {
+                nextAttempt = Math.min(nextAttempt, reader.getNextAttemptNanos() - now);
+                continue;
+            }
+            SerialPort port = findDevice(reader, present, claimed);
+            if (port == null) {
+                continue;
+            }
+            claimed.add(port.getSystemPortName());
+            if (!reader.open(port, present.containsKey(port.getSystemPortName()))) {
+                nextAttempt = Math.min(nextAttempt, reader.getNextAttemptNanos() - now);
+            }
+        }
+
+        // Devices matching the configuration that no reader knows yet
+        for (Match match : resolvePorts(ports)) {
+            String name = match.port().getSystemPortName();
+            if (claimed.contains(name) || readers.containsKey(name) || belongsToLostReader(match.port())) {
+                continue;
+            }
+            PortReader reader = new PortReader(name, match.identity(), match.configuredName());
+            Gauge.builder("serial.connected", reader, r -> r.isConnected() ? 1 : 0)
+                .description("Whether the port is connected")
+                .tag("port", name)
+                .register(meterRegistry);
+            readers.put(name, reader);
+            claimed.add(name);
+            if (!reader.open(match.port(), present.containsKey(name))) {
+                nextAttempt = Math.min(nextAttempt, reader.getNextAttemptNanos() - now);
+            }
+        }
+
+        if (firstPass && readers.isEmpty()) {
+            logger.error("No serial port matches {}, waiting for a device to be plugged in", configuredPorts());
+        }
+        return nextAttempt;
+    }
+
+    /**
+     * The port to reopen a reader on: its device by USB identity (preferring the old name),
+     * else the port of the same name, else for a configured plain name the name itself
+     */
+    private SerialPort findDevice(PortReader reader, Map<String, SerialPort> present, Set<String> claimed) {
+        DeviceIdentity identity = reader.getIdentity();
+        if (identity != null && identity.isKnown()) {
+            SerialPort sameName = present.get(reader.getBoundPort());
+            if (sameName != null && !claimed.contains(sameName.getSystemPortName())
+                && identity.matches(DeviceIdentity.of(sameName))) {
+                return sameName;
+            }
+            // Identical boards without serial numbers can swap names; the first free one is taken
+            for (SerialPort port : present.values()) {
+                if (!claimed.contains(port.getSystemPortName()) && identity.matches(DeviceIdentity.of(port))) {
+                    return port;
                 }
+            }
+            return null;
+        }
 
-                byte[] newData = event.getReceivedData();
-                String receivedString = new String(newData);
-                
-                // Buffer the data (Arduino sends line by line)
-                dataBuffer.append(receivedString);
-                
-                // Process complete lines (ending with newline)
-                String bufferContent = dataBuffer.toString();
-                int newlineIndex;
-                
-                while ((newlineIndex = bufferContent.indexOf('\n')) != -1) {
-                    String completeLine = bufferContent.substring(0, newlineIndex).trim();
-                    bufferContent = bufferContent.substring(newlineIndex + 1);
-                    
-                    if (!completeLine.isEmpty()) {
-                        processSerialData(completeLine);
+        SerialPort sameName = present.get(reader.getBoundPort());
+        if (sameName != null) {
+            return claimed.contains(sameName.getSystemPortName()) ? null : sameName;
+        }
+        if (reader.getConfiguredName() != null) {
+            // Plain names are opened directly, even if enumeration does not list them
+            try {
+                return SerialPort.getCommPort(reader.getConfiguredName());
+            } catch (Exception e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private boolean belongsToLostReader(SerialPort port) {
+        DeviceIdentity identity = DeviceIdentity.of(port);
+        return readers.values().stream()
+            .filter(reader -> !reader.isConnected() && reader.getIdentity() != null)
+            .anyMatch(reader -> reader.getIdentity().matches(identity));
+    }
+
+    private List<PortReader> sortedReaders() {
+        return readers.values().stream().sorted((a, b) -> a.getName().compareTo(b.getName())).toList();
+    }
+
+    private List<String> configuredPorts() {
+        return serialPortConfig.getPorts().isEmpty()
+            ? List.of(serialPortConfig.getPort().getName())
+            : serialPortConfig.getPorts();
+    }
+
+    /**
+     * Expand the configured names, globs and USB identities into distinct ports
+     */
+    private List<Match> resolvePorts(SerialPort[] available) {
+        Map<String, Match> resolved = new LinkedHashMap<>();
+        for (String entry : configuredPorts()) {
+            DeviceIdentity identity = DeviceIdentity.parse(entry);
+            if (identity != null) {
+                for (SerialPort port : available) {
+                    if (identity.matches(DeviceIdentity.of(port))) {
+                        resolved.putIfAbsent(port.getSystemPortName(), new Match(port, identity, null));
                     }
                 }
-                
-                // Keep remaining incomplete data in buffer
-                dataBuffer = new StringBuilder(bufferContent);
+                continue;
             }
-        });
-        
-        logger.info("Serial port listener started. Waiting for data from Arduino...");
+
+            if (entry.indexOf('*') < 0 && entry.indexOf('?') < 0) {
+                // Plain names are opened directly, even if enumeration does not list them
+                try {
+                    SerialPort port = SerialPort.getCommPort(entry);
+                    resolved.putIfAbsent(port.getSystemPortName(), new Match(port, null, entry));
+                } catch (Exception e) {
+                    logger.debug("Serial port {} not found", entry);
+                }
+                continue;
+            }
+
+            Pattern glob = globToPattern(entry);
+            for (SerialPort port : available) {
+                if (glob.matcher(port.getSystemPortName()).matches() || glob.matcher(port.getSystemPortPath()).matches()) {
+                    resolved.putIfAbsent(port.getSystemPortName(), new Match(port, null, null));
+                }
+            }
+        }
+        return new ArrayList<>(resolved.values());
     }
 
-    private void processSerialData(String jsonData) {
-        logger.debug("Received data: {}", jsonData);
-        
-        try {
-            // Check if it's an error message from Arduino
-            if (jsonData.contains("\"error\"")) {
-                JsonNode errorNode = objectMapper.readTree(jsonData);
-                String errorMessage = errorNode.get("error").asText();
-                logger.warn("Arduino sensor error: {}", errorMessage);
-                return;
+    private static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                regex.append(Pattern.quote(literal.toString())).append(c == '*' ? ".*" : ".");
+                literal.setLength(0);
+            } else {
+                literal.append(c);
             }
-            
-            // Parse the JSON data
-            JsonNode rootNode = objectMapper.readTree(jsonData);
-            
-            Double temperatureCelsius = rootNode.get("temperatureCelsius").asDouble();
-            Integer totalPeopleCount = rootNode.get("totalPeopleCount").asInt();
-            
-            // Create DTO and save to database
-            CrowdDataDTO crowdDataDTO = new CrowdDataDTO(temperatureCelsius, totalPeopleCount);
-            
-            var savedData = crowdDataService.saveCrowdData(crowdDataDTO);
-            logger.info("Saved sensor data - ID: {}, Temperature: {}°C, People Count: {}", 
-                       savedData.getId(), temperatureCelsius, totalPeopleCount);
-            
-        } catch (Exception e) {
-            logger.error("Failed to parse/save serial data: {} - Error: {}", jsonData, e.getMessage());
         }
+        regex.append(Pattern.quote(literal.toString()));
+        return Pattern.compile(regex.toString());
     }
 
-    @PreDestroy
-    public void cleanup() {
-        if (comPort != null && comPort.isOpen()) {
-            comPort.removeDataListener();
-            comPort.closePort();
-            logger.info("Serial port closed successfully.");
+    private void listAvailablePorts(SerialPort[] ports) {
+        logger.info("Available serial ports:");
+        for (SerialPort port : ports) {
+            logger.info("  - {} ({})", port.getSystemPortName(), port.getDescriptivePortName());
+        }
+        if (ports.length == 0) {
+            logger.warn("No serial ports found on this system!");
         }
     }
 
+    private void logPortChanges(Map<String, SerialPort> before, Map<String, SerialPort> now) {
+        for (SerialPort port : now.values()) {
+            if (!before.containsKey(port.getSystemPortName())) {
+                DeviceIdentity identity = DeviceIdentity.of(port);
+                logger.info("Serial port {} appeared ({}{})", port.getSystemPortName(), port.getDescriptivePortName(),
+                           identity.isKnown() ? ", " + identity : "");
+            }
+        }
+        for (String name : before.keySet()) {
+            if (!now.containsKey(name)) {
+                logger.info("Serial port {} disappeared", name);
+            }
+        }
+    }
+
+    private static String[] describe(SerialPort[] ports) {
+        String[] portNames = new String[ports.length];
+        for (int i = 0; i < ports.length; i++) {
+            portNames[i] = ports[i].getSystemPortName() + " - " + ports[i].getDescriptivePortName();
+        }
+        return portNames;
+    }
+
     /**
-     * Get the connection status of the serial port
+     * Get the connection status of the serial ports (true when at least one is open)
      */
     public boolean isConnected() {
-        return comPort != null && comPort.isOpen();
+        return readers.values().stream().anyMatch(PortReader::isConnected);
     }
 
     /**
-     * Get the name of the connected port
+     * Get the names of the connected ports
      */
     public String getPortName() {
-        return comPort != null ? comPort.getSystemPortName() : "Not connected";
+        String names = String.join(", ", getConnectedPorts());
+        return names.isEmpty() ? "Not connected" : names;
+    }
+
+    public List<String> getConnectedPorts() {
+        return readers.values().stream().filter(PortReader::isConnected).map(PortReader::getName).sorted().toList();
+    }
+
+    /**
+     * Ask the supervisor to close and reopen all ports, re-resolving globs; returns without waiting
+     */
+    public void requestReconnect() {
+        reconnectRequested = true;
+        Thread thread = supervisor;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
     }
 
     /**
-     * Manually reconnect to the serial port
+     * Get link quality counters and connection history per port for the status endpoint
      */
-    public boolean reconnect() {
-        cleanup();
-        init();
-        return isConnected();
+    public Map<String, Object> getLinkStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("protocol", serialPortConfig.getProtocol());
+        Map<String, Object> perPort = new LinkedHashMap<>();
+        sortedReaders().forEach(reader -> perPort.put(reader.getName(), reader.getStatistics()));
+        statistics.put("ports", perPort);
+        return statistics;
     }
 
     /**
-     * Get list of available ports as String array
+     * Get list of available ports as String array, as of the supervisor's last scan
      */
     public String[] getAvailablePorts() {
-        SerialPort[] ports = SerialPort.getCommPorts();
-        String[] portNames = new String[ports.length];
-        for (int i = 0; i < ports.length; i++) {
-            portNames[i] = ports[i].getSystemPortName() + " - " + ports[i].getDescriptivePortName();
+        return availablePorts.clone();
+    }
+
+    public enum LinkState {
+        CONNECTED,
+        // Lost or not yet opened; the supervisor reopens it when the device is present
+        DISCONNECTED,
+        CLOSED
+    }
+
+    public record Transition(LocalDateTime at, LinkState state, String port, String reason) {}
+
+    private record Match(SerialPort port, DeviceIdentity identity, String configuredName) {}
+
+    /**
+     * One device: its port, its own framing/parsing state and a virtual thread reading it.
+     * Reads are non-blocking and the thread sleeps while the port is idle, so a waiting reader
+     * costs a parked virtual thread rather than a carrier thread stuck in native code.
+     * Connection state is only changed by the supervisor thread.
+     */
+    private final class PortReader {
+
+        private static final int TRANSITION_HISTORY = 20;
+
+        private final String name;
+        // Port name from the configuration when not found by enumeration or USB identity
+        private final String configuredName;
+
+        // Only touched by this port's reader thread
+        private final byte[] readBuffer = new byte[1024];
+        private final SerialLineFramer lineFramer;
+        private final SerialReadingParser readingParser = new SerialReadingParser();
+        private final CobsFrameDecoder frameDecoder;
+        private final BinaryReadingDecoder binaryDecoder = new BinaryReadingDecoder();
+
+        private final Counter bytesReceived;
+        private final Counter linesReceived;
+        private final Counter malformedReadings;
+        private final Counter invalidReadings;
+        private final Counter sensorErrors;
+        private final Counter reconnects;
+        private final Timer gaps;
+
+        private volatile SerialPort comPort;
+        private volatile Thread thread;
+
+        private volatile LinkState state = LinkState.DISCONNECTED;
+        private volatile String boundPort;
+        private volatile DeviceIdentity identity;
+        // Whether the bound port shows up in the enumeration, so its absence means it was unplugged
+        private volatile boolean enumerated;
+        // Set by the disconnect event or the reader thread, acted on by the supervisor
+        private volatile String lostReason;
+
+        private final ReconnectBackoff backoff;
+        private volatile long nextAttemptNanos;
+        private volatile LocalDateTime disconnectedAt;
+        private volatile Duration lastGap;
+        private volatile Duration totalGap = Duration.ZERO;
+        private final Deque<Transition> transitions = new ArrayDeque<>();
+
+        PortReader(String name, DeviceIdentity identity, String configuredName) {
+            this.name = name;
+            this.boundPort = name;
+            this.identity = identity;
+            this.configuredName = configuredName;
+            this.backoff = new ReconnectBackoff(serialPortConfig.getReconnect().getInitialDelayMs(),
+                                                serialPortConfig.getReconnect().getMaxDelayMs());
+            this.lineFramer = new SerialLineFramer(serialPortConfig.getMaxLineLength());
+            this.frameDecoder = new CobsFrameDecoder(serialPortConfig.getMaxLineLength());
+
+            this.bytesReceived = Counter.builder("serial.bytes.received")
+                .description("Bytes read from the serial port")
+                .baseUnit("bytes")
+                .tag("port", name)
+                .register(meterRegistry);
+            this.linesReceived = Counter.builder("serial.lines.received")
+                .description("Complete lines (or binary frames) received from the Arduino")
+                .tag("port", name)
+                .register(meterRegistry);
+            this.malformedReadings = Counter.builder("serial.parse.failures")
+                .description("Serial messages that could not be turned into a reading")
+                .tags("port", name, "reason", "malformed")
+                .register(meterRegistry);
+            this.invalidReadings = Counter.builder("serial.parse.failures")
+                .description("Serial messages that could not be turned into a reading")
+                .tags("port", name, "reason", "invalid")
+                .register(meterRegistry);
+            this.sensorErrors = Counter.builder("serial.sensor.errors")
+                .description("sensor_failure messages reported by the Arduino")
+                .tag("port", name)
+                .register(meterRegistry);
+            FunctionCounter.builder("serial.parse.failures", lineFramer, SerialLineFramer::getDroppedLines)
+                .description("Serial messages that could not be turned into a reading")
+                .tags("port", name, "reason", "overlong_line")
+                .register(meterRegistry);
+            FunctionCounter.builder("serial.parse.failures", frameDecoder, CobsFrameDecoder::getDroppedFrames)
+                .description("Serial messages that could not be turned into a reading")
+                .tags("port", name, "reason", "bad_framing")
+                .register(meterRegistry);
+            FunctionCounter.builder("serial.frames.missed", binaryDecoder, BinaryReadingDecoder::getMissedFrames)
+                .description("Binary frames lost in transit, detected from sequence gaps")
+                .tag("port", name)
+                .register(meterRegistry);
+            this.reconnects = Counter.builder("serial.reconnects")
+                .description("Times a lost port was opened again")
+                .tag("port", name)
+                .register(meterRegistry);
+            this.gaps = Timer.builder("serial.gap")
+                .description("Time a port was without connection before it was opened again")
+                .tag("port", name)
+                .register(meterRegistry);
+        }
+
+        /**
+         * Open the port and start reading; on failure the next attempt is scheduled with backoff
+         */
+        boolean open(SerialPort port, boolean listed) {
+            int baudRate = serialPortConfig.getPort().getBaudrate();
+            String portName = port.getSystemPortName();
+            if (backoff.getAttempts() == 0) {
+                logger.info("Attempting to connect to port: {} with baud rate: {} ({} protocol)",
+                           portName, baudRate, serialPortConfig.getProtocol());
+            }
+
+            // Configure port settings
+            port.setBaudRate(baudRate);
+            port.setNumDataBits(8);
+            port.setNumStopBits(SerialPort.ONE_STOP_BIT);
+            port.setParity(SerialPort.NO_PARITY);
+            port.setComPortTimeouts(SerialPort.TIMEOUT_NONBLOCKING, 0, 0);
+
+            if (!port.openPort()) {
+                long delayMs = backoff.nextDelayMs();
+                nextAttemptNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+                logger.error("Failed to open serial port: {}. Check if another application is using it. Retrying in {} ms (attempt {})",
+                            portName, delayMs, backoff.getAttempts());
+                return false;
+            }
+
+            DeviceIdentity found = DeviceIdentity.of(port);
+            if (found.isKnown()) {
+                identity = found;
+            }
+            String previousPort = boundPort;
+            boundPort = portName;
+            enumerated = listed;
+            lostReason = null;
+            backoff.reset();
+            nextAttemptNanos = 0;
+
+            // Unplugging the cable is reported right away instead of only through a failed read
+            port.addDataListener(new SerialPortDataListener() {
+                @Override
+                public int getListeningEvents() {
+                    return SerialPort.LISTENING_EVENT_PORT_DISCONNECTED;
+                }
+
+                @Override
+                public void serialEvent(SerialPortEvent event) {
+                    markLost("device disconnected");
+                }
+            });
+
+            comPort = port;
+            lineFramer.reset();
+            frameDecoder.reset();
+            binaryDecoder.reset();
+            thread = Thread.ofVirtual().name("serial-" + name).start(() -> readLoop(port));
+
+            String reason = "opened";
+            if (disconnectedAt != null) {
+                Duration gap = Duration.between(disconnectedAt, LocalDateTime.now());
+                gaps.record(gap);
+                reconnects.increment();
+                lastGap = gap;
+                totalGap = totalGap.plus(gap);
+                disconnectedAt = null;
+                reason = portName.equals(previousPort)
+                    ? String.format("reopened after %.1f s", gap.toMillis() / 1000.0)
+                    : String.format("found again as %s after %.1f s", portName, gap.toMillis() / 1000.0);
+            }
+            transition(LinkState.CONNECTED, reason);
+            logger.info("Successfully opened serial port: {} ({}). Waiting for data from Arduino...", portName, reason);
+            return true;
+        }
+
+        private void readLoop(SerialPort port) {
+            boolean binary = serialPortConfig.getProtocol() == SerialPortConfig.Protocol.BINARY;
+            long pollIntervalMs = serialPortConfig.getPollIntervalMs();
+
+            while (!Thread.currentThread().isInterrupted() && port.isOpen()) {
+                int read = port.readBytes(readBuffer, readBuffer.length);
+                if (read < 0) {
+                    markLost("read failed");
+                    break;
+                }
+                if (read == 0) {
+                    try {
+                        Thread.sleep(pollIntervalMs);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                    continue;
+                }
+
+                bytesReceived.increment(read);
+                if (binary) {
+                    frameDecoder.accept(readBuffer, 0, read, this::processSerialFrame);
+                } else {
+                    lineFramer.accept(readBuffer, 0, read, this::processSerialData);
+                }
+            }
+        }
+
+        private void processSerialData(byte[] line, int offset, int length) {
+            linesReceived.increment();
+            if (logger.isDebugEnabled()) {
+                logger.debug("Received data from {}: {}", name, new String(line, offset, length, StandardCharsets.UTF_8));
+            }
+
+            try {
+                switch (readingParser.parse(line, offset, length)) {
+                    case READING -> submitReading(readingParser.getTemperatureCelsius(),
+                                                  readingParser.getTotalPeopleCount());
+                    case SENSOR_ERROR -> {
+                        sensorErrors.increment();
+                        logger.warn("Arduino sensor error on {}: {}", name, readingParser.getErrorMessage());
+                    }
+                    case MALFORMED -> {
+                        malformedReadings.increment();
+                        logger.warn("Ignoring malformed serial data from {}: {}", name,
+                                    new String(line, offset, length, StandardCharsets.UTF_8));
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("Failed to parse/save serial data from {}: {} - Error: {}", name,
+                            new String(line, offset, length, StandardCharsets.UTF_8), e.getMessage());
+            }
+        }
+
+        private void processSerialFrame(byte[] frame, int offset, int length) {
+            linesReceived.increment();
+            long missedBefore = binaryDecoder.getMissedFrames();
+
+            switch (binaryDecoder.decode(frame, offset, length)) {
+                case READING -> submitReading(binaryDecoder.getTemperatureCelsius(),
+                                              binaryDecoder.getTotalPeopleCount());
+                case SENSOR_ERROR -> {
+                    sensorErrors.increment();
+                    logger.warn("Arduino sensor error on {} (frame {})", name, binaryDecoder.getSequence());
+                }
+                case MALFORMED -> {
+                    malformedReadings.increment();
+                    logger.warn("Dropped corrupt binary frame from {} ({} bytes)", name, length);
+                }
+            }
+
+            long missed = binaryDecoder.getMissedFrames() - missedBefore;
+            if (missed > 0) {
+                logger.warn("Lost {} binary frame(s) from {} before sequence {}", missed, name, binaryDecoder.getSequence());
+            }
+        }
+
+        private void submitReading(double temperatureCelsius, int totalPeopleCount) {
+            CrowdDataDTO crowdDataDTO = new CrowdDataDTO(temperatureCelsius, totalPeopleCount, name);
+            // A reading the database would reject must not reach the spool, where it would block the replay
+            Set<ConstraintViolation<CrowdDataDTO>> violations = validator.validate(crowdDataDTO);
+            if (!violations.isEmpty()) {
+                invalidReadings.increment();
+                logger.warn("Dropped invalid reading from {} - Temperature: {}°C, People Count: {} - {}",
+                           name, temperatureCelsius, totalPeopleCount, violations.iterator().next().getMessage());
+                return;
+            }
+
+            // The spool keeps the reading on disk until the replayer has stored it
+            if (readingSpoolService.isEnabled()) {
+                try {
+                    readingSpoolService.append(crowdDataDTO);
+                    return;
+                } catch (Exception e) {
+                    logger.error("Failed to spool serial data from {}, submitting it directly - Error: {}",
+                                name, e.getMessage());
+                }
+            }
+
+            // Otherwise hand it to the shared ingest pipeline
+            try {
+                crowdDataIngestService.submit(crowdDataDTO).whenComplete((savedData, error) -> {
+                    if (error != null) {
+                        logger.error("Failed to save serial data from {} - Temperature: {}°C, People Count: {} - Error: {}",
+                                    name, temperatureCelsius, totalPeopleCount, error.getMessage());
+                    } else if (savedData.getId() == null) {
+                        logger.debug("Skipped sensor data from {} within the deadband - Temperature: {}°C, People Count: {}",
+                                    name, temperatureCelsius, totalPeopleCount);
+                    } else {
+                        logger.debug("Saved sensor data from {} - ID: {}, Temperature: {}°C, People Count: {}",
+                                    name, savedData.getId(), temperatureCelsius, totalPeopleCount);
+                    }
+                });
+            } catch (Exception e) {
+                logger.error("Failed to save serial data from {} - Temperature: {}°C, People Count: {} - Error: {}",
+                            name, temperatureCelsius, totalPeopleCount, e.getMessage());
+            }
+        }
+
+        void markLost(String reason) {
+            if (lostReason == null) {
+                lostReason = reason;
+            }
+            Thread thread = supervisor;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        /**
+         * Why a connected port counts as lost, or null while it is fine
+         */
+        String checkLost(Map<String, SerialPort> present) {
+            if (state != LinkState.CONNECTED) {
+                return null;
+            }
+            SerialPort port = comPort;
+            if (lostReason != null) {
+                return lostReason;
+            }
+            if (port == null || !port.isOpen()) {
+                return "port closed";
+            }
+            if (enumerated && !present.containsKey(boundPort)) {
+                return "port no longer listed";
+            }
+            return null;
+        }
+
+        void close(LinkState next, String reason) {
+            Thread reader = thread;
+            if (reader != null) {
+                reader.interrupt();
+                try {
+                    reader.join(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                thread = null;
+            }
+            SerialPort port = comPort;
+            comPort = null;
+            if (port != null) {
+                port.removeDataListener();
+                if (port.isOpen()) {
+                    port.closePort();
+                    logger.info("Serial port {} closed successfully.", boundPort);
+                }
+            }
+            lostReason = null;
+
+            if (state == LinkState.CONNECTED && next == LinkState.DISCONNECTED) {
+                disconnectedAt = LocalDateTime.now();
+            }
+            if (state != next) {
+                transition(next, reason);
+            }
+        }
+
+        private void transition(LinkState next, String reason) {
+            state = next;
+            synchronized (transitions) {
+                transitions.addLast(new Transition(LocalDateTime.now(), next, boundPort, reason));
+                if (transitions.size() > TRANSITION_HISTORY) {
+                    transitions.removeFirst();
+                }
+            }
+        }
+
+        void resetBackoff() {
+            backoff.reset();
+            nextAttemptNanos = 0;
+        }
+
+        boolean isDue(long now) {
+            return nextAttemptNanos == 0 || now - nextAttemptNanos >= 0;
+        }
+
+        long getNextAttemptNanos() {
+            return nextAttemptNanos;
+        }
+
+        boolean isConnected() {
+            SerialPort port = comPort;
+            return state == LinkState.CONNECTED && port != null && port.isOpen();
+        }
+
+        String getConfiguredName() {
+            return configuredName;
+        }
+
+        String getBoundPort() {
+            return boundPort;
+        }
+
+        DeviceIdentity getIdentity() {
+            return identity;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Map<String, Object> getStatistics() {
+            Map<String, Object> statistics = new HashMap<>();
+            statistics.put("connected", isConnected());
+            statistics.put("state", state);
+            statistics.put("port", boundPort);
+            statistics.put("device", identity != null ? identity.toString() : null);
+            statistics.put("reconnects", (long) reconnects.count());
+            statistics.put("lastGapSeconds", lastGap != null ? lastGap.toMillis() / 1000.0 : null);
+            statistics.put("totalGapSeconds", totalGap.toMillis() / 1000.0);
+            LocalDateTime since = disconnectedAt;
+            if (since != null) {
+                statistics.put("currentGapSeconds", Duration.between(since, LocalDateTime.now()).toMillis() / 1000.0);
+            }
+            statistics.put("reopenAttempts", backoff.getAttempts());
+            synchronized (transitions) {
+                statistics.put("transitions", new ArrayList<>(transitions));
+            }
+            statistics.put("droppedLines", lineFramer.getDroppedLines());
+            statistics.put("droppedFrames", frameDecoder.getDroppedFrames());
+            statistics.put("corruptFrames", binaryDecoder.getCorruptFrames());
+            statistics.put("missedFrames", binaryDecoder.getMissedFrames());
+            return statistics;
         }
-        return portNames;
     }
 }
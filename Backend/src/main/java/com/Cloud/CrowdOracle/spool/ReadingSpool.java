@@ -0,0 +1,389 @@
+package com.Cloud.CrowdOracle.spool;
+
+import com.Cloud.CrowdOracle.util.EpochMicros;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of sensor readings on memory-mapped segment files, so readings survive a
+ * database outage or a restart until they have been replayed. Segments have a fixed size and
+ * are named by their sequence number; each holds records of
+ *
+ *   int      payload length (0 = nothing written yet, -1 = rest of the segment unused)
+ *   int      CRC32C of the payload
+ *   payload  entry time (epoch microseconds), temperature, people count,
+ *            source id (short length, -1 for none, then UTF-8 bytes)
+ *
+ * The length is written last, and a record torn by a crash fails its checksum and ends the log.
+ * The replay position is kept in a small checkpoint file rewritten after every replayed batch;
+ * segments behind it are deleted. A crash between storing a batch and writing the checkpoint
+ * replays that batch again.
+ */
+public final class ReadingSpool implements Closeable {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int HEADER_BYTES = 8;
+    private static final int FIXED_PAYLOAD_BYTES = 8 + 8 + 4 + 2;
+    private static final int SKIP_MARKER = -1;
+
+    public record Reading(LocalDateTime entryTime, double temperatureCelsius, int totalPeopleCount, String sourceId) {}
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final Map<Long, MappedByteBuffer> mapped = new TreeMap<>();
+
+    private long writeSegment;
+    private int writePosition;
+    private long readSegment;
+    private int readPosition;
+
+    // End of the batch returned by the last peek, made the read position by commit
+    private long peekSegment = -1;
+    private int peekPosition;
+    private int peekCount;
+
+    private long pending;
+    private boolean dirty;
+
+    private ReadingSpool(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Open the spool in the directory, recovering the write position and the number of readings not yet replayed
+     */
+    public static ReadingSpool open(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes < 1024) {
+            throw new IllegalArgumentException("Spool segments must be at least 1024 bytes");
+        }
+        Files.createDirectories(directory);
+        ReadingSpool spool = new ReadingSpool(directory, segmentBytes);
+        spool.recover();
+        return spool;
+    }
+
+    /**
+     * Append one reading; it is replayed in arrival order
+     */
+    public synchronized void append(Reading reading) throws IOException {
+        byte[] source = reading.sourceId() != null ? reading.sourceId().getBytes(StandardCharsets.UTF_8) : null;
+        int length = FIXED_PAYLOAD_BYTES + (source != null ? source.length : 0);
+        if (source != null && source.length > Short.MAX_VALUE || HEADER_BYTES + length > segmentBytes) {
+            throw new IllegalArgumentException("Reading too large for a spool segment");
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        payload.putLong(EpochMicros.of(reading.entryTime()))
+               .putDouble(reading.temperatureCelsius())
+               .putInt(reading.totalPeopleCount())
+               .putShort((short) (source != null ? source.length : -1));
+        if (source != null) {
+            payload.put(source);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload.array());
+
+        if (writePosition + HEADER_BYTES + length > segmentBytes) {
+            roll();
+        }
+        MappedByteBuffer segment = segment(writeSegment);
+        segment.put(writePosition + HEADER_BYTES, payload.array());
+        segment.putInt(writePosition + 4, (int) crc.getValue());
+        segment.putInt(writePosition, length);
+        writePosition += HEADER_BYTES + length;
+        pending++;
+        dirty = true;
+    }
+
+    /**
+     * Up to max readings from the replay position on, in arrival order. They stay in the
+     * spool until commit; a later peek without commit starts from the same reading again.
+     */
+    public synchronized List<Reading> peek(int max) throws IOException {
+        List<Reading> readings = new ArrayList<>(Math.min(max, 1024));
+        long segmentNumber = readSegment;
+        int position = readPosition;
+        while (readings.size() < max) {
+            MappedByteBuffer segment = segment(segmentNumber);
+            int end = recordEnd(segment, position);
+            if (end < 0) {
+                if (segmentNumber >= writeSegment) {
+                    break;
+                }
+                // Past the writer's last record in a segment it has since left
+                segmentNumber++;
+                position = 0;
+                continue;
+            }
+            readings.add(decode(segment, position));
+            position = end;
+        }
+        peekSegment = segmentNumber;
+        peekPosition = position;
+        peekCount = readings.size();
+        return readings;
+    }
+
+    /**
+     * Drop the readings returned by the last peek and delete the segments left behind
+     */
+    public synchronized void commit() throws IOException {
+        if (peekSegment < 0) {
+            return;
+        }
+        writeCheckpoint(peekSegment, peekPosition);
+        long previousSegment = readSegment;
+        readSegment = peekSegment;
+        readPosition = peekPosition;
+        pending -= peekCount;
+        peekSegment = -1;
+
+        if (readSegment > previousSegment) {
+            for (long number = previousSegment; number < readSegment; number++) {
+                mapped.remove(number);
+            }
+            deleteSegmentsBefore(readSegment);
+        }
+    }
+
+    /**
+     * Flush appended readings to disk, so they also survive a power loss
+     */
+    public synchronized void force() {
+        if (dirty) {
+            segment(writeSegment).force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Readings appended but not yet committed
+     */
+    public synchronized long getPendingCount() {
+        return pending;
+    }
+
+    public synchronized long getSegmentCount() {
+        return writeSegment - readSegment + 1;
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+        mapped.clear();
+    }
+
+    private void recover() throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.forEach(path -> {
+                Long number = segmentNumber(path);
+                if (number != null) {
+                    files.put(number, path);
+                }
+            });
+        }
+        long[] checkpoint = readCheckpoint();
+        if (checkpoint != null) {
+            files.headMap(checkpoint[0]).clear();
+        }
+
+        if (files.isEmpty()) {
+            readSegment = checkpoint != null ? checkpoint[0] + 1 : 0;
+            readPosition = 0;
+            writeSegment = readSegment;
+            writePosition = 0;
+            deleteSegmentsBefore(readSegment);
+            segment(writeSegment);
+            return;
+        }
+
+        if (checkpoint != null && checkpoint[0] == files.firstKey()) {
+            readSegment = checkpoint[0];
+            readPosition = (int) checkpoint[1];
+        } else {
+            readSegment = files.firstKey();
+            readPosition = 0;
+        }
+        writeSegment = files.lastKey();
+        deleteSegmentsBefore(readSegment);
+
+        // Count what is left to replay; writing resumes after the last valid record of the last segment
+        pending = 0;
+        for (long number : files.keySet()) {
+            MappedByteBuffer segment = segment(number);
+            int position = number == readSegment ? readPosition : 0;
+            int end;
+            while ((end = recordEnd(segment, position)) >= 0) {
+                pending++;
+                position = end;
+            }
+            if (number == writeSegment) {
+                writePosition = position;
+                clear(segment, position);
+            }
+        }
+    }
+
+    /**
+     * Zero whatever a crash left after the last valid record, so it cannot be mistaken for data later
+     */
+    private void clear(MappedByteBuffer segment, int from) {
+        int position = from;
+        for (; position + 8 <= segmentBytes; position += 8) {
+            if (segment.getLong(position) != 0) {
+                segment.putLong(position, 0);
+            }
+        }
+        for (; position < segmentBytes; position++) {
+            segment.put(position, (byte) 0);
+        }
+    }
+
+    private void roll() {
+        MappedByteBuffer segment = segment(writeSegment);
+        if (segmentBytes - writePosition >= 4) {
+            segment.putInt(writePosition, SKIP_MARKER);
+        }
+        segment.force();
+        writeSegment++;
+        writePosition = 0;
+        dirty = false;
+    }
+
+    /**
+     * End of the record at the position, or -1 when there is no complete record there
+     */
+    private int recordEnd(MappedByteBuffer segment, int position) {
+        if (position > segmentBytes - HEADER_BYTES) {
+            return -1;
+        }
+        int length = segment.getInt(position);
+        if (length < FIXED_PAYLOAD_BYTES || position + HEADER_BYTES + length > segmentBytes) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(segment.slice(position + HEADER_BYTES, length));
+        if ((int) crc.getValue() != segment.getInt(position + 4)) {
+            return -1;
+        }
+        return position + HEADER_BYTES + length;
+    }
+
+    private static Reading decode(MappedByteBuffer segment, int position) {
+        int offset = position + HEADER_BYTES;
+        long micros = segment.getLong(offset);
+        double temperature = segment.getDouble(offset + 8);
+        int people = segment.getInt(offset + 16);
+        short sourceLength = segment.getShort(offset + 20);
+        String source = null;
+        if (sourceLength >= 0) {
+            byte[] bytes = new byte[sourceLength];
+            segment.get(offset + FIXED_PAYLOAD_BYTES, bytes);
+            source = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new Reading(EpochMicros.toLocalDateTime(micros), temperature, people, source);
+    }
+
+    private MappedByteBuffer segment(long number) {
+        return mapped.computeIfAbsent(number, n -> {
+            try (FileChannel channel = FileChannel.open(segmentPath(n), StandardOpenOption.CREATE,
+                                                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            } catch (IOException e) {
+                throw new SpoolException("Cannot map spool segment " + n, e);
+            }
+        });
+    }
+
+    private void deleteSegmentsBefore(long number) throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path path : listing.toList()) {
+                Long segmentNumber = segmentNumber(path);
+                if (segmentNumber != null && segmentNumber < number) {
+                    try {
+                        Files.deleteIfExists(path);
+                    } catch (IOException e) {
+                        // Still mapped on some platforms until collected; the next commit retries
+                    }
+                }
+            }
+        }
+    }
+
+    private long[] readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() != 16) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, 12);
+        if ((int) crc.getValue() != buffer.getInt(12)) {
+            return null;
+        }
+        return new long[] { buffer.getLong(0), buffer.getInt(8) };
+    }
+
+    private void writeCheckpoint(long segment, int position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16).putLong(segment).putInt(position);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, 12);
+        buffer.putInt((int) crc.getValue()).flip();
+
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%020d%s", number, SEGMENT_SUFFIX));
+    }
+
+    private static Long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.endsWith(SEGMENT_SUFFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A segment file could not be created or mapped
+     */
+    public static class SpoolException extends RuntimeException {
+        public SpoolException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
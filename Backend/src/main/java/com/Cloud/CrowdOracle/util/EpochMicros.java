@@ -0,0 +1,25 @@
+package com.Cloud.CrowdOracle.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Stored local times as microseconds since the epoch, the resolution of a PostgreSQL timestamp.
+ * The time is read as UTC, so the value is only a compact, ordered key for the local time:
+ * used by the chunk codec, the recent reading buffer and the spool.
+ */
+public final class EpochMicros {
+
+    private EpochMicros() {
+    }
+
+    public static long of(LocalDateTime time) {
+        // Rounded like the JDBC driver does when it writes the timestamp
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + (time.getNano() + 500) / 1000;
+    }
+
+    public static LocalDateTime toLocalDateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                                           (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+}
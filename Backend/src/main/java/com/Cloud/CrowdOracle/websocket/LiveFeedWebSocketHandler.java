@@ -0,0 +1,68 @@
+package com.Cloud.CrowdOracle.websocket;
+
+import com.Cloud.CrowdOracle.services.CrowdDataService;
+import com.Cloud.CrowdOracle.services.LiveFeedService;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+
+/**
+ * Sends each new reading as a JSON text frame; idle connections get a ping every heartbeat interval.
+ * Messages from the client are ignored.
+ */
+public class LiveFeedWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String SUBSCRIPTION_ATTRIBUTE = "liveFeedSubscription";
+
+    private final LiveFeedService liveFeedService;
+    private final CrowdDataService crowdDataService;
+
+    public LiveFeedWebSocketHandler(LiveFeedService liveFeedService, CrowdDataService crowdDataService) {
+        this.liveFeedService = liveFeedService;
+        this.crowdDataService = crowdDataService;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        LiveFeedService.Subscription subscription;
+        try {
+            subscription = liveFeedService.subscribe(new LiveFeedService.Sink() {
+                @Override
+                public void send(String readingJson) throws IOException {
+                    session.sendMessage(new TextMessage(readingJson));
+                }
+
+                @Override
+                public void heartbeat() throws IOException {
+                    session.sendMessage(new PingMessage());
+                }
+
+                @Override
+                public void close() {
+                    try {
+                        session.close();
+                    } catch (IOException ignored) {
+                        // Already gone
+                    }
+                }
+            });
+        } catch (IllegalStateException e) {
+            session.close(CloseStatus.SERVICE_OVERLOAD);
+            return;
+        }
+
+        session.getAttributes().put(SUBSCRIPTION_ATTRIBUTE, subscription);
+        crowdDataService.getLatestCrowdData().ifPresent(latest -> liveFeedService.sendTo(subscription, latest));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        if (session.getAttributes().remove(SUBSCRIPTION_ATTRIBUTE) instanceof LiveFeedService.Subscription subscription) {
+            subscription.close();
+        }
+    }
+}
@@ -1,18 +1,96 @@
--- Create crowd_data table if it doesn't exist
+-- Create crowd_data table if it doesn't exist, range-partitioned on entry_time.
+-- Partitions (and crowd_data_default) are created by PartitionMaintenanceService, which also
+-- converts a pre-existing unpartitioned crowd_data on first start.
 CREATE TABLE IF NOT EXISTS crowd_data (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGSERIAL,
     temperature_celsius DECIMAL(5,2) NOT NULL,
     total_people_count INTEGER NOT NULL,
-    entry_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
-);
+    entry_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, entry_time)
+) PARTITION BY RANGE (entry_time);
+
+-- Ids are handed out by Hibernate in blocks of 50 (must match allocationSize on CrowdData.id)
+ALTER SEQUENCE crowd_data_id_seq INCREMENT BY 50;
 
 -- Create index on entry_time for better query performance
 CREATE INDEX IF NOT EXISTS idx_crowd_data_entry_time ON crowd_data (entry_time DESC);
 
+-- Composite index backing keyset pagination on (entry_time, id)
+CREATE INDEX IF NOT EXISTS idx_crowd_data_entry_time_id ON crowd_data (entry_time DESC, id DESC);
+
+-- Device each reading came from (serial port name); older rows have none
+ALTER TABLE crowd_data ADD COLUMN IF NOT EXISTS source_id VARCHAR(64);
+
+-- Per-device history and latest-reading lookups
+CREATE INDEX IF NOT EXISTS idx_crowd_data_source_time ON crowd_data (source_id, entry_time DESC, id DESC);
+
 -- Create index on temperature_celsius for range queries
 CREATE INDEX IF NOT EXISTS idx_crowd_data_temperature ON crowd_data (temperature_celsius);
 
 -- Create index on total_people_count for range queries
 CREATE INDEX IF NOT EXISTS idx_crowd_data_people_count ON crowd_data (total_people_count);
 
+-- Pre-aggregated rollups (count, sum, min, max) per minute, hour and day,
+-- maintained by RollupService and used by /api/crowd-data/series
+CREATE TABLE IF NOT EXISTS crowd_data_rollup_minute (
+    bucket_start TIMESTAMP PRIMARY KEY,
+    sample_count BIGINT NOT NULL,
+    people_sum BIGINT NOT NULL,
+    people_min INTEGER NOT NULL,
+    people_max INTEGER NOT NULL,
+    temperature_sum DOUBLE PRECISION NOT NULL,
+    temperature_min DECIMAL(5,2) NOT NULL,
+    temperature_max DECIMAL(5,2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS crowd_data_rollup_hour (
+    bucket_start TIMESTAMP PRIMARY KEY,
+    sample_count BIGINT NOT NULL,
+    people_sum BIGINT NOT NULL,
+    people_min INTEGER NOT NULL,
+    people_max INTEGER NOT NULL,
+    temperature_sum DOUBLE PRECISION NOT NULL,
+    temperature_min DECIMAL(5,2) NOT NULL,
+    temperature_max DECIMAL(5,2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS crowd_data_rollup_day (
+    bucket_start TIMESTAMP PRIMARY KEY,
+    sample_count BIGINT NOT NULL,
+    people_sum BIGINT NOT NULL,
+    people_min INTEGER NOT NULL,
+    people_max INTEGER NOT NULL,
+    temperature_sum DOUBLE PRECISION NOT NULL,
+    temperature_min DECIMAL(5,2) NOT NULL,
+    temperature_max DECIMAL(5,2) NOT NULL
+);
+
+-- Aged readings compacted per source and hour by CrowdDataChunkService into ChunkCodec blocks.
+-- Count, sum, min and max stay in plain columns for aggregates and for skipping chunks on range filters,
+-- the id span for finding a reading by id, and the distinct values with how often each occurs so
+-- range statistics (percentiles included) merge whole chunks in SQL instead of decoding them.
+CREATE TABLE IF NOT EXISTS crowd_data_chunk (
+    chunk_start TIMESTAMP NOT NULL,
+    source_id VARCHAR(64),
+    record_count INTEGER NOT NULL,
+    people_sum BIGINT NOT NULL,
+    people_min INTEGER NOT NULL,
+    people_max INTEGER NOT NULL,
+    temperature_sum DECIMAL(14,2) NOT NULL,
+    temperature_min DECIMAL(5,2) NOT NULL,
+    temperature_max DECIMAL(5,2) NOT NULL,
+    id_min BIGINT NOT NULL,
+    id_max BIGINT NOT NULL,
+    people_values INTEGER[] NOT NULL,
+    people_counts INTEGER[] NOT NULL,
+    temperature_values DECIMAL(5,2)[] NOT NULL,
+    temperature_counts INTEGER[] NOT NULL,
+    data BYTEA NOT NULL
+);
+
+-- The blocks are already compressed, so keep TOAST from trying again
+ALTER TABLE crowd_data_chunk ALTER COLUMN data SET STORAGE EXTERNAL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_crowd_data_chunk_start_source ON crowd_data_chunk (chunk_start, COALESCE(source_id, ''));
 
+CREATE INDEX IF NOT EXISTS idx_crowd_data_chunk_id_span ON crowd_data_chunk (id_min, id_max);
@@ -0,0 +1,55 @@
+package com.Cloud.CrowdOracle.chunk;
+
+import com.Cloud.CrowdOracle.dtos.CrowdDataView;
+import com.Cloud.CrowdOracle.util.EpochMicros;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkCodecTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 10, 0, 0, 123_456_000);
+
+	@Test
+	void roundTripsJitteredReadings() {
+		Random random = new Random(42);
+		List<CrowdDataView> rows = new ArrayList<>();
+		long micros = EpochMicros.of(START);
+		long id = 1_000;
+		for (int i = 0; i < 720; i++) {
+			micros += 5_000_000 + random.nextInt(20_000) - 10_000;
+			id += random.nextInt(10) == 0 ? 50 : 1;
+			double temperature = Math.round((15 + random.nextDouble() * 20) * 100) / 100.0;
+			rows.add(new CrowdDataView(id, i % 7 == 0 ? -12.5 : temperature, random.nextInt(400),
+				EpochMicros.toLocalDateTime(micros), "site-1"));
+		}
+
+		assertThat(ChunkCodec.decode(ChunkCodec.encode(rows), "site-1")).containsExactlyElementsOf(rows);
+	}
+
+	@Test
+	void steadySensorCostsAFewBitsPerReading() {
+		List<CrowdDataView> rows = new ArrayList<>();
+		for (int i = 0; i < 1800; i++) {
+			rows.add(new CrowdDataView(500L + i, i < 900 ? 24.3 : 24.4, 0, START.plusSeconds(2L * i), null));
+		}
+
+		byte[] data = ChunkCodec.encode(rows);
+
+		assertThat(data.length).isLessThan(1800 / 2);
+		assertThat(ChunkCodec.decode(data, null)).containsExactlyElementsOf(rows);
+	}
+
+	@Test
+	void handlesEmptyAndSingleReadingChunks() {
+		assertThat(ChunkCodec.decode(ChunkCodec.encode(List.of()), "x")).isEmpty();
+
+		CrowdDataView single = new CrowdDataView(Long.MAX_VALUE, 999.99, Integer.MAX_VALUE, START, "x");
+		assertThat(ChunkCodec.decode(ChunkCodec.encode(List.of(single)), "x")).containsExactly(single);
+	}
+}
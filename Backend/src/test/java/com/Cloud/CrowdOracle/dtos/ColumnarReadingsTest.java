@@ -0,0 +1,63 @@
+package com.Cloud.CrowdOracle.dtos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarReadingsTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2026, 5, 1, 8, 0, 0, 250_000_000);
+
+	private static final List<CrowdDataView> ROWS = List.of(
+		new CrowdDataView(100L, 21.5, 12, START, "site-1"),
+		new CrowdDataView(150L, 21.75, 14, START.plusSeconds(5), null),
+		new CrowdDataView(200L, 22.0, 9, START.plusSeconds(10), "site-1"));
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void writesParallelArrays() throws Exception {
+		JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(ColumnarReadings.of(ROWS, false)));
+
+		long start = START.toInstant(ZoneOffset.UTC).toEpochMilli();
+		assertThat(json.get("count").asInt()).isEqualTo(3);
+		assertThat(json.get("encoding").asText()).isEqualTo("absolute");
+		assertThat(json.get("id").toString()).isEqualTo("[100,150,200]");
+		assertThat(json.get("entryTime").toString()).isEqualTo("[" + start + "," + (start + 5000) + "," + (start + 10000) + "]");
+		assertThat(json.get("temperatureCelsius").toString()).isEqualTo("[21.5,21.75,22.0]");
+		assertThat(json.get("totalPeopleCount").toString()).isEqualTo("[12,14,9]");
+		assertThat(json.get("sources").toString()).isEqualTo("[\"site-1\"]");
+		assertThat(json.get("sourceIndex").toString()).isEqualTo("[0,-1,0]");
+	}
+
+	@Test
+	void deltaEncodesIdsAndTimes() throws Exception {
+		JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(ColumnarReadings.of(ROWS, true)));
+
+		long start = START.toInstant(ZoneOffset.UTC).toEpochMilli();
+		assertThat(json.get("encoding").asText()).isEqualTo("delta");
+		assertThat(json.get("id").toString()).isEqualTo("[100,50,50]");
+		assertThat(json.get("entryTime").toString()).isEqualTo("[" + start + ",5000,5000]");
+	}
+
+	@Test
+	void timesInADaylightSavingOverlapKeepTheirSpacing() throws Exception {
+		// 02:00-03:00 happens twice on this night in most of Europe; the stored local times are still 10 minutes apart
+		LocalDateTime overlap = LocalDateTime.of(2026, 10, 25, 2, 55);
+		List<CrowdDataView> rows = List.of(
+			new CrowdDataView(1L, 20.0, 3, overlap.minusMinutes(10), null),
+			new CrowdDataView(2L, 20.0, 3, overlap, null),
+			new CrowdDataView(3L, 20.0, 3, overlap.plusMinutes(10), null));
+
+		JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(ColumnarReadings.of(rows, true)));
+
+		assertThat(json.get("entryTime").get(1).asLong()).isEqualTo(600_000);
+		assertThat(json.get("entryTime").get(2).asLong()).isEqualTo(600_000);
+	}
+}
@@ -0,0 +1,38 @@
+package com.Cloud.CrowdOracle.dtos;
+
+import com.Cloud.CrowdOracle.dtos.CrowdDataRangeStats.Distribution;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CrowdDataRangeStatsTest {
+
+	@Test
+	void valueCountsGiveTheSameFiguresAsTheValues() {
+		double[] values = {21.5, 20.25, 21.5, 23.0, 20.25, 21.5, 19.75, 23.0, 21.5, 22.0, 20.25};
+		double[] distinct = {19.75, 20.25, 21.5, 22.0, 23.0};
+		long[] counts = {1, 3, 4, 1, 2};
+
+		Distribution fromValues = Distribution.of(values.clone(), 100);
+		Distribution fromCounts = Distribution.ofCounts(distinct, counts, 100);
+
+		assertThat(fromCounts.sum()).isEqualTo(fromValues.sum());
+		assertThat(fromCounts.min()).isEqualTo(fromValues.min());
+		assertThat(fromCounts.max()).isEqualTo(fromValues.max());
+		assertThat(fromCounts.mean()).isCloseTo(fromValues.mean(), within(1e-9));
+		assertThat(fromCounts.stddev()).isCloseTo(fromValues.stddev(), within(1e-9));
+		assertThat(fromCounts.p50()).isEqualTo(fromValues.p50());
+		assertThat(fromCounts.p90()).isCloseTo(fromValues.p90(), within(1e-9));
+		assertThat(fromCounts.p99()).isCloseTo(fromValues.p99(), within(1e-9));
+	}
+
+	@Test
+	void singleValue() {
+		Distribution distribution = Distribution.ofCounts(new double[] {12}, new long[] {1}, 1);
+
+		assertThat(distribution.stddev()).isZero();
+		assertThat(distribution.p50()).isEqualTo(12);
+		assertThat(distribution.p99()).isEqualTo(12);
+	}
+}
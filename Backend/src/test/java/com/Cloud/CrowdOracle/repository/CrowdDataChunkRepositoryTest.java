@@ -0,0 +1,42 @@
+package com.Cloud.CrowdOracle.repository;
+
+import com.Cloud.CrowdOracle.dtos.CrowdDataView;
+import com.Cloud.CrowdOracle.repository.CrowdDataChunkRepository.Chunk;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrowdDataChunkRepositoryTest {
+
+	private static final LocalDateTime HOUR = LocalDateTime.of(2026, 3, 1, 10, 0);
+
+	@Test
+	void blankAndNullSourcesShareOneChunk() {
+		List<CrowdDataView> rows = List.of(
+			new CrowdDataView(1L, 21.0, 5, HOUR.plusMinutes(1), null),
+			new CrowdDataView(2L, 21.5, 6, HOUR.plusMinutes(2), ""),
+			new CrowdDataView(3L, 22.0, 7, HOUR.plusMinutes(3), "site-1"));
+
+		List<Chunk> chunks = Chunk.merge(HOUR, List.of(), rows);
+
+		assertThat(chunks).extracting(Chunk::sourceId).containsExactlyInAnyOrder(null, "site-1");
+		Chunk noSource = chunks.stream().filter(chunk -> chunk.sourceId() == null).findFirst().orElseThrow();
+		assertThat(noSource.totals().sampleCount()).isEqualTo(2);
+		assertThat(noSource.decode()).extracting(CrowdDataView::id).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void lateRowsMergeIntoAnEarlierBlankSourceChunk() {
+		Chunk earlier = Chunk.of(HOUR, "", List.of(new CrowdDataView(1L, 21.0, 5, HOUR.plusMinutes(1), "")));
+		List<CrowdDataView> late = List.of(new CrowdDataView(9L, 20.0, 4, HOUR.plusMinutes(30), null));
+
+		List<Chunk> chunks = Chunk.merge(HOUR, List.of(earlier), late);
+
+		assertThat(chunks).hasSize(1);
+		assertThat(chunks.get(0).sourceId()).isNull();
+		assertThat(chunks.get(0).decode()).extracting(CrowdDataView::id).containsExactly(1L, 9L);
+	}
+}
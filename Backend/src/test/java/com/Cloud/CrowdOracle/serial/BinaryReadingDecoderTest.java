@@ -0,0 +1,107 @@
+package com.Cloud.CrowdOracle.serial;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryReadingDecoderTest {
+
+	private final CobsFrameDecoder frameDecoder = new CobsFrameDecoder(64);
+	private final BinaryReadingDecoder decoder = new BinaryReadingDecoder();
+	private final List<SerialReadingParser.Result> results = new ArrayList<>();
+
+	@Test
+	void crcMatchesCcittFalseCheckValue() {
+		byte[] check = "123456789".getBytes();
+		assertThat(Crc16.compute(check, 0, check.length)).isEqualTo(0x29B1);
+	}
+
+	@Test
+	void decodesFramesSplitAcrossReads() {
+		byte[] stream = concat(wireFrame(7, 123456, -512, 42, 0), wireFrame(8, 125456, 2550, 0, 0));
+
+		feed(stream, 0, 5);
+		feed(stream, 5, stream.length - 5);
+
+		assertThat(results).containsExactly(SerialReadingParser.Result.READING, SerialReadingParser.Result.READING);
+		assertThat(decoder.getTemperatureCelsius()).isEqualTo(25.5);
+		assertThat(decoder.getSequence()).isEqualTo(8);
+		assertThat(decoder.getDeviceMillis()).isEqualTo(125456);
+		assertThat(decoder.getMissedFrames()).isZero();
+	}
+
+	@Test
+	void countsMissedAndCorruptFrames() {
+		byte[] damaged = rawFrame(2, 0, 2000, 1, 0);
+		damaged[7] ^= 0x10;
+		byte[] corrupt = cobsEncode(damaged);
+		byte[] stream = concat(wireFrame(1, 0, 2000, 1, 0), corrupt, wireFrame(5, 0, 2000, 1, 0),
+			wireFrame(6, 0, 0, 0, BinaryReadingDecoder.FLAG_SENSOR_FAILURE));
+
+		feed(stream, 0, stream.length);
+
+		assertThat(results).containsExactly(SerialReadingParser.Result.READING, SerialReadingParser.Result.MALFORMED,
+			SerialReadingParser.Result.READING, SerialReadingParser.Result.SENSOR_ERROR);
+		assertThat(decoder.getCorruptFrames()).isEqualTo(1);
+		assertThat(decoder.getMissedFrames()).isEqualTo(3);
+	}
+
+	private void feed(byte[] data, int offset, int length) {
+		frameDecoder.accept(data, offset, length,
+			(buffer, frameOffset, frameLength) -> results.add(decoder.decode(buffer, frameOffset, frameLength)));
+	}
+
+	private static byte[] wireFrame(int sequence, long uptime, int centiDegrees, int people, int flags) {
+		return cobsEncode(rawFrame(sequence, uptime, centiDegrees, people, flags));
+	}
+
+	// Mirrors sendBinaryReading() in the Arduino sketch
+	private static byte[] rawFrame(int sequence, long uptime, int centiDegrees, int people, int flags) {
+		byte[] frame = {
+			(byte) BinaryReadingDecoder.VERSION,
+			(byte) sequence, (byte) (sequence >> 8),
+			(byte) uptime, (byte) (uptime >> 8), (byte) (uptime >> 16), (byte) (uptime >> 24),
+			(byte) centiDegrees, (byte) (centiDegrees >> 8),
+			(byte) people, (byte) (people >> 8),
+			(byte) flags, 0, 0
+		};
+		int crc = Crc16.compute(frame, 0, 12);
+		frame[12] = (byte) crc;
+		frame[13] = (byte) (crc >> 8);
+		return frame;
+	}
+
+	private static byte[] cobsEncode(byte[] input) {
+		byte[] output = new byte[input.length + 2];
+		int write = 1;
+		int codeIndex = 0;
+		int code = 1;
+		for (byte b : input) {
+			if (b == 0) {
+				output[codeIndex] = (byte) code;
+				code = 1;
+				codeIndex = write++;
+			} else {
+				output[write++] = b;
+				code++;
+			}
+		}
+		output[codeIndex] = (byte) code;
+		output[write++] = 0;
+		byte[] encoded = new byte[write];
+		System.arraycopy(output, 0, encoded, 0, write);
+		return encoded;
+	}
+
+	private static byte[] concat(byte[]... parts) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (byte[] part : parts) {
+			out.writeBytes(part);
+		}
+		return out.toByteArray();
+	}
+}
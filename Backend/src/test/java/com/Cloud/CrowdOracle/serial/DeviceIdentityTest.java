@@ -0,0 +1,40 @@
+package com.Cloud.CrowdOracle.serial;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeviceIdentityTest {
+
+	private static final DeviceIdentity UNO = new DeviceIdentity(0x2341, 0x0043, "85736323838351F0A1C1");
+
+	@Test
+	void parsesConfiguredIdentities() {
+		assertThat(DeviceIdentity.parse("usb:2341:0043")).isEqualTo(new DeviceIdentity(0x2341, 0x0043, null));
+		assertThat(DeviceIdentity.parse("USB:1a86:7523:ABC")).isEqualTo(new DeviceIdentity(0x1a86, 0x7523, "ABC"));
+		assertThat(DeviceIdentity.parse("/dev/ttyACM*")).isNull();
+		assertThat(DeviceIdentity.parse("COM3")).isNull();
+		assertThatThrownBy(() -> DeviceIdentity.parse("usb:2341")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void matchesBySerialNumberWhenKnown() {
+		assertThat(UNO.matches(new DeviceIdentity(0x2341, 0x0043, "85736323838351F0A1C1"))).isTrue();
+		assertThat(UNO.matches(new DeviceIdentity(0x2341, 0x0043, "OTHER"))).isFalse();
+		assertThat(UNO.matches(new DeviceIdentity(0x2341, 0x0043, null))).isFalse();
+
+		// Without a serial number any board of the same vendor and product matches
+		DeviceIdentity anyUno = DeviceIdentity.parse("usb:2341:0043");
+		assertThat(anyUno.matches(UNO)).isTrue();
+		assertThat(anyUno.matches(new DeviceIdentity(0x2341, 0x0042, null))).isFalse();
+	}
+
+	@Test
+	void unknownIdentityMatchesNothing() {
+		DeviceIdentity notUsb = new DeviceIdentity(-1, -1, null);
+		assertThat(notUsb.isKnown()).isFalse();
+		assertThat(notUsb.matches(notUsb)).isFalse();
+		assertThat(UNO.toString()).isEqualTo("usb:2341:0043:85736323838351F0A1C1");
+	}
+}
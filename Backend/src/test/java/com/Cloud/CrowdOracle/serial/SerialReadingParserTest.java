@@ -0,0 +1,68 @@
+package com.Cloud.CrowdOracle.serial;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerialReadingParserTest {
+
+	private final SerialReadingParser parser = new SerialReadingParser();
+
+	@Test
+	void parsesArduinoReading() {
+		assertThat(parse("{\"temperatureCelsius\":25.50,\"totalPeopleCount\":12}"))
+			.isEqualTo(SerialReadingParser.Result.READING);
+		assertThat(parser.getTemperatureCelsius()).isEqualTo(25.5);
+		assertThat(parser.getTotalPeopleCount()).isEqualTo(12);
+	}
+
+	@Test
+	void parsesReorderedKeysWhitespaceAndUnknownFields() {
+		assertThat(parse("{ \"totalPeopleCount\" : 3, \"extra\": [1, {\"a\": \"}\"}], \"temperatureCelsius\" : -4.25e0 }"))
+			.isEqualTo(SerialReadingParser.Result.READING);
+		assertThat(parser.getTemperatureCelsius()).isEqualTo(-4.25);
+		assertThat(parser.getTotalPeopleCount()).isEqualTo(3);
+	}
+
+	@Test
+	void reportsSensorError() {
+		assertThat(parse("{\"error\":\"sensor_failure\"}")).isEqualTo(SerialReadingParser.Result.SENSOR_ERROR);
+		assertThat(parser.getErrorMessage()).isEqualTo("sensor_failure");
+	}
+
+	@Test
+	void rejectsMalformedLines() {
+		assertThat(parse("{\"temperatureCelsius\":25.5}")).isEqualTo(SerialReadingParser.Result.MALFORMED);
+		assertThat(parse("{\"temperatureCelsius\":nan,\"totalPeopleCount\":0}")).isEqualTo(SerialReadingParser.Result.MALFORMED);
+		assertThat(parse("{\"temperatureCelsius\":25.5,\"totalPeopleCount\":0")).isEqualTo(SerialReadingParser.Result.MALFORMED);
+		assertThat(parse("garbage")).isEqualTo(SerialReadingParser.Result.MALFORMED);
+	}
+
+	@Test
+	void framerSplitsChunkedInputAndDropsOverlongLines() {
+		SerialLineFramer framer = new SerialLineFramer(16);
+		List<String> lines = new ArrayList<>();
+		SerialLineFramer.LineHandler collect = (buffer, offset, length) ->
+			lines.add(new String(buffer, offset, length, StandardCharsets.US_ASCII));
+
+		feed(framer, "{\"a\":1}\r\n{\"b\"", collect);
+		feed(framer, ":2}\n\r\nthis line is far too long\nok\n", collect);
+
+		assertThat(lines).containsExactly("{\"a\":1}", "{\"b\":2}", "ok");
+		assertThat(framer.getDroppedLines()).isEqualTo(1);
+	}
+
+	private SerialReadingParser.Result parse(String line) {
+		byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+		return parser.parse(bytes, 0, bytes.length);
+	}
+
+	private static void feed(SerialLineFramer framer, String data, SerialLineFramer.LineHandler handler) {
+		byte[] bytes = data.getBytes(StandardCharsets.US_ASCII);
+		framer.accept(bytes, 0, bytes.length, handler);
+	}
+}
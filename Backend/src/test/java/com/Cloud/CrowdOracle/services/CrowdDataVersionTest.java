@@ -0,0 +1,54 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.events.CrowdDataSavedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrowdDataVersionTest {
+
+	private final CrowdDataVersion version = new CrowdDataVersion();
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void committedWritesBumpOnceAfterCommit() {
+		long before = version.current().number();
+
+		inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+			version.onSaved(new CrowdDataSavedEvent(List.of()));
+			version.onSaved(new CrowdDataSavedEvent(List.of()));
+			assertThat(version.current().number()).isEqualTo(before);
+		});
+
+		assertThat(version.current().number()).isEqualTo(before + 1);
+	}
+
+	@Test
+	void rolledBackWritesLeaveTheVersionAlone() {
+		long before = version.current().number();
+
+		inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> version.onSaved(new CrowdDataSavedEvent(List.of())));
+
+		assertThat(version.current().number()).isEqualTo(before);
+	}
+
+	private static void inTransaction(int status, Runnable work) {
+		TransactionSynchronizationManager.initSynchronization();
+		work.run();
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(status);
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+}
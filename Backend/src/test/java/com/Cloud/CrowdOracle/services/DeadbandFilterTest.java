@@ -0,0 +1,76 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.config.DeadbandConfig;
+import com.Cloud.CrowdOracle.entity.CrowdData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadbandFilterTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2026, 5, 1, 8, 0);
+
+	private final DeadbandFilter filter = new DeadbandFilter(config(), new SimpleMeterRegistry());
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void suppressesReadingsInsideTheDeadband() {
+		assertThat(filter.accept(reading(21.0, 0))).isTrue();
+		assertThat(filter.accept(reading(21.1, 5))).isFalse();
+		assertThat(filter.accept(reading(21.5, 10))).isTrue();
+		assertThat(filter.accept(reading(21.5, 80))).isTrue();
+	}
+
+	@Test
+	void rolledBackReadingDoesNotBecomeTheReference() {
+		assertThat(filter.accept(reading(21.0, 0))).isTrue();
+
+		inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+			assertThat(filter.accept(reading(25.0, 5))).isTrue();
+			assertThat(filter.accept(reading(30.0, 6))).isTrue();
+		});
+
+		// Compared with 21.0 again, not with the 30.0 that was never stored
+		assertThat(filter.accept(reading(29.9, 10))).isTrue();
+		assertThat(filter.accept(reading(29.95, 11))).isFalse();
+	}
+
+	@Test
+	void committedReadingStaysTheReference() {
+		inTransaction(TransactionSynchronization.STATUS_COMMITTED, () ->
+			assertThat(filter.accept(reading(21.0, 0))).isTrue());
+
+		assertThat(filter.accept(reading(21.1, 5))).isFalse();
+	}
+
+	private static void inTransaction(int status, Runnable work) {
+		TransactionSynchronizationManager.initSynchronization();
+		work.run();
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(status);
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	private static CrowdData reading(double temperature, int seconds) {
+		return new CrowdData(null, temperature, 10, START.plusSeconds(seconds));
+	}
+
+	private static DeadbandConfig config() {
+		DeadbandConfig config = new DeadbandConfig();
+		config.setEnabled(true);
+		return config;
+	}
+}
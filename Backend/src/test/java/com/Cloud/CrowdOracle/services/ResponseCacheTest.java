@@ -0,0 +1,62 @@
+package com.Cloud.CrowdOracle.services;
+
+import com.Cloud.CrowdOracle.config.ResponseCacheConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+	private final CrowdDataVersion version = new CrowdDataVersion();
+	private final ResponseCache cache = new ResponseCache(new ResponseCacheConfig(), version, new ObjectMapper(),
+		new SimpleMeterRegistry());
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void servesCachedBodyUntilTheVersionChanges() {
+		ResponseEntity<?> first = cache.get(request("20"), this::load);
+		ResponseEntity<?> second = cache.get(request("20"), this::load);
+
+		assertThat(loads).hasValue(1);
+		assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag()).startsWith("\"");
+		assertThat(second.getHeaders().getLastModified()).isPositive();
+		assertThat(new String((byte[]) second.getBody())).isEqualTo("{\"load\":1}");
+
+		version.bump();
+		ResponseEntity<?> third = cache.get(request("20"), this::load);
+		assertThat(loads).hasValue(2);
+		assertThat(third.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+	}
+
+	@Test
+	void keysOnQueryParametersAndSkipsErrors() {
+		cache.get(request("20"), this::load);
+		cache.get(request("30"), this::load);
+		assertThat(loads).hasValue(2);
+
+		ResponseEntity<?> error = cache.get(request("40"), () -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of()));
+		assertThat(error.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(error.getHeaders().getETag()).isNull();
+		cache.get(request("40"), this::load);
+		assertThat(loads).hasValue(3);
+	}
+
+	private ResponseEntity<Map<String, Object>> load() {
+		return ResponseEntity.ok(Map.of("load", loads.incrementAndGet()));
+	}
+
+	private static MockHttpServletRequest request(String min) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/crowd-data/temperature");
+		request.addParameter("min", min);
+		request.addParameter("max", "35");
+		return request;
+	}
+}
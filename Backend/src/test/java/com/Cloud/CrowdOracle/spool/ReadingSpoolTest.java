@@ -0,0 +1,111 @@
+package com.Cloud.CrowdOracle.spool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadingSpoolTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2026, 5, 1, 8, 0, 0, 250_000_000);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void replaysAcrossSegmentsAndDeletesConsumedOnes() throws Exception {
+		List<ReadingSpool.Reading> written = readings(200);
+		try (ReadingSpool spool = ReadingSpool.open(directory, 1024)) {
+			for (ReadingSpool.Reading reading : written) {
+				spool.append(reading);
+			}
+			assertThat(spool.getSegmentCount()).isGreaterThan(2);
+
+			List<ReadingSpool.Reading> replayed = new ArrayList<>();
+			List<ReadingSpool.Reading> batch;
+			while (!(batch = spool.peek(64)).isEmpty()) {
+				// Uncommitted readings are handed out again
+				assertThat(spool.peek(64)).isEqualTo(batch);
+				replayed.addAll(batch);
+				spool.commit();
+			}
+
+			assertThat(replayed).containsExactlyElementsOf(written);
+			assertThat(spool.getPendingCount()).isZero();
+			assertThat(segmentFiles()).hasSize(1);
+		}
+	}
+
+	@Test
+	void resumesFromCheckpointAfterRestart() throws Exception {
+		List<ReadingSpool.Reading> written = readings(100);
+		try (ReadingSpool spool = ReadingSpool.open(directory, 1024)) {
+			written.forEach(reading -> append(spool, reading));
+			spool.peek(30);
+			spool.commit();
+		}
+
+		try (ReadingSpool spool = ReadingSpool.open(directory, 1024)) {
+			assertThat(spool.getPendingCount()).isEqualTo(70);
+			spool.append(new ReadingSpool.Reading(START.plusHours(1), 30.5, 12, null));
+
+			List<ReadingSpool.Reading> rest = spool.peek(1000);
+			assertThat(rest).hasSize(71);
+			assertThat(rest.subList(0, 70)).containsExactlyElementsOf(written.subList(30, 100));
+			assertThat(rest.get(70).sourceId()).isNull();
+		}
+	}
+
+	@Test
+	void tornRecordEndsTheLog() throws Exception {
+		List<ReadingSpool.Reading> written = readings(5);
+		try (ReadingSpool spool = ReadingSpool.open(directory, 4096)) {
+			written.forEach(reading -> append(spool, reading));
+		}
+
+		// Corrupt the payload of the last record, as a power loss in the middle of a write would
+		Path segment = segmentFiles().get(0);
+		try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+			int recordBytes = 8 + 22 + "site-1".length();
+			file.seek(4L * recordBytes + 12);
+			file.write(0x7f);
+		}
+
+		try (ReadingSpool spool = ReadingSpool.open(directory, 4096)) {
+			assertThat(spool.getPendingCount()).isEqualTo(4);
+			spool.append(written.get(4));
+			assertThat(spool.peek(10)).containsExactlyElementsOf(written);
+		}
+	}
+
+	private static List<ReadingSpool.Reading> readings(int count) {
+		List<ReadingSpool.Reading> readings = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			readings.add(new ReadingSpool.Reading(START.plusSeconds(5L * i), 20 + i % 13 * 0.25, i % 40,
+				"site-" + (i % 3)));
+		}
+		return readings;
+	}
+
+	private static void append(ReadingSpool spool, ReadingSpool.Reading reading) {
+		try {
+			spool.append(reading);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private List<Path> segmentFiles() throws Exception {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(path -> path.toString().endsWith(".seg")).sorted().toList();
+		}
+	}
+}
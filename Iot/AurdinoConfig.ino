@@ -14,10 +14,80 @@
 #define TEMPERATURE_THRESHOLD 29 
 #define TEMPERATURE_THRESHOLD1 32 // Temperature threshold to adjust motor speed
 
+// Set to 1 to send compact binary frames instead of JSON text
+// (the backend must then run with serial.protocol=binary)
+#define SERIAL_BINARY_FRAMES 0
+#define FRAME_VERSION 1
+#define FRAME_FLAG_SENSOR_FAILURE 0x01
+
 DHT dht(DHTPIN, DHTTYPE);
 
 LiquidCrystal_I2C lcd(0x27, 16, 2);  // Adjust the I2C address if necessary
 
+uint16_t frameSequence = 0;  // Lets the backend detect dropped frames
+
+// CRC-16/CCITT-FALSE, must match Crc16.java in the backend
+uint16_t crc16(const uint8_t *data, size_t length) {
+  uint16_t crc = 0xFFFF;
+  for (size_t i = 0; i < length; i++) {
+    crc ^= (uint16_t)data[i] << 8;
+    for (uint8_t bit = 0; bit < 8; bit++) {
+      crc = (crc & 0x8000) ? (crc << 1) ^ 0x1021 : crc << 1;
+    }
+  }
+  return crc;
+}
+
+// COBS-encode a buffer so it contains no zero bytes; returns the encoded length
+size_t cobsEncode(const uint8_t *input, size_t length, uint8_t *output) {
+  size_t writeIndex = 1;
+  size_t codeIndex = 0;
+  uint8_t code = 1;
+  for (size_t readIndex = 0; readIndex < length; readIndex++) {
+    if (input[readIndex] == 0) {
+      output[codeIndex] = code;
+      code = 1;
+      codeIndex = writeIndex++;
+    } else {
+      output[writeIndex++] = input[readIndex];
+      code++;
+    }
+  }
+  output[codeIndex] = code;
+  return writeIndex;
+}
+
+// Binary frame (little endian): version, sequence (2), uptime ms (4),
+// temperature in 1/100 °C (2), people count (2), flags, CRC-16 (2).
+// Sent COBS-encoded and terminated by a zero byte: 16 bytes instead of ~50.
+void sendBinaryReading(float temperature, uint16_t peopleCount, uint8_t flags) {
+  uint8_t frame[14];
+  int16_t centiDegrees = (int16_t)round(temperature * 100);
+  uint32_t uptime = millis();
+
+  frame[0] = FRAME_VERSION;
+  frame[1] = frameSequence & 0xFF;
+  frame[2] = frameSequence >> 8;
+  frame[3] = uptime & 0xFF;
+  frame[4] = (uptime >> 8) & 0xFF;
+  frame[5] = (uptime >> 16) & 0xFF;
+  frame[6] = (uptime >> 24) & 0xFF;
+  frame[7] = centiDegrees & 0xFF;
+  frame[8] = (centiDegrees >> 8) & 0xFF;
+  frame[9] = peopleCount & 0xFF;
+  frame[10] = peopleCount >> 8;
+  frame[11] = flags;
+  uint16_t crc = crc16(frame, 12);
+  frame[12] = crc & 0xFF;
+  frame[13] = crc >> 8;
+
+  uint8_t encoded[15];
+  size_t encodedLength = cobsEncode(frame, sizeof(frame), encoded);
+  Serial.write(encoded, encodedLength);
+  Serial.write((uint8_t)0);
+  frameSequence++;
+}
+
 void setup() {
   Serial.begin(9600);
   dht.begin();
@@ -34,16 +104,24 @@ void loop() {
 
   float temperature = dht.readTemperature(); // Read temperature in Celsius
   if (isnan(temperature)) {
+#if SERIAL_BINARY_FRAMES
+    sendBinaryReading(0, 0, FRAME_FLAG_SENSOR_FAILURE);
+#else
     Serial.println("{\"error\":\"sensor_failure\"}");
+#endif
     return;
   }
 
+#if SERIAL_BINARY_FRAMES
+  sendBinaryReading(temperature, 0, 0);  // Set to 0 or add people count sensor
+#else
   // Send JSON format for backend parsing via USB serial
   Serial.print("{\"temperatureCelsius\":");
   Serial.print(temperature, 2);  // 2 decimal places
   Serial.print(",\"totalPeopleCount\":");
   Serial.print(0);  // Set to 0 or add people count sensor
   Serial.println("}");
+#endif
 
   lcd.setCursor(0, 1); // Set cursor to the second line
   lcd.print("                "); // Clear the previous motor speed
@@ -410,6 +410,8 @@ class CrowdOracle {
     
     async sendDataToBackend() {
         if (!this.settings.autoSendData) return;
+        // Backend asked us to slow down (429); skip uploads until Retry-After has passed
+        if (this.retryAfterUntil && Date.now() < this.retryAfterUntil) return;
         
         const data = {
             temperatureCelsius: parseFloat(this.manualTempInput.value) || 25.0,
@@ -425,6 +427,14 @@ class CrowdOracle {
                 body: JSON.stringify(data)
             });
             
+            if (response.status === 429) {
+                const retryAfter = parseInt(response.headers.get('Retry-After')) || 1;
+                this.retryAfterUntil = Date.now() + retryAfter * 1000;
+                this.updateConnectionStatus('Throttled');
+                this.addActivityItem(false, `RATE LIMITED: RETRY IN ${retryAfter}s`);
+                return;
+            }
+            
             const result = await response.json();
             
             if (result.success) {